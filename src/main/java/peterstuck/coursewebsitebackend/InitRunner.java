@@ -7,6 +7,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import peterstuck.coursewebsitebackend.exceptions.CourseNotFoundException;
 import peterstuck.coursewebsitebackend.models.course.factory.CourseFactory;
 import peterstuck.coursewebsitebackend.models.course.factory.CourseDescriptionFactory;
 import peterstuck.coursewebsitebackend.models.course.*;
@@ -17,6 +18,9 @@ import peterstuck.coursewebsitebackend.models.user.UserDetail;
 import peterstuck.coursewebsitebackend.repositories.*;
 import peterstuck.coursewebsitebackend.repositories.user.RegistrationType;
 import peterstuck.coursewebsitebackend.repositories.user.UserRepository;
+import peterstuck.coursewebsitebackend.services.category.CategoryService;
+import peterstuck.coursewebsitebackend.services.comment.CommentService;
+import peterstuck.coursewebsitebackend.services.search.CourseSearchIndex;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -32,9 +36,18 @@ public class InitRunner implements CommandLineRunner {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryService categoryService;
+
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private CourseSearchIndex searchIndex;
+
     @Autowired
     private RoleRepository roleRepository;
 
@@ -54,36 +67,37 @@ public class InitRunner implements CommandLineRunner {
     }
 
     void initializeCategories() {
-        categoryRepository.save(new Category("Programowanie", 0));
-        categoryRepository.save(new Category("Biznes", 0));
-        categoryRepository.save(new Category("Projektowanie", 0));
-        categoryRepository.save(new Category("Tworzenie stron internetowych", 1));
-        categoryRepository.save(new Category("Tworzenie gier", 1));
-        categoryRepository.save(new Category("Prowadzenie firmy", 2));
-        categoryRepository.save(new Category("Komunikacja i zarządzanie", 2));
-        categoryRepository.save(new Category("Narzędzia projektowe", 3));
+        categoryService.save(new Category("Programowanie", 0));
+        categoryService.save(new Category("Biznes", 0));
+        categoryService.save(new Category("Projektowanie", 0));
+        categoryService.save(new Category("Tworzenie stron internetowych", 1));
+        categoryService.save(new Category("Tworzenie gier", 1));
+        categoryService.save(new Category("Prowadzenie firmy", 2));
+        categoryService.save(new Category("Komunikacja i zarządzanie", 2));
+        categoryService.save(new Category("Narzędzia projektowe", 3));
 
         categoryRepository.findAll().forEach(category -> logger.info("CREATED CATEGORY {}", category.getName()));
     }
 
-    void initializeCourses() {
+    void initializeCourses() throws CourseNotFoundException {
         var course = createSampleCourse();
-        Comment sampleComment = createSampleComment(course, userRepository.findByEmail("email@email.com"), Rating.FIVE.starValue);
-        course.getCourseFeedback().getComments().add(sampleComment);
-
         var course2 = createSampleCourse();
 
         courseRepository.save(course);
         courseRepository.save(course2);
+        searchIndex.putCourse(course);
+        searchIndex.putCourse(course2);
+
+        Comment sampleComment = createSampleComment(userRepository.findByEmail("email@email.com"), Rating.FIVE.starValue);
+        commentService.add(course.getId(), sampleComment);
 
         courseRepository.findAll().forEach(c -> logger.info("CREATED COURSE {}", c.getTitle()));
     }
 
-    private Comment createSampleComment(Course course, User author, Double rate) {
+    private Comment createSampleComment(User author, Double rate) {
         var sampleComment = new Comment();
         sampleComment.setAuthor(author.getUserActivity());
         sampleComment.setDescription("Some comment");
-        sampleComment.setCourseFeedback(course.getCourseFeedback());
         sampleComment.setRate(rate);
         return sampleComment;
     }
@@ -0,0 +1,69 @@
+package peterstuck.coursewebsitebackend.configuration;
+
+import graphql.GraphQL;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import peterstuck.coursewebsitebackend.services.graphql.CatalogDataFetchers;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Configuration
+public class GraphQLConfiguration {
+
+    /**
+     * Assumed number of elements of list fields with unknown length, ex. authors of course
+     */
+    private static final int LIST_FIELD_SIZE = 10;
+
+    @Value("${graphql.max-depth:8}")
+    private int maxDepth;
+
+    @Value("${graphql.max-complexity:1000}")
+    private int maxComplexity;
+
+    @Bean
+    public GraphQL graphQL(CatalogDataFetchers fetchers) throws IOException {
+        GraphQLSchema schema;
+        try (Reader reader = new InputStreamReader(new ClassPathResource("graphql/schema.graphqls").getInputStream(), StandardCharsets.UTF_8)) {
+            schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(reader), fetchers.wiring());
+        }
+
+        return GraphQL.newGraphQL(schema)
+                .instrumentation(new ChainedInstrumentation(List.of(
+                        new DataLoaderDispatcherInstrumentation(),
+                        new MaxQueryDepthInstrumentation(maxDepth),
+                        new MaxQueryComplexityInstrumentation(maxComplexity, complexityCalculator()))))
+                .build();
+    }
+
+    /**
+     * Every field costs 1, fields of list elements are counted once per element.
+     * Length of list requested by ids is known from query, other lists are assumed to have LIST_FIELD_SIZE elements.
+     */
+    private static FieldComplexityCalculator complexityCalculator() {
+        return (env, childComplexity) -> {
+            Object ids = env.getArguments().get("ids");
+            if (ids instanceof List)
+                return 1 + childComplexity * ((List<?>) ids).size();
+            if (GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()) instanceof GraphQLList)
+                return 1 + childComplexity * LIST_FIELD_SIZE;
+            return 1 + childComplexity;
+        };
+    }
+}
@@ -43,11 +43,16 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
                 .antMatchers(HttpMethod.DELETE, "/api/categories/*").hasRole("ADMIN")
                 .antMatchers(HttpMethod.GET, "/api/courses**").permitAll()
                 .antMatchers(HttpMethod.POST, "/api/courses").hasAnyRole("USER", "ADMIN")
+                .antMatchers(HttpMethod.POST, "/api/courses/*/comments").hasAnyRole("USER", "ADMIN")
+                .antMatchers(HttpMethod.PUT, "/api/courses/*/comments/*").hasAnyRole("USER", "ADMIN")
+                .antMatchers(HttpMethod.DELETE, "/api/courses/*/comments/*").hasAnyRole("USER", "ADMIN")
+                .antMatchers(HttpMethod.POST, "/api/courses/search/reindex").hasRole("ADMIN")
                 .antMatchers(HttpMethod.PUT, "/api/courses/*").hasAnyRole("USER", "ADMIN")
                 .antMatchers(HttpMethod.DELETE, "/api/courses/*").hasAnyRole("USER", "ADMIN")
                 .antMatchers(HttpMethod.PUT, "/api/users").hasAnyRole("USER", "DEVELOPER", "ADMIN")
                 .antMatchers(HttpMethod.GET, "/api/users").hasAnyRole("USER", "DEVELOPER", "ADMIN")
                 .antMatchers(HttpMethod.POST, "/api/users").permitAll()
+                .antMatchers(HttpMethod.POST, "/api/graphql").permitAll()
                 .antMatchers("/actuator", "/actuator/*", "actuator/**").hasAnyRole("DEVELOPER", "ADMIN")
                 .antMatchers("/api/auth/*").permitAll()
                 .antMatchers("**").permitAll()
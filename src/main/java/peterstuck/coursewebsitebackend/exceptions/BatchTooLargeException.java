@@ -0,0 +1,11 @@
+package peterstuck.coursewebsitebackend.exceptions;
+
+public class BatchTooLargeException extends Exception {
+
+    public BatchTooLargeException() {
+    }
+
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package peterstuck.coursewebsitebackend.exceptions;
+
+public class CommentNotFoundException extends Exception {
+
+    public CommentNotFoundException() {
+    }
+
+    public CommentNotFoundException(String message) {
+        super(message);
+    }
+}
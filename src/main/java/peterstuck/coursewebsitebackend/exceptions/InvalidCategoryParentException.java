@@ -0,0 +1,11 @@
+package peterstuck.coursewebsitebackend.exceptions;
+
+public class InvalidCategoryParentException extends Exception {
+
+    public InvalidCategoryParentException() {
+    }
+
+    public InvalidCategoryParentException(String message) {
+        super(message);
+    }
+}
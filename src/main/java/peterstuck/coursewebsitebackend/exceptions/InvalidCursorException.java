@@ -0,0 +1,11 @@
+package peterstuck.coursewebsitebackend.exceptions;
+
+public class InvalidCursorException extends Exception {
+
+    public InvalidCursorException() {
+    }
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
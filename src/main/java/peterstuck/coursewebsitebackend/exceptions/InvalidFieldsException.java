@@ -0,0 +1,11 @@
+package peterstuck.coursewebsitebackend.exceptions;
+
+public class InvalidFieldsException extends Exception {
+
+    public InvalidFieldsException() {
+    }
+
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
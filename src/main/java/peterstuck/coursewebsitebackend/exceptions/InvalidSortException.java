@@ -0,0 +1,11 @@
+package peterstuck.coursewebsitebackend.exceptions;
+
+public class InvalidSortException extends Exception {
+
+    public InvalidSortException() {
+    }
+
+    public InvalidSortException(String message) {
+        super(message);
+    }
+}
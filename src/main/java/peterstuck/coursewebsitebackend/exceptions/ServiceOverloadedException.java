@@ -0,0 +1,11 @@
+package peterstuck.coursewebsitebackend.exceptions;
+
+public class ServiceOverloadedException extends Exception {
+
+    public ServiceOverloadedException() {
+    }
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
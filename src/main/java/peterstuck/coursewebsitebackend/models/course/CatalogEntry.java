@@ -0,0 +1,44 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Values of course matched by listing criteria, held by in memory catalog index.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogEntry {
+
+    private Long id;
+
+    /**
+     * Title without diacritics, see Course.titleKey
+     */
+    private String titleKey;
+
+    private Double price;
+
+    private double avgRate;
+
+    private int languagesMask;
+
+    private int subtitlesMask;
+
+    private List<Integer> categoryIds;
+
+    public CatalogEntry(Long id, String titleKey, Double price, double avgRate, int languagesMask, int subtitlesMask) {
+        this(id, titleKey, price, avgRate, languagesMask, subtitlesMask, new ArrayList<>());
+    }
+
+    /**
+     * @return copy with other average rate, entries held by catalog index are never changed in place
+     */
+    public CatalogEntry withAvgRate(double avgRate) {
+        return new CatalogEntry(id, titleKey, price, avgRate, languagesMask, subtitlesMask, categoryIds);
+    }
+
+}
@@ -7,6 +7,8 @@ import io.swagger.annotations.ApiModelProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 
+import peterstuck.coursewebsitebackend.utils.SearchKeyUtil;
+
 import javax.persistence.*;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Size;
@@ -19,7 +21,10 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "category")
+@Table(name = "category", indexes = {
+        @Index(name = "category_path_idx", columnList = "path"),
+        @Index(name = "category_parent_category_id_name_sort_key_idx", columnList = "parent_category_id, name_sort_key")
+})
 public class Category {
 
     @Id
@@ -32,11 +37,37 @@ public class Category {
     @Size(min = 4, message = "Category name should have at least 4 characters.")
     private String name;
 
+    /**
+     * Name folded by SearchKeyUtil.toSearchKey
+     */
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonIgnore
+    @Column(name = "name_key")
+    private String nameKey;
+
+    /**
+     * Polish collation key of name, categories are listed in its order.
+     */
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonIgnore
+    @Column(name = "name_sort_key")
+    private byte[] nameSortKey;
+
     @Schema(description = "When zero then it's a main category", required = true)
     @Column(name = "parent_category_id")
     @Min(value = 0, message = "Parent category ID cannot be negative.")
     private int parentCategoryId;
 
+    /**
+     * Materialized path of category ids from main category to this category, ex. /1/4/.
+     * Whole subtree of category can be found with single range query, compared byte by byte in C collation,
+     * so index on path answers it.
+     */
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonIgnore
+    @Column(name = "path", columnDefinition = "varchar(255) collate \"C\"")
+    private String path;
+
     @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     @JsonIgnore
     @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
@@ -52,4 +83,14 @@ public class Category {
         this.parentCategoryId = parentCategoryId;
     }
 
+    /**
+     * Keys are computed on every write, so reads never normalize names.
+     */
+    @PrePersist
+    @PreUpdate
+    private void computeNameKeys() {
+        nameKey = SearchKeyUtil.toSearchKey(name);
+        nameSortKey = SearchKeyUtil.toSortKey(name);
+    }
+
 }
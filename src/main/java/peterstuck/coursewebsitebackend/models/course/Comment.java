@@ -2,23 +2,30 @@ package peterstuck.coursewebsitebackend.models.course;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import lombok.Setter;
 import peterstuck.coursewebsitebackend.models.user.UserActivity;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
+import java.util.Date;
 
 @Getter
 @Setter
-@NoArgsConstructor
 @Entity
-@Table(name = "comment")
+@Table(name = "comment", indexes = {
+        @Index(name = "comment_course_feedback_id_created_id_idx", columnList = "course_feedback_id, created, id"),
+        @Index(name = "comment_course_feedback_id_rate_id_idx", columnList = "course_feedback_id, rate, id")
+})
 public class Comment {
 
-    @JsonIgnore
+    /**
+     * Set only by server, comments are updated and deleted by it
+     */
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
@@ -37,6 +44,14 @@ public class Comment {
     @Max(value = 5, message = "Max star value for curse is five.")
     private Double rate;
 
+    /**
+     * Set only by server, as comments are sorted by it from the newest
+     */
+    @Schema(description = "Date of comment creation in long format", accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "created")
+    private Long created;
+
     @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY, cascade = {CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
@@ -48,4 +63,8 @@ public class Comment {
     @JoinColumn(name = "user_activity_id")
     private UserActivity author;
 
+    public Comment() {
+        created = new Date().getTime();
+    }
+
 }
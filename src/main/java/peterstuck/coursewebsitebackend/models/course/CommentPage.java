@@ -0,0 +1,23 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "Single page of course comments from keyset pagination")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentPage {
+
+    private List<Comment> comments;
+
+    @Schema(description = "Opaque cursor of the next page. Not present on the last page.")
+    private String nextCursor;
+
+}
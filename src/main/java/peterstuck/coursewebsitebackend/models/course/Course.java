@@ -4,11 +4,13 @@ import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import peterstuck.coursewebsitebackend.models.user.User;
+import peterstuck.coursewebsitebackend.utils.SearchKeyUtil;
 
 import javax.persistence.*;
 import javax.validation.Valid;
@@ -28,7 +30,34 @@ import java.util.Set;
 @ToString
 @AllArgsConstructor
 @Entity
-@Table(name = "course")
+@NamedEntityGraph(name = "Course.detail",
+        attributeNodes = {
+                @NamedAttributeNode("courseFeedback"),
+                @NamedAttributeNode("courseDescription")
+        })
+@NamedEntityGraph(name = "Course.mainTopics",
+        attributeNodes = @NamedAttributeNode(value = "courseDescription", subgraph = "mainTopics"),
+        subgraphs = @NamedSubgraph(name = "mainTopics", attributeNodes = @NamedAttributeNode("mainTopics")))
+@NamedEntityGraph(name = "Course.requirements",
+        attributeNodes = @NamedAttributeNode(value = "courseDescription", subgraph = "requirements"),
+        subgraphs = @NamedSubgraph(name = "requirements", attributeNodes = @NamedAttributeNode("requirements")))
+@NamedEntityGraph(name = "Course.feedback",
+        attributeNodes = @NamedAttributeNode("courseFeedback"))
+@NamedEntityGraph(name = "Course.authors",
+        attributeNodes = @NamedAttributeNode("authors"))
+@NamedEntityGraph(name = "Course.authorProfiles",
+        attributeNodes = @NamedAttributeNode(value = "authors", subgraph = "authorProfile"),
+        subgraphs = @NamedSubgraph(name = "authorProfile", attributeNodes = @NamedAttributeNode("userDetail")))
+@NamedEntityGraph(name = "Course.edit",
+        attributeNodes = {
+                @NamedAttributeNode("courseDescription"),
+                @NamedAttributeNode("authors")
+        })
+@Table(name = "course", indexes = {
+        @Index(name = "course_price_id_idx", columnList = "price, id"),
+        @Index(name = "course_last_update_id_idx", columnList = "last_update, id"),
+        @Index(name = "course_title_sort_key_id_idx", columnList = "title_sort_key, id")
+})
 public class Course {
 
     @Id
@@ -42,13 +71,41 @@ public class Course {
     @Size(min = 5, max = 50, message = "Title should have between 5 and 50 characters.")
     private String title;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @Column
-    private Set<Language> languages;
+    /**
+     * Title folded by SearchKeyUtil.toSearchKey, keyword filter matches it instead of title.
+     */
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonIgnore
+    @ToString.Exclude
+    @Column(name = "title_key")
+    private String titleKey;
 
-    @ElementCollection(fetch = FetchType.LAZY)
-    @Column
-    private Set<Language> subtitles;
+    /**
+     * Polish collation key of title, courses are sorted by title with it.
+     */
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    @JsonIgnore
+    @ToString.Exclude
+    @Column(name = "title_sort_key")
+    private byte[] titleSortKey;
+
+    /**
+     * Bit mask of languages, read and written as set with getLanguages and setLanguages
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "languages", nullable = false)
+    private int languagesMask;
+
+    /**
+     * Bit mask of subtitles, read and written as set with getSubtitles and setSubtitles
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "subtitles", nullable = false)
+    private int subtitlesMask;
 
     @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     @JsonIgnore
@@ -56,7 +113,8 @@ public class Course {
     @JoinTable(
             name = "course_category",
             joinColumns = @JoinColumn(name = "course_id"),
-            inverseJoinColumns = @JoinColumn(name = "category_id")
+            inverseJoinColumns = @JoinColumn(name = "category_id"),
+            indexes = @Index(name = "course_category_category_id_course_id_idx", columnList = "category_id, course_id")
     )
     private List<Category> categories;
 
@@ -88,6 +146,7 @@ public class Course {
     @ManyToMany(mappedBy = "purchasedCourses", cascade = { CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH })
     private List<User> students;
 
+    @JsonIgnoreProperties(value = {"purchasedCourses", "hibernateLazyInitializer"})
     @ManyToMany(fetch = FetchType.LAZY, cascade = { CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH })
     @JoinTable(
             name = "course_website_user",
@@ -101,4 +160,36 @@ public class Course {
         authors = new ArrayList<>();
         lastUpdate = new Date().getTime();
     }
+
+    /**
+     * @return copy of course languages, changes have to be saved with setLanguages
+     */
+    public Set<Language> getLanguages() {
+        return Language.fromMask(languagesMask);
+    }
+
+    public void setLanguages(Set<Language> languages) {
+        languagesMask = Language.toMask(languages);
+    }
+
+    /**
+     * @return copy of course subtitles, changes have to be saved with setSubtitles
+     */
+    public Set<Language> getSubtitles() {
+        return Language.fromMask(subtitlesMask);
+    }
+
+    public void setSubtitles(Set<Language> subtitles) {
+        subtitlesMask = Language.toMask(subtitles);
+    }
+
+    /**
+     * Keys are computed on every write, so reads never normalize titles.
+     */
+    @PrePersist
+    @PreUpdate
+    private void computeTitleKeys() {
+        titleKey = SearchKeyUtil.toSearchKey(title);
+        titleSortKey = SearchKeyUtil.toSortKey(title);
+    }
 }
@@ -0,0 +1,19 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Schema(description = "Courses requested by ids, in order of request")
+@Getter
+@AllArgsConstructor
+public class CourseBatch {
+
+    private List<Course> courses;
+
+    @Schema(description = "Requested ids of courses which not exist")
+    private List<Long> missingIds;
+
+}
@@ -0,0 +1,74 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Schema(description = "Course data shown on course lists")
+@Getter
+@Setter
+@NoArgsConstructor
+public class CourseCard {
+
+    private Long id;
+
+    private String title;
+
+    private Double price;
+
+    @Schema(description = "Date of last course update in long format")
+    private Long lastUpdate;
+
+    private String shortDescription;
+
+    @Schema(description = "Average rate from all rates for course")
+    private double avgRate;
+
+    private int ratesCount;
+
+    private Set<Language> languages;
+
+    @Schema(description = "First and last names of course authors")
+    private List<String> authors;
+
+    @Schema(description = "Title and short description with matched words marked with b tags. Present only in search results.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String highlight;
+
+    /**
+     * Used only as keyset tie breaker of orders by feedback
+     */
+    @JsonIgnore
+    private Long feedbackId;
+
+    /**
+     * Used only as keyset value of order by title
+     */
+    @JsonIgnore
+    private byte[] titleSortKey;
+
+    /**
+     * Used by JPQL constructor expression, authors are filled separately
+     */
+    public CourseCard(Long id, String title, Double price, Long lastUpdate, String shortDescription, Long feedbackId, double avgRate, int ratesCount, int languagesMask, byte[] titleSortKey) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.lastUpdate = lastUpdate;
+        this.shortDescription = shortDescription;
+        this.feedbackId = feedbackId;
+        this.avgRate = avgRate;
+        this.ratesCount = ratesCount;
+        this.titleSortKey = titleSortKey;
+        languages = Language.fromMask(languagesMask);
+        authors = new ArrayList<>();
+    }
+
+}
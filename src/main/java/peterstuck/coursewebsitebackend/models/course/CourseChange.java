@@ -0,0 +1,49 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * Latest change of course in change log, written in the same transaction as the change itself.
+ * Each course has only one entry, so log grows with number of courses, not with number of their changes.
+ * Id of writing transaction is the change token, entries are read only when all transactions up to it have finished.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "course_change", indexes = {
+        @Index(name = "course_change_course_id_idx", columnList = "course_id", unique = true),
+        @Index(name = "course_change_transaction_id_id_idx", columnList = "transaction_id, id")
+})
+public class CourseChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Not a foreign key, so tombstones of deleted courses are kept
+     */
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+
+    /**
+     * Id of the last transaction which changed course, as returned by txid_current()
+     */
+    @Column(name = "transaction_id", nullable = false)
+    private long transactionId;
+
+    public CourseChange(Long courseId, boolean deleted, long transactionId) {
+        this.courseId = courseId;
+        this.deleted = deleted;
+        this.transactionId = transactionId;
+    }
+}
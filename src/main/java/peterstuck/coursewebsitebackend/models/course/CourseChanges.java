@@ -0,0 +1,26 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Schema(description = "Courses changed after change token, each course is returned once with its latest state")
+@Getter
+@AllArgsConstructor
+public class CourseChanges {
+
+    @Schema(description = "Cards of courses created or updated after token, in order of changes")
+    private List<CourseCard> upserts;
+
+    @Schema(description = "Ids of courses deleted after token")
+    private List<Long> deletedIds;
+
+    @Schema(description = "Token to pass as since in the next request")
+    private String token;
+
+    @Schema(description = "True when limit of changes was reached, so there may be more changes after token, which should be requested right away")
+    private boolean hasMore;
+
+}
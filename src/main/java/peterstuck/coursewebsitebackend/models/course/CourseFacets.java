@@ -0,0 +1,35 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Schema(description = "Number of courses matching listing filters per attribute value")
+@Getter
+@Setter
+public class CourseFacets {
+
+    private Map<Language, Long> languages;
+
+    private Map<Language, Long> subtitles;
+
+    @Schema(description = "Number of courses per category id")
+    private Map<Integer, Long> categories;
+
+    private Map<PriceBucket, Long> prices;
+
+    @Schema(description = "Number of rated courses per average rate rounded down to half star")
+    private Map<Rating, Long> ratings;
+
+    public CourseFacets() {
+        languages = new EnumMap<>(Language.class);
+        subtitles = new EnumMap<>(Language.class);
+        categories = new TreeMap<>();
+        prices = new EnumMap<>(PriceBucket.class);
+        ratings = new EnumMap<>(Rating.class);
+    }
+}
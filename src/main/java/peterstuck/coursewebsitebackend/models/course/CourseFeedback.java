@@ -1,7 +1,7 @@
 package peterstuck.coursewebsitebackend.models.course;
 
 import com.fasterxml.jackson.annotation.JsonFilter;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
@@ -14,25 +14,45 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "course_feedback")
+@Table(name = "course_feedback", indexes = {
+        @Index(name = "course_feedback_avg_rate_id_idx", columnList = "avg_rate, id"),
+        @Index(name = "course_feedback_rates_count_id_idx", columnList = "rates_count, id")
+})
 public class CourseFeedback {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @JsonIgnoreProperties(value = {"course_feedback", "hibernateLazyInitializer"})
+    @JsonIgnore
     @OneToMany(mappedBy = "courseFeedback", cascade = CascadeType.ALL)
     private List<Comment> comments;
 
-    @Schema(description = "Average rate from all rates for course")
+    @Schema(description = "Newest comments of course, all comments are available under comments link of course", accessMode = Schema.AccessMode.READ_ONLY)
+    @Transient
+    private List<Comment> latestComments;
+
+    @Schema(description = "Average rate from all rates for course, 0 when course has no rates", accessMode = Schema.AccessMode.READ_ONLY)
     private double avgRate;
 
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     private int ratesCount;
 
+    /**
+     * Kept with average, so average is recomputed exactly after each change instead of accumulating rounding errors
+     */
+    @JsonIgnore
+    private double ratesSum;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    @Embedded
+    private RatingHistogram histogram;
+
     public CourseFeedback() {
         comments = new ArrayList<>();
         avgRate = 0.0;
         ratesCount = 0;
+        ratesSum = 0.0;
+        histogram = new RatingHistogram();
     }
 }
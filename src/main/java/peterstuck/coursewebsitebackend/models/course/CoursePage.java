@@ -0,0 +1,41 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "Single page of courses from keyset pagination")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoursePage {
+
+    private List<CourseCard> courses;
+
+    @Schema(description = "Opaque cursor of the next page. Not present on the last page.")
+    private String nextCursor;
+
+    @Schema(description = "Counts of all courses matching filters. Present only when requested.")
+    private CourseFacets facets;
+
+    @Schema(description = "Corrected phrase which courses were found for, when nothing was found for misspelled one. Present only in search results.")
+    private String didYouMean;
+
+    @Schema(description = "Number of all courses matching filters, estimated from database statistics unless exact count was requested. " +
+            "Present only on the first page of course listing.")
+    private Long total;
+
+    @Schema(description = "True when total was counted exactly, false when it is an estimate.")
+    private Boolean totalExact;
+
+    public CoursePage(List<CourseCard> courses, String nextCursor) {
+        this.courses = courses;
+        this.nextCursor = nextCursor;
+    }
+
+}
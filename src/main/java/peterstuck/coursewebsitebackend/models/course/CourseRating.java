@@ -0,0 +1,19 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Rate aggregates of course read after they were changed, pushed to in memory indexes.
+ */
+@Getter
+@AllArgsConstructor
+public class CourseRating {
+
+    private Long courseId;
+
+    private double avgRate;
+
+    private int ratesCount;
+
+}
@@ -1,10 +1,42 @@
 package peterstuck.coursewebsitebackend.models.course;
 
+import java.util.Collection;
+import java.util.EnumSet;
+
+/**
+ * Sets of languages are stored as bit masks with bit of every language set, bits come from ordinals,
+ * so new languages have to be added at the end.
+ */
 public enum Language {
 
     ENGLISH,
     DEUTSCH,
     FRENCH,
-    POLISH
+    POLISH;
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @return 0 when languages are null or empty
+     */
+    public static int toMask(Collection<Language> languages) {
+        int mask = 0;
+        if (languages != null) {
+            for (Language language : languages)
+                mask |= language.bit();
+        }
+        return mask;
+    }
+
+    public static EnumSet<Language> fromMask(int mask) {
+        EnumSet<Language> languages = EnumSet.noneOf(Language.class);
+        for (Language language : values()) {
+            if ((mask & language.bit()) != 0)
+                languages.add(language);
+        }
+        return languages;
+    }
 
 }
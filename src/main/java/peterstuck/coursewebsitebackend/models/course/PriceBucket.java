@@ -0,0 +1,23 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+/**
+ * Price ranges used in course catalog facets. Each bucket starts where previous one ends.
+ */
+public enum PriceBucket {
+
+    FREE(0.01),
+    UP_TO_50(50),
+    FROM_50_TO_100(100),
+    FROM_100_TO_200(200),
+    FROM_200(Double.POSITIVE_INFINITY);
+
+
+    /**
+     * Exclusive upper bound of bucket
+     */
+    public final double upperBound;
+
+    PriceBucket(double upperBound) {
+        this.upperBound = upperBound;
+    }
+}
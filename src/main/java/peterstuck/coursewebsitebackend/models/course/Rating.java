@@ -18,4 +18,22 @@ public enum Rating {
     Rating(double v) {
         this.starValue = v;
     }
+
+    /**
+     * @return rating of given rate rounded down to half star, null when rate is out of scale
+     */
+    public static Rating fromRate(double rate) {
+        return fromStarValue(Math.floor(rate * 2) / 2);
+    }
+
+    /**
+     * @return rating with given star value, null when there is no such rating
+     */
+    public static Rating fromStarValue(double starValue) {
+        for (Rating rating : values()) {
+            if (rating.starValue == starValue)
+                return rating;
+        }
+        return null;
+    }
 }
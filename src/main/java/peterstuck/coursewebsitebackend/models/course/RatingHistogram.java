@@ -0,0 +1,107 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Number of rates per rating, stored as one column per rating in course feedback row.
+ * Counters are changed only by update statements of CourseFeedbackRepository.
+ */
+@Schema(description = "Number of rates per rating, rates are rounded down to half star")
+@Embeddable
+public class RatingHistogram {
+
+    @Column(name = "rating_one_count")
+    private int one;
+
+    @Column(name = "rating_one_and_half_count")
+    private int oneAndHalf;
+
+    @Column(name = "rating_two_count")
+    private int two;
+
+    @Column(name = "rating_two_and_half_count")
+    private int twoAndHalf;
+
+    @Column(name = "rating_three_count")
+    private int three;
+
+    @Column(name = "rating_three_and_half_count")
+    private int threeAndHalf;
+
+    @Column(name = "rating_four_count")
+    private int four;
+
+    @Column(name = "rating_four_and_half_count")
+    private int fourAndHalf;
+
+    @Column(name = "rating_five_count")
+    private int five;
+
+    /**
+     * @return name of property with counter of given rating, used in JPQL updates
+     */
+    public static String propertyOf(Rating rating) {
+        return switch (rating) {
+            case ONE -> "one";
+            case ONE_AND_HALF -> "oneAndHalf";
+            case TWO -> "two";
+            case TWO_AND_HALF -> "twoAndHalf";
+            case THREE -> "three";
+            case THREE_AND_HALF -> "threeAndHalf";
+            case FOUR -> "four";
+            case FOUR_AND_HALF -> "fourAndHalf";
+            case FIVE -> "five";
+        };
+    }
+
+    public int get(Rating rating) {
+        return switch (rating) {
+            case ONE -> one;
+            case ONE_AND_HALF -> oneAndHalf;
+            case TWO -> two;
+            case TWO_AND_HALF -> twoAndHalf;
+            case THREE -> three;
+            case THREE_AND_HALF -> threeAndHalf;
+            case FOUR -> four;
+            case FOUR_AND_HALF -> fourAndHalf;
+            case FIVE -> five;
+        };
+    }
+
+    private void set(Rating rating, int count) {
+        switch (rating) {
+            case ONE -> one = count;
+            case ONE_AND_HALF -> oneAndHalf = count;
+            case TWO -> two = count;
+            case TWO_AND_HALF -> twoAndHalf = count;
+            case THREE -> three = count;
+            case THREE_AND_HALF -> threeAndHalf = count;
+            case FOUR -> four = count;
+            case FOUR_AND_HALF -> fourAndHalf = count;
+            case FIVE -> five = count;
+        }
+    }
+
+    @JsonValue
+    public Map<Rating, Integer> toMap() {
+        Map<Rating, Integer> counts = new EnumMap<>(Rating.class);
+        for (Rating rating : Rating.values())
+            counts.put(rating, get(rating));
+        return counts;
+    }
+
+    @JsonCreator
+    public static RatingHistogram fromMap(Map<Rating, Integer> counts) {
+        RatingHistogram histogram = new RatingHistogram();
+        counts.forEach((rating, count) -> histogram.set(rating, count != null ? count : 0));
+        return histogram;
+    }
+
+}
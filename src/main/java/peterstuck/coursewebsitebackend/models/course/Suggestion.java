@@ -0,0 +1,35 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Course title or category name suggested for typed prefix. Instances are immutable,
+ * changed score or text is stored as new suggestion.
+ */
+@Schema(description = "Course title or category name starting with typed prefix")
+@Getter
+@AllArgsConstructor
+public class Suggestion {
+
+    @Schema(description = "Id of course or category")
+    private Long id;
+
+    @Schema(description = "Course title or category name")
+    private String text;
+
+    /**
+     * Number of rates of course or number of courses in category
+     */
+    @JsonIgnore
+    private long popularity;
+
+    /**
+     * Average rate of course, zero for category
+     */
+    @JsonIgnore
+    private double rating;
+
+}
@@ -0,0 +1,18 @@
+package peterstuck.coursewebsitebackend.models.course;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Schema(description = "Course titles and category names suggested for typed prefix")
+@Getter
+@AllArgsConstructor
+public class Suggestions {
+
+    private List<Suggestion> courses;
+
+    private List<Suggestion> categories;
+
+}
@@ -1,9 +1,54 @@
 package peterstuck.coursewebsitebackend.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import peterstuck.coursewebsitebackend.models.course.Category;
+import peterstuck.coursewebsitebackend.models.course.Suggestion;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Integer> {
+
+    /**
+     * Moves whole subtree in category hierarchy by replacing beginning of paths of categories in subtree.
+     * Subtree is selected by range from its path to the path with last separator incremented, answered by index on path.
+     * @param oldPrefix path of subtree root before move, ending with separator
+     * @param newPrefix path of subtree root after move
+     */
+    default int replacePathPrefix(String oldPrefix, String newPrefix) {
+        String prefixEnd = oldPrefix.substring(0, oldPrefix.length() - 1) + (char) (oldPrefix.charAt(oldPrefix.length() - 1) + 1);
+        return replacePathPrefix(oldPrefix, prefixEnd, newPrefix);
+    }
+
+    @Modifying
+    @Query("update Category c set c.path = concat(:newPrefix, substring(c.path, length(:oldPrefix) + 1)) " +
+            "where c.path >= :oldPrefix and c.path < :prefixEnd")
+    int replacePathPrefix(@Param("oldPrefix") String oldPrefix, @Param("prefixEnd") String prefixEnd, @Param("newPrefix") String newPrefix);
+
+    /**
+     * Categories with given parent in Polish alphabetical order of names.
+     */
+    List<Category> findByParentCategoryIdOrderByNameSortKeyAscIdAsc(int parentCategoryId);
+
+    /**
+     * Categories with any of given parents in Polish alphabetical order of names.
+     */
+    List<Category> findByParentCategoryIdInOrderByNameSortKeyAscIdAsc(Collection<Integer> parentCategoryIds);
+
+    @Modifying
+    @Query("update Category c set c.parentCategoryId = :newParentId where c.parentCategoryId = :oldParentId")
+    int updateParentCategoryId(@Param("oldParentId") int oldParentId, @Param("newParentId") int newParentId);
+
+    /**
+     * Names of all categories with number of their courses as popularity.
+     */
+    @Query("select new peterstuck.coursewebsitebackend.models.course.Suggestion(cast(c.id as long), c.name, count(course), 0.0) " +
+            "from Category c left join c.courses course group by c.id, c.name")
+    List<Suggestion> findAllSuggestions();
+
 }
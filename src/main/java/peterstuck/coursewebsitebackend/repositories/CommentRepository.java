@@ -0,0 +1,10 @@
+package peterstuck.coursewebsitebackend.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import peterstuck.coursewebsitebackend.models.course.Comment;
+import peterstuck.coursewebsitebackend.repositories.course.CommentRepositoryCustom;
+
+@Repository
+public interface CommentRepository extends JpaRepository<Comment, Integer>, CommentRepositoryCustom {
+}
@@ -0,0 +1,19 @@
+package peterstuck.coursewebsitebackend.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import peterstuck.coursewebsitebackend.models.course.CourseChange;
+import peterstuck.coursewebsitebackend.repositories.course.CourseChangeRepositoryCustom;
+
+@Repository
+public interface CourseChangeRepository extends JpaRepository<CourseChange, Long>, CourseChangeRepositoryCustom {
+
+    /**
+     * Every transaction up to returned one has finished, so no change up to it can be committed later.
+     * @return token of changes which are already final
+     */
+    @Query(value = "select txid_snapshot_xmin(txid_current_snapshot()) - 1", nativeQuery = true)
+    long findCheckpoint();
+
+}
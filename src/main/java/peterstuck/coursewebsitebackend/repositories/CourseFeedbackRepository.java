@@ -0,0 +1,18 @@
+package peterstuck.coursewebsitebackend.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import peterstuck.coursewebsitebackend.models.course.CourseFeedback;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFeedbackRepositoryCustom;
+
+import java.util.Optional;
+
+@Repository
+public interface CourseFeedbackRepository extends JpaRepository<CourseFeedback, Long>, CourseFeedbackRepositoryCustom {
+
+    @Query("select c.courseFeedback from Course c where c.id = :courseId")
+    Optional<CourseFeedback> findByCourseId(@Param("courseId") Long courseId);
+
+}
@@ -1,11 +1,72 @@
 package peterstuck.coursewebsitebackend.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import peterstuck.coursewebsitebackend.models.course.CatalogEntry;
 import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.Suggestion;
+import peterstuck.coursewebsitebackend.repositories.course.CourseRepositoryCustom;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface CourseRepository extends JpaRepository<Course, Long> {
+public interface CourseRepository extends JpaRepository<Course, Long>, CourseRepositoryCustom {
+
+    /**
+     * Titles of all courses with number of rates as popularity and average rate as rating.
+     */
+    @Query("select new peterstuck.coursewebsitebackend.models.course.Suggestion(c.id, c.title, cast(f.ratesCount as long), f.avgRate) " +
+            "from Course c join c.courseFeedback f")
+    List<Suggestion> findAllSuggestions();
+
+    @Query("select c.title from Course c")
+    List<String> findAllTitles();
+
+    @Query("select t from Course c join c.courseDescription d join d.mainTopics t")
+    List<String> findAllMainTopics();
+
+    /**
+     * Listing criteria of all listed courses, that is courses with feedback. Categories are loaded by findAllCategoryIds.
+     */
+    @Query("select new peterstuck.coursewebsitebackend.models.course.CatalogEntry(c.id, c.titleKey, c.price, f.avgRate, c.languagesMask, c.subtitlesMask) " +
+            "from Course c join c.courseFeedback f")
+    List<CatalogEntry> findAllCatalogEntries();
+
+    @Query("select new peterstuck.coursewebsitebackend.models.course.CatalogEntry(c.id, c.titleKey, c.price, f.avgRate, c.languagesMask, c.subtitlesMask) " +
+            "from Course c join c.courseFeedback f where c.id in :ids")
+    List<CatalogEntry> findCatalogEntriesByIds(Collection<Long> ids);
+
+    /**
+     * @return pairs of course id and id of its category
+     */
+    @Query("select c.id, cat.id from Course c join c.categories cat")
+    List<Object[]> findAllCategoryIds();
+
+    /**
+     * @return pairs of course id and id of its category
+     */
+    @Query("select c.id, cat.id from Course c join c.categories cat where c.id in :ids")
+    List<Object[]> findCategoryIdsByCourseIds(Collection<Long> ids);
+
+    /**
+     * @return pairs of course id and its category
+     */
+    @Query("select c.id, cat from Course c join c.categories cat where c.id in :ids")
+    List<Object[]> findCategoriesByCourseIds(Collection<Long> ids);
+
+    /**
+     * @return pairs of course id and its author loaded with profile
+     */
+    @Query("select c.id, a from Course c join c.authors a left join fetch a.userDetail where c.id in :ids")
+    List<Object[]> findAuthorsByCourseIds(Collection<Long> ids);
+
+    /**
+     * @return pairs of course id and its feedback
+     */
+    @Query("select c.id, f from Course c join c.courseFeedback f where c.id in :ids")
+    List<Object[]> findFeedbacksByCourseIds(Collection<Long> ids);
 
 }
@@ -0,0 +1,17 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Position of the last comment of previous page in comments order.
+ */
+@Getter
+@AllArgsConstructor
+public class CommentKeyset {
+
+    private final Object sortValue;
+
+    private final Integer tieBreakerId;
+
+}
@@ -0,0 +1,25 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import peterstuck.coursewebsitebackend.models.course.Comment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CommentRepositoryCustom {
+
+    /**
+     * Keyset page of comments of course feedback, loaded together with their authors.
+     * @param after position of the last comment from previous page, null for first page
+     * @param limit max number of returned comments
+     */
+    List<Comment> findPage(Long feedbackId, CommentSort sort, CommentKeyset after, int limit);
+
+    /**
+     * Newest comments of every course feedback, loaded together with their authors with two queries for any number of feedbacks.
+     * @param limit max number of comments per feedback
+     * @return comments from the newest by feedback id, without feedbacks which have no comments
+     */
+    Map<Long, List<Comment>> findLatestByFeedbackIds(Collection<Long> feedbackIds, int limit);
+
+}
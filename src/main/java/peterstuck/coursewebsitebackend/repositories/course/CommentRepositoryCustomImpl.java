@@ -0,0 +1,73 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import peterstuck.coursewebsitebackend.models.course.Comment;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class CommentRepositoryCustomImpl implements CommentRepositoryCustom {
+
+    @Autowired
+    private EntityManager manager;
+
+    @Override
+    public List<Comment> findPage(Long feedbackId, CommentSort sort, CommentKeyset after, int limit) {
+        String operator = sort.direction.isAscending() ? " > " : " < ";
+        String direction = sort.direction.isAscending() ? " asc" : " desc";
+
+        StringBuilder jpql = new StringBuilder("select cm from Comment cm left join fetch cm.author where cm.courseFeedback.id = :feedbackId");
+        if (after != null) {
+            jpql.append(" and (").append(sort.expression).append(operator).append(":sortValue")
+                    .append(" or (").append(sort.expression).append(" = :sortValue and cm.id").append(operator).append(":tieBreakerId))");
+        }
+        jpql.append(" order by ").append(sort.expression).append(direction).append(", cm.id").append(direction);
+
+        TypedQuery<Comment> query = manager.createQuery(jpql.toString(), Comment.class)
+                .setParameter("feedbackId", feedbackId);
+        if (after != null) {
+            query.setParameter("sortValue", after.getSortValue());
+            query.setParameter("tieBreakerId", after.getTieBreakerId());
+        }
+
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Ids of newest comments are numbered per feedback in Postgres, then only these comments are loaded.
+     */
+    @Override
+    public Map<Long, List<Comment>> findLatestByFeedbackIds(Collection<Long> feedbackIds, int limit) {
+        Map<Long, List<Comment>> latest = new HashMap<>();
+        if (feedbackIds.isEmpty())
+            return latest;
+
+        List<?> rows = manager.createNativeQuery("""
+                select id from (
+                    select id, row_number() over (partition by course_feedback_id order by created desc, id desc) as position
+                    from comment where course_feedback_id in :feedbackIds
+                ) numbered where position <= :limit""")
+                .setParameter("feedbackIds", feedbackIds)
+                .setParameter("limit", limit)
+                .getResultList();
+        if (rows.isEmpty())
+            return latest;
+
+        List<Integer> ids = rows.stream().map(id -> ((Number) id).intValue()).collect(Collectors.toList());
+        List<Object[]> comments = manager.createQuery(
+                "select cm.courseFeedback.id, cm from Comment cm left join fetch cm.author where cm.id in :ids order by cm.created desc, cm.id desc",
+                Object[].class)
+                .setParameter("ids", ids)
+                .getResultList();
+        for (Object[] row : comments)
+            latest.computeIfAbsent((Long) row[0], feedbackId -> new ArrayList<>()).add((Comment) row[1]);
+        return latest;
+    }
+
+}
@@ -0,0 +1,66 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import org.springframework.data.domain.Sort;
+import peterstuck.coursewebsitebackend.exceptions.InvalidSortException;
+import peterstuck.coursewebsitebackend.models.course.Comment;
+
+import java.util.function.Function;
+
+/**
+ * Supported orders of course comments, each one is read from index starting with course feedback id.
+ */
+public enum CommentSort {
+
+    NEWEST("newest", "cm.created", Sort.Direction.DESC, Comment::getCreated, Long::valueOf),
+    HIGHEST("highest", "cm.rate", Sort.Direction.DESC, Comment::getRate, Double::valueOf),
+    LOWEST("lowest", "cm.rate", Sort.Direction.ASC, Comment::getRate, Double::valueOf);
+
+    /**
+     * Name of order in request param
+     */
+    public final String param;
+
+    /**
+     * JPQL expression of sorted value, comment is aliased as cm. Comment id is used as tie breaker.
+     */
+    public final String expression;
+
+    public final Sort.Direction direction;
+
+    private final Function<Comment, Object> valueExtractor;
+    private final Function<String, Object> valueParser;
+
+    CommentSort(String param, String expression, Sort.Direction direction, Function<Comment, Object> valueExtractor, Function<String, Object> valueParser) {
+        this.param = param;
+        this.expression = expression;
+        this.direction = direction;
+        this.valueExtractor = valueExtractor;
+        this.valueParser = valueParser;
+    }
+
+    public Object valueOf(Comment comment) {
+        return valueExtractor.apply(comment);
+    }
+
+    /**
+     * @throws NumberFormatException when value does not match type of sorted value
+     */
+    public Object parseValue(String value) {
+        return valueParser.apply(value);
+    }
+
+    /**
+     * @return NEWEST order when param is not provided
+     * @throws InvalidSortException when order with given param not exists
+     */
+    public static CommentSort fromParam(String param) throws InvalidSortException {
+        if (param == null)
+            return NEWEST;
+
+        for (CommentSort sort : values()) {
+            if (sort.param.equals(param))
+                return sort;
+        }
+        throw new InvalidSortException("Sort: " + param + " is not supported.");
+    }
+}
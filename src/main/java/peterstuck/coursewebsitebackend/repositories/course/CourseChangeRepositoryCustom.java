@@ -0,0 +1,25 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import peterstuck.coursewebsitebackend.models.course.CourseChange;
+
+import java.util.List;
+
+public interface CourseChangeRepositoryCustom {
+
+    /**
+     * Replaces previous change of course with new one. Has to be called in transaction which changes course,
+     * writers wait for each other only when they change the same course.
+     * @param deleted true when course was deleted, false when it was created or updated
+     */
+    void record(Long courseId, boolean deleted);
+
+    /**
+     * Changes are returned only from transactions older than every running one, so change committed later
+     * never falls behind returned token. Transactions are never split, so the last one may exceed the limit.
+     * @param afterTransactionId token of the last change already known to client
+     * @param limit number of changes after which no next transaction is read
+     * @return changes ordered by transaction id and id
+     */
+    List<CourseChange> findAfter(long afterTransactionId, int limit);
+
+}
@@ -0,0 +1,56 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import peterstuck.coursewebsitebackend.models.course.CourseChange;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CourseChangeRepositoryCustomImpl implements CourseChangeRepositoryCustom {
+
+    /**
+     * Transactions with lower ids than this one have all finished. Ids are 64 bit, so they do not wrap around.
+     */
+    private static final String OLDEST_RUNNING_TRANSACTION = "txid_snapshot_xmin(txid_current_snapshot())";
+
+    @Autowired
+    private EntityManager manager;
+
+    /**
+     * Entry is stamped with id of writing transaction instead of taking lock shared by all writers,
+     * readers skip transactions which may still commit.
+     */
+    @Override
+    public void record(Long courseId, boolean deleted) {
+        manager.createNativeQuery("insert into course_change (course_id, deleted, transaction_id) values (:courseId, :deleted, txid_current())" +
+                " on conflict (course_id) do update set deleted = excluded.deleted, transaction_id = excluded.transaction_id")
+                .setParameter("courseId", courseId)
+                .setParameter("deleted", deleted)
+                .executeUpdate();
+    }
+
+    /**
+     * When the limit is reached, the rest of the last transaction is read too, so the next read may start after it.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CourseChange> findAfter(long afterTransactionId, int limit) {
+        List<CourseChange> changes = new ArrayList<>(manager.createNativeQuery("select * from course_change" +
+                " where transaction_id > :afterTransactionId and transaction_id < " + OLDEST_RUNNING_TRANSACTION +
+                " order by transaction_id, id", CourseChange.class)
+                .setParameter("afterTransactionId", afterTransactionId)
+                .setMaxResults(limit)
+                .getResultList());
+        if (changes.isEmpty() || changes.size() < limit)
+            return changes;
+
+        CourseChange last = changes.get(changes.size() - 1);
+        changes.addAll(manager.createNativeQuery("select * from course_change" +
+                " where transaction_id = :transactionId and id > :afterId order by id", CourseChange.class)
+                .setParameter("transactionId", last.getTransactionId())
+                .setParameter("afterId", last.getId())
+                .getResultList());
+        return changes;
+    }
+}
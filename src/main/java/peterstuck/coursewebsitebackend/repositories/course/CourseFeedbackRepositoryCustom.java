@@ -0,0 +1,42 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import peterstuck.coursewebsitebackend.models.course.CourseRating;
+import peterstuck.coursewebsitebackend.models.course.RatingHistogram;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate aggregates and histogram are updated with single statements, so concurrent changes never overwrite each other.
+ */
+public interface CourseFeedbackRepositoryCustom {
+
+    int addRate(Long feedbackId, double rate);
+
+    /**
+     * Folds all rates into one update, so the feedback row is locked once per batch instead of once per rate.
+     */
+    int addRates(Long feedbackId, Collection<Double> rates);
+
+    int changeRate(Long feedbackId, double oldRate, double newRate);
+
+    int removeRate(Long feedbackId, double rate);
+
+    /**
+     * @return histograms by course id, courses which not exist are skipped
+     */
+    Map<Long, RatingHistogram> findHistogramsByCourseIds(Collection<Long> courseIds);
+
+    /**
+     * @return feedback ids by course id, courses which not exist are skipped
+     */
+    Map<Long, Long> findIdsByCourseIds(Collection<Long> courseIds);
+
+    /**
+     * Reads aggregates from database, so values changed by update statements of current transaction are returned.
+     * @return ratings of courses having given feedbacks, ordered by course id
+     */
+    List<CourseRating> findRatingsByFeedbackIds(Collection<Long> feedbackIds);
+
+}
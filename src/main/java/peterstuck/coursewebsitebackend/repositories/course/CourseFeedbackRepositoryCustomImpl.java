@@ -0,0 +1,130 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import peterstuck.coursewebsitebackend.models.course.CourseRating;
+import peterstuck.coursewebsitebackend.models.course.Rating;
+import peterstuck.coursewebsitebackend.models.course.RatingHistogram;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Right side of every assignment in update sees values from before update.
+ */
+public class CourseFeedbackRepositoryCustomImpl implements CourseFeedbackRepositoryCustom {
+
+    @Autowired
+    private EntityManager manager;
+
+    @Override
+    public int addRate(Long feedbackId, double rate) {
+        return addRates(feedbackId, List.of(rate));
+    }
+
+    @Override
+    public int addRates(Long feedbackId, Collection<Double> rates) {
+        if (rates.isEmpty())
+            return 0;
+
+        double sum = 0;
+        Map<String, Integer> counters = new TreeMap<>();
+        for (double rate : rates) {
+            sum += rate;
+            counters.merge(RatingHistogram.propertyOf(Rating.fromRate(rate)), 1, Integer::sum);
+        }
+
+        StringBuilder hql = new StringBuilder("update CourseFeedback f set f.ratesSum = f.ratesSum + :sum, f.ratesCount = f.ratesCount + :count, " +
+                "f.avgRate = (f.ratesSum + :sum) / (f.ratesCount + :count)");
+        counters.keySet().forEach(property -> hql.append(", f.histogram.").append(property)
+                .append(" = f.histogram.").append(property).append(" + :").append(property));
+        hql.append(" where f.id = :id");
+
+        Query query = manager.createQuery(hql.toString())
+                .setParameter("sum", sum)
+                .setParameter("count", rates.size())
+                .setParameter("id", feedbackId);
+        counters.forEach(query::setParameter);
+
+        return query.executeUpdate();
+    }
+
+    @Override
+    public int changeRate(Long feedbackId, double oldRate, double newRate) {
+        String oldCounter = counterOf(oldRate);
+        String newCounter = counterOf(newRate);
+        String counters = oldCounter.equals(newCounter) ? "" :
+                ", " + oldCounter + " = " + oldCounter + " - 1, " + newCounter + " = " + newCounter + " + 1";
+
+        return manager.createQuery("update CourseFeedback f set f.ratesSum = f.ratesSum + :difference, " +
+                        "f.avgRate = (f.ratesSum + :difference) / f.ratesCount" + counters +
+                        " where f.id = :id and f.ratesCount > 0")
+                .setParameter("difference", newRate - oldRate)
+                .setParameter("id", feedbackId)
+                .executeUpdate();
+    }
+
+    /**
+     * Sum is reset with the last rate, so rounding errors of fractional rates do not outlive them.
+     */
+    @Override
+    public int removeRate(Long feedbackId, double rate) {
+        String counter = counterOf(rate);
+
+        return manager.createQuery("update CourseFeedback f set f.ratesSum = case when f.ratesCount = 1 then 0 else f.ratesSum - :rate end, " +
+                        "f.ratesCount = f.ratesCount - 1, " +
+                        "f.avgRate = case when f.ratesCount = 1 then 0 else (f.ratesSum - :rate) / (f.ratesCount - 1) end, " +
+                        counter + " = " + counter + " - 1 where f.id = :id and f.ratesCount > 0")
+                .setParameter("rate", rate)
+                .setParameter("id", feedbackId)
+                .executeUpdate();
+    }
+
+    @Override
+    public Map<Long, RatingHistogram> findHistogramsByCourseIds(Collection<Long> courseIds) {
+        Map<Long, RatingHistogram> histograms = new HashMap<>();
+        if (courseIds.isEmpty())
+            return histograms;
+
+        manager.createQuery("select c.id, f.histogram from Course c join c.courseFeedback f where c.id in :ids", Object[].class)
+                .setParameter("ids", courseIds)
+                .getResultList()
+                .forEach(row -> histograms.put((Long) row[0], (RatingHistogram) row[1]));
+
+        return histograms;
+    }
+
+    @Override
+    public Map<Long, Long> findIdsByCourseIds(Collection<Long> courseIds) {
+        Map<Long, Long> ids = new HashMap<>();
+        if (courseIds.isEmpty())
+            return ids;
+
+        manager.createQuery("select c.id, c.courseFeedback.id from Course c where c.id in :ids", Object[].class)
+                .setParameter("ids", courseIds)
+                .getResultList()
+                .forEach(row -> ids.put((Long) row[0], (Long) row[1]));
+
+        return ids;
+    }
+
+    @Override
+    public List<CourseRating> findRatingsByFeedbackIds(Collection<Long> feedbackIds) {
+        if (feedbackIds.isEmpty())
+            return List.of();
+
+        return manager.createQuery("select new peterstuck.coursewebsitebackend.models.course.CourseRating(c.id, f.avgRate, f.ratesCount) " +
+                        "from Course c join c.courseFeedback f where f.id in :ids order by c.id", CourseRating.class)
+                .setParameter("ids", feedbackIds)
+                .getResultList();
+    }
+
+    private String counterOf(double rate) {
+        return "f.histogram." + RatingHistogram.propertyOf(Rating.fromRate(rate));
+    }
+
+}
@@ -0,0 +1,35 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+/**
+ * Data loaded with course for particular use case. Every named entity graph of plan is loaded with separate query,
+ * as list fetched together with other collection would repeat its elements.
+ * Number of queries is fixed by plan and nothing deeper than its graphs is loaded.
+ */
+public enum CourseFetchPlan {
+
+    /**
+     * Everything shown on course page except comments: description, feedback and authors
+     */
+    DETAIL("Course.detail", "Course.mainTopics", "Course.requirements", "Course.authors"),
+
+    /**
+     * Description to update and authors to check if requester is one of them
+     */
+    EDIT("Course.edit"),
+
+    /**
+     * Authors with their profiles, used for courses purchased by user
+     */
+    USER_INFO("Course.authorProfiles"),
+
+    /**
+     * Description with main topics and requirements, used for courses queried by GraphQL
+     */
+    DESCRIPTION("Course.mainTopics", "Course.requirements");
+
+    public final String[] graphNames;
+
+    CourseFetchPlan(String... graphNames) {
+        this.graphNames = graphNames;
+    }
+}
@@ -0,0 +1,58 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import peterstuck.coursewebsitebackend.exceptions.InvalidFieldsException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields of course detail which client can select, id is always returned.
+ * Associations of not selected fields are not loaded at all.
+ */
+public enum CourseField {
+
+    TITLE("title"),
+    PRICE("price"),
+    LAST_UPDATE("lastUpdate"),
+    LANGUAGES("languages"),
+    SUBTITLES("subtitles"),
+    COURSE_DESCRIPTION("courseDescription", "Course.mainTopics", "Course.requirements"),
+    COURSE_FEEDBACK("courseFeedback", "Course.feedback"),
+    AUTHORS("authors", "Course.authors");
+
+    /**
+     * Name of field in request param and in response
+     */
+    public final String param;
+
+    /**
+     * Named entity graphs loaded with course when field is selected, each with separate query
+     */
+    public final String[] graphNames;
+
+    CourseField(String param, String... graphNames) {
+        this.param = param;
+        this.graphNames = graphNames;
+    }
+
+    /**
+     * @param param comma separated names of fields
+     * @return all fields when param is not provided
+     * @throws InvalidFieldsException when any of fields can not be selected
+     */
+    public static Set<CourseField> fromParam(String param) throws InvalidFieldsException {
+        if (param == null)
+            return EnumSet.allOf(CourseField.class);
+
+        Set<CourseField> fields = EnumSet.noneOf(CourseField.class);
+        for (String name : param.split(",")) {
+            CourseField field = Arrays.stream(values())
+                    .filter(value -> value.param.equals(name.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidFieldsException("Field: " + name + " can not be selected."));
+            fields.add(field);
+        }
+        return fields;
+    }
+}
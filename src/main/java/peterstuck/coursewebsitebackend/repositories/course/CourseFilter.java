@@ -0,0 +1,54 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import peterstuck.coursewebsitebackend.models.course.Language;
+
+import java.util.Set;
+
+/**
+ * Optional criteria and order of course listing. Criteria which are null are not applied.
+ */
+@Getter
+@Builder
+public class CourseFilter {
+
+    /**
+     * Case and diacritics insensitive part of course title
+     */
+    private final String keyword;
+
+    private final Integer categoryId;
+
+    /**
+     * When true courses from whole subtree of category are matched
+     */
+    private final boolean includeDescendants;
+
+    private final Double minPrice;
+
+    private final Double maxPrice;
+
+    /**
+     * Minimal average rate of course
+     */
+    private final Double minRating;
+
+    /**
+     * Course is matched when it is in any of languages
+     */
+    private final Set<Language> languages;
+
+    /**
+     * Course is matched when it has subtitles in any of languages
+     */
+    private final Set<Language> subtitles;
+
+    @Builder.Default
+    private final CourseSort sort = CourseSort.ID;
+
+    @Builder.Default
+    private final Sort.Direction direction = Sort.Direction.ASC;
+
+}
@@ -0,0 +1,17 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Position of the last course of previous page in listing order.
+ */
+@Getter
+@AllArgsConstructor
+public class CourseKeyset {
+
+    private final Object sortValue;
+
+    private final Long tieBreakerId;
+
+}
@@ -0,0 +1,76 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.models.course.CourseFacets;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface CourseRepositoryCustom {
+
+    /**
+     * Keyset page of courses matching filter, in order given by filter.
+     * All criteria and sorting are applied in database and only card columns of courses from page are loaded.
+     * @param after position of the last course from previous page, null for first page
+     * @param limit max number of returned courses
+     */
+    List<CourseCard> findPage(CourseFilter filter, CourseKeyset after, int limit);
+
+    /**
+     * Cards of courses with given ids in order of ids, courses which not exist are skipped.
+     */
+    List<CourseCard> findCardsByIds(List<Long> ids);
+
+    /**
+     * Cards of all listed courses ordered by id, loaded with two queries.
+     */
+    List<CourseCard> findAllCards();
+
+    /**
+     * Texts of courses with ids greater than afterId, so all courses are (re)indexed in bounded chunks.
+     * @param limit max number of returned courses
+     * @return documents ordered by course id
+     */
+    List<CourseSearchDocument> findSearchDocuments(long afterId, int limit);
+
+    /**
+     * @return documents of existing courses among given ones, in no particular order
+     */
+    List<CourseSearchDocument> findSearchDocumentsByIds(Collection<Long> ids);
+
+    /**
+     * Counts courses matching filter per language, subtitle, category, price bucket and rating
+     * with single grouped query.
+     */
+    CourseFacets countFacets(CourseFilter filter);
+
+    /**
+     * Number of courses matching filter estimated by Postgres planner from table statistics, without scanning courses.
+     */
+    long estimateCount(CourseFilter filter);
+
+    /**
+     * Exact number of courses matching filter. Counts all of them, so it is the slow path for broad filters.
+     */
+    long countExactly(CourseFilter filter);
+
+
+    /**
+     * Loads course with data described by fetch plan.
+     */
+    Optional<Course> findById(Long id, CourseFetchPlan plan);
+
+    /**
+     * Loads courses with data described by fetch plan, using the same number of queries for any number of courses.
+     */
+    List<Course> findAllById(Collection<Long> ids, CourseFetchPlan plan);
+
+    /**
+     * Loads courses with associations of selected fields only, each association with separate query.
+     */
+    List<Course> findAllByIdWithFields(Collection<Long> ids, Set<CourseField> fields);
+
+}
@@ -0,0 +1,427 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.models.course.CourseFacets;
+import peterstuck.coursewebsitebackend.models.course.Language;
+import peterstuck.coursewebsitebackend.models.course.PriceBucket;
+import peterstuck.coursewebsitebackend.models.course.Rating;
+import peterstuck.coursewebsitebackend.utils.SearchKeyUtil;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class CourseRepositoryCustomImpl implements CourseRepositoryCustom {
+
+    private static final String CARD_QUERY = "select new peterstuck.coursewebsitebackend.models.course.CourseCard(" +
+            "c.id, c.title, c.price, c.lastUpdate, d.shortDescription, f.id, f.avgRate, f.ratesCount, c.languagesMask, c.titleSortKey)" +
+            " from Course c join c.courseFeedback f left join c.courseDescription d";
+
+    private static final String NATIVE_MATCHING_FROM = " from course c left join course_feedback f on f.id = c.course_feedback_id where 1 = 1";
+
+    /**
+     * Rows estimated for node of plan, the first line of plan describes its top node.
+     */
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private static final String SEARCH_DOCUMENT_QUERY = "select c.id, c.title, d.short_description, d.long_description," +
+            " (select string_agg(t.main_topics, ' ') from course_description_main_topics t where t.course_description_id = d.id) as main_topics," +
+            " c.languages, coalesce(f.avg_rate, 0) as avg_rate" +
+            " from course c left join course_description d on d.id = c.course_description_id" +
+            " left join course_feedback f on f.id = c.course_feedback_id";
+
+    @Autowired
+    private EntityManager manager;
+
+    @Override
+    public List<CourseCard> findPage(CourseFilter filter, CourseKeyset after, int limit) {
+        CourseSort sort = filter.getSort();
+        StringBuilder jpql = new StringBuilder(CARD_QUERY);
+        Map<String, Object> params = new HashMap<>();
+
+        if (filter.getCategoryId() != null && !filter.isIncludeDescendants()) {
+            jpql.append(" join c.categories category");
+        }
+
+        jpql.append(" where 1 = 1");
+
+        if (filter.getCategoryId() != null && filter.isIncludeDescendants()) {
+            jpql.append(" and exists (select category.id from c.categories category" +
+                    " where category.path >= :pathFrom and category.path < :pathTo)");
+            putSubtreePathRange(params, filter.getCategoryId());
+        } else if (filter.getCategoryId() != null) {
+            jpql.append(" and category.id = :categoryId");
+            params.put("categoryId", filter.getCategoryId());
+        }
+
+        if (filter.getKeyword() != null) {
+            jpql.append(" and c.titleKey like :keyword escape '\\'");
+            params.put("keyword", "%" + escapeLikePattern(SearchKeyUtil.toSearchKey(filter.getKeyword())) + "%");
+        }
+
+        if (filter.getLanguages() != null && !filter.getLanguages().isEmpty()) {
+            jpql.append(" and function('int4and', c.languagesMask, :languages) <> 0");
+            params.put("languages", Language.toMask(filter.getLanguages()));
+        }
+        if (filter.getSubtitles() != null && !filter.getSubtitles().isEmpty()) {
+            jpql.append(" and function('int4and', c.subtitlesMask, :subtitles) <> 0");
+            params.put("subtitles", Language.toMask(filter.getSubtitles()));
+        }
+
+        if (filter.getMinPrice() != null) {
+            jpql.append(" and c.price >= :minPrice");
+            params.put("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            jpql.append(" and c.price <= :maxPrice");
+            params.put("maxPrice", filter.getMaxPrice());
+        }
+        if (filter.getMinRating() != null) {
+            jpql.append(" and f.avgRate >= :minRating");
+            params.put("minRating", filter.getMinRating());
+        }
+
+        if (after != null) {
+            appendKeysetCondition(jpql, params, sort, filter.getDirection(), after);
+        }
+
+        String direction = filter.getDirection().isAscending() ? " asc" : " desc";
+        jpql.append(" order by ").append(sort.expression).append(direction);
+        if (sort.hasTieBreaker())
+            jpql.append(", ").append(sort.tieBreakerExpression).append(direction);
+
+        TypedQuery<CourseCard> query = manager.createQuery(jpql.toString(), CourseCard.class);
+        params.forEach(query::setParameter);
+
+        List<CourseCard> cards = query.setMaxResults(limit).getResultList();
+        fillCardCollections(cards);
+
+        return cards;
+    }
+
+    @Override
+    public List<CourseCard> findCardsByIds(List<Long> ids) {
+        if (ids.isEmpty())
+            return new ArrayList<>();
+
+        Map<Long, CourseCard> cardsById = new HashMap<>();
+        manager.createQuery(CARD_QUERY + " where c.id in :ids", CourseCard.class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(card -> cardsById.put(card.getId(), card));
+
+        List<CourseCard> cards = ids.stream()
+                .distinct()
+                .map(cardsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        fillCardCollections(cards);
+
+        return cards;
+    }
+
+    @Override
+    public List<CourseCard> findAllCards() {
+        Map<Long, CourseCard> cardsById = new LinkedHashMap<>();
+        manager.createQuery(CARD_QUERY + " order by c.id", CourseCard.class)
+                .getResultList()
+                .forEach(card -> cardsById.put(card.getId(), card));
+
+        manager.createQuery("select c.id, concat(a.firstName, ' ', a.lastName) from Course c join c.authors a order by a.id", Object[].class)
+                .getResultList()
+                .stream()
+                .filter(row -> cardsById.containsKey((Long) row[0]))
+                .forEach(row -> cardsById.get((Long) row[0]).getAuthors().add((String) row[1]));
+
+        return new ArrayList<>(cardsById.values());
+    }
+
+    @Override
+    public List<CourseSearchDocument> findSearchDocuments(long afterId, int limit) {
+        Query query = manager.createNativeQuery(SEARCH_DOCUMENT_QUERY + " where c.id > :afterId order by c.id")
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit);
+        return toSearchDocuments(query.getResultList());
+    }
+
+    @Override
+    public List<CourseSearchDocument> findSearchDocumentsByIds(Collection<Long> ids) {
+        if (ids.isEmpty())
+            return new ArrayList<>();
+
+        Query query = manager.createNativeQuery(SEARCH_DOCUMENT_QUERY + " where c.id in :ids")
+                .setParameter("ids", ids);
+        return toSearchDocuments(query.getResultList());
+    }
+
+    private List<CourseSearchDocument> toSearchDocuments(List<?> rows) {
+        List<CourseSearchDocument> documents = new ArrayList<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            documents.add(new CourseSearchDocument(((Number) columns[0]).longValue(), (String) columns[1], (String) columns[2],
+                    (String) columns[3], (String) columns[4], ((Number) columns[5]).intValue(), ((Number) columns[6]).doubleValue()));
+        }
+        return documents;
+    }
+
+    /**
+     * Loads authors of all cards with one query, no matter how many cards there are.
+     */
+    private void fillCardCollections(List<CourseCard> cards) {
+        if (cards.isEmpty())
+            return;
+
+        Map<Long, CourseCard> cardsById = new HashMap<>();
+        cards.forEach(card -> cardsById.put(card.getId(), card));
+
+        manager.createQuery("select c.id, concat(a.firstName, ' ', a.lastName) from Course c join c.authors a" +
+                        " where c.id in :ids order by a.id", Object[].class)
+                .setParameter("ids", cardsById.keySet())
+                .getResultList()
+                .forEach(row -> cardsById.get((Long) row[0]).getAuthors().add((String) row[1]));
+    }
+
+    @Override
+    public Optional<Course> findById(Long id, CourseFetchPlan plan) {
+        return findAllById(List.of(id), plan).stream().findFirst();
+    }
+
+    @Override
+    public List<Course> findAllById(Collection<Long> ids, CourseFetchPlan plan) {
+        return findAllById(ids, Arrays.asList(plan.graphNames));
+    }
+
+    @Override
+    public List<Course> findAllByIdWithFields(Collection<Long> ids, Set<CourseField> fields) {
+        return findAllById(ids, fields.stream()
+                .flatMap(field -> Arrays.stream(field.graphNames))
+                .distinct()
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Graphs are loaded one after another into the same persistence context,
+     * so each query only initializes associations of already loaded courses. Without graphs only courses are loaded.
+     */
+    private List<Course> findAllById(Collection<Long> ids, List<String> graphNames) {
+        if (ids.isEmpty())
+            return new ArrayList<>();
+        if (graphNames.isEmpty())
+            return manager.createQuery("select c from Course c where c.id in :ids", Course.class)
+                    .setParameter("ids", ids)
+                    .getResultList();
+
+        List<Course> courses = new ArrayList<>();
+        for (String graphName : graphNames) {
+            courses = manager.createQuery("select distinct c from Course c where c.id in :ids", Course.class)
+                    .setParameter("ids", ids)
+                    .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                    .setHint("javax.persistence.fetchgraph", manager.getEntityGraph(graphName))
+                    .getResultList();
+        }
+        return courses;
+    }
+
+    /**
+     * Matches only courses placed after keyset in listing order.
+     */
+    private void appendKeysetCondition(StringBuilder jpql, Map<String, Object> params, CourseSort sort, Sort.Direction direction, CourseKeyset after) {
+        String operator = direction.isAscending() ? " > " : " < ";
+
+        if (sort.hasTieBreaker()) {
+            jpql.append(" and (").append(sort.expression).append(operator).append(":sortValue")
+                    .append(" or (").append(sort.expression).append(" = :sortValue")
+                    .append(" and ").append(sort.tieBreakerExpression).append(operator).append(":tieBreakerId))");
+            params.put("sortValue", after.getSortValue());
+        } else {
+            jpql.append(" and ").append(sort.tieBreakerExpression).append(operator).append(":tieBreakerId");
+        }
+        params.put("tieBreakerId", after.getTieBreakerId());
+    }
+
+    /**
+     * Postgres grouping sets are used to compute all facets in one scan of matching courses.
+     * Languages and subtitles are expanded from bit masks of course row, without joining any table.
+     */
+    @Override
+    public CourseFacets countFacets(CourseFilter filter) {
+        StringBuilder sql = new StringBuilder("""
+                select grouping(language) as by_language, grouping(subtitle) as by_subtitle,
+                       grouping(category_id) as by_category, grouping(price_bucket) as by_price_bucket,
+                       language, subtitle, category_id, price_bucket, rating, count(distinct course_id) as courses_count
+                from (
+                    select c.id as course_id, l.language, s.subtitle, cc.category_id,
+                """);
+        sql.append(createPriceBucketExpression()).append(" as price_bucket,\n");
+        sql.append("""
+                           case when f.rates_count > 0 then floor(f.avg_rate * 2) / 2 end as rating
+                    from course c
+                    left join lateral (select bit as language from generate_series(0, %1$d) bit where c.languages & (1 << bit) <> 0) l on true
+                    left join lateral (select bit as subtitle from generate_series(0, %1$d) bit where c.subtitles & (1 << bit) <> 0) s on true
+                    left join course_category cc on cc.course_id = c.id
+                    left join course_feedback f on f.id = c.course_feedback_id
+                    where 1 = 1
+                """.formatted(Language.values().length - 1));
+        Map<String, Object> params = new HashMap<>();
+        appendNativeCriteria(sql, params, filter);
+
+        sql.append(") matching group by grouping sets ((language), (subtitle), (category_id), (price_bucket), (rating))");
+
+        Query query = manager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+
+        CourseFacets facets = new CourseFacets();
+        for (Object row : query.getResultList()) {
+            addFacetCount(facets, (Object[]) row);
+        }
+        return facets;
+    }
+
+    /**
+     * Planner estimate of matching courses, read from plan of query without running it.
+     * Accuracy depends on table statistics refreshed by (auto)analyze.
+     */
+    @Override
+    public long estimateCount(CourseFilter filter) {
+        StringBuilder sql = new StringBuilder("explain select c.id" + NATIVE_MATCHING_FROM);
+        Map<String, Object> params = new HashMap<>();
+        appendNativeCriteria(sql, params, filter);
+
+        Query query = manager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+
+        List<?> plan = query.getResultList();
+        Matcher rows = PLAN_ROWS.matcher(plan.isEmpty() ? "" : String.valueOf(plan.get(0)));
+        return rows.find() ? Long.parseLong(rows.group(1)) : 0;
+    }
+
+    /**
+     * Exact number of matching courses. Scans all of them, so it is much slower than estimateCount for broad filters.
+     */
+    @Override
+    public long countExactly(CourseFilter filter) {
+        StringBuilder sql = new StringBuilder("select count(*)" + NATIVE_MATCHING_FROM);
+        Map<String, Object> params = new HashMap<>();
+        appendNativeCriteria(sql, params, filter);
+
+        Query query = manager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    /**
+     * Conditions of filter in native SQL over course c joined with course_feedback f.
+     */
+    private void appendNativeCriteria(StringBuilder sql, Map<String, Object> params, CourseFilter filter) {
+        if (filter.getCategoryId() != null && filter.isIncludeDescendants()) {
+            sql.append(" and exists (select 1 from course_category fc join category fcat on fcat.id = fc.category_id" +
+                    " where fc.course_id = c.id and fcat.path >= :pathFrom and fcat.path < :pathTo)");
+            putSubtreePathRange(params, filter.getCategoryId());
+        } else if (filter.getCategoryId() != null) {
+            sql.append(" and exists (select 1 from course_category fc where fc.course_id = c.id and fc.category_id = :categoryId)");
+            params.put("categoryId", filter.getCategoryId());
+        }
+
+        if (filter.getKeyword() != null) {
+            sql.append(" and c.title_key like :keyword escape '\\'");
+            params.put("keyword", "%" + escapeLikePattern(SearchKeyUtil.toSearchKey(filter.getKeyword())) + "%");
+        }
+
+        if (filter.getLanguages() != null && !filter.getLanguages().isEmpty()) {
+            sql.append(" and c.languages & :languages <> 0");
+            params.put("languages", Language.toMask(filter.getLanguages()));
+        }
+        if (filter.getSubtitles() != null && !filter.getSubtitles().isEmpty()) {
+            sql.append(" and c.subtitles & :subtitles <> 0");
+            params.put("subtitles", Language.toMask(filter.getSubtitles()));
+        }
+
+        if (filter.getMinPrice() != null) {
+            sql.append(" and c.price >= :minPrice");
+            params.put("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            sql.append(" and c.price <= :maxPrice");
+            params.put("maxPrice", filter.getMaxPrice());
+        }
+        if (filter.getMinRating() != null) {
+            sql.append(" and f.avg_rate >= :minRating");
+            params.put("minRating", filter.getMinRating());
+        }
+    }
+
+    /**
+     * Paths of whole subtree of category are in range from its path to the path with last separator incremented,
+     * as all paths end with separator and are compared in C collation. Range with literal bounds is answered
+     * by index on path also in generic plans, unlike like with pattern built in query. Range is empty when category not exists.
+     */
+    private void putSubtreePathRange(Map<String, Object> params, Integer categoryId) {
+        List<String> paths = manager.createQuery("select cat.path from Category cat where cat.id = :categoryId", String.class)
+                .setParameter("categoryId", categoryId)
+                .getResultList();
+        String path = paths.isEmpty() || paths.get(0) == null ? "" : paths.get(0);
+
+        params.put("pathFrom", path);
+        params.put("pathTo", path.isEmpty() ? "" : path.substring(0, path.length() - 1) + (char) (path.charAt(path.length() - 1) + 1));
+    }
+
+    private String createPriceBucketExpression() {
+        StringBuilder expression = new StringBuilder("case");
+        for (PriceBucket bucket : PriceBucket.values()) {
+            if (Double.isInfinite(bucket.upperBound))
+                expression.append(" else '").append(bucket.name()).append("'");
+            else
+                expression.append(" when c.price < ").append(bucket.upperBound).append(" then '").append(bucket.name()).append("'");
+        }
+        return expression.append(" end").toString();
+    }
+
+    /**
+     * Grouping columns equal to 0 tell which facet row belongs to. Rows without value (ex. course without subtitles) are skipped.
+     */
+    private void addFacetCount(CourseFacets facets, Object[] row) {
+        long count = ((Number) row[9]).longValue();
+
+        if (isGroupedBy(row[0]) && row[4] != null)
+            facets.getLanguages().put(Language.values()[((Number) row[4]).intValue()], count);
+        else if (isGroupedBy(row[1]) && row[5] != null)
+            facets.getSubtitles().put(Language.values()[((Number) row[5]).intValue()], count);
+        else if (isGroupedBy(row[2]) && row[6] != null)
+            facets.getCategories().put(((Number) row[6]).intValue(), count);
+        else if (isGroupedBy(row[3]) && row[7] != null)
+            facets.getPrices().put(PriceBucket.valueOf(String.valueOf(row[7])), count);
+        else if (row[8] != null) {
+            Rating rating = Rating.fromStarValue(((Number) row[8]).doubleValue());
+            if (rating != null)
+                facets.getRatings().put(rating, count);
+        }
+    }
+
+    private boolean isGroupedBy(Object grouping) {
+        return ((Number) grouping).intValue() == 0;
+    }
+
+    private String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+}
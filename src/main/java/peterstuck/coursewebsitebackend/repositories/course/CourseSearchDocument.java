@@ -0,0 +1,30 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Texts of course indexed by search index, read without loading course entity.
+ */
+@Getter
+@AllArgsConstructor
+public class CourseSearchDocument {
+
+    private final Long id;
+
+    private final String title;
+
+    private final String shortDescription;
+
+    private final String longDescription;
+
+    /**
+     * All main topics joined with spaces
+     */
+    private final String mainTopics;
+
+    private final int languagesMask;
+
+    private final double avgRate;
+
+}
@@ -0,0 +1,22 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Course matching full text search with its relevance. Also used as position of the last course of previous page.
+ */
+@Getter
+@AllArgsConstructor
+public class CourseSearchHit {
+
+    private final Long id;
+
+    private final double rank;
+
+    /**
+     * Title and short description with matched words marked with b tags
+     */
+    private final String highlight;
+
+}
@@ -0,0 +1,89 @@
+package peterstuck.coursewebsitebackend.repositories.course;
+
+import peterstuck.coursewebsitebackend.exceptions.InvalidSortException;
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.utils.SearchKeyUtil;
+
+import java.util.function.Function;
+
+/**
+ * Supported orders of course listing. Each order has its own index with tie breaker id as second column,
+ * so keyset pages are read straight from the index.
+ */
+public enum CourseSort {
+
+    ID("id", "c.id", "c.id", CourseCard::getId, CourseCard::getId, Long::valueOf),
+    PRICE("price", "c.price", "c.id", CourseCard::getPrice, CourseCard::getId, Double::valueOf),
+    AVG_RATE("avgRate", "f.avgRate", "f.id", CourseCard::getAvgRate, CourseCard::getFeedbackId, Double::valueOf),
+    RATES_COUNT("ratesCount", "f.ratesCount", "f.id", CourseCard::getRatesCount, CourseCard::getFeedbackId, Integer::valueOf),
+    LAST_UPDATE("lastUpdate", "c.lastUpdate", "c.id", CourseCard::getLastUpdate, CourseCard::getId, Long::valueOf),
+    TITLE("title", "c.titleSortKey", "c.id", card -> SearchKeyUtil.toHex(card.getTitleSortKey()), CourseCard::getId, SearchKeyUtil::fromHex);
+
+
+    /**
+     * Name of order in request param
+     */
+    public final String param;
+
+    /**
+     * JPQL expression of sorted value, course is aliased as c and its feedback as f
+     */
+    public final String expression;
+
+    /**
+     * JPQL expression of unique id which orders courses with equal sorted value
+     */
+    public final String tieBreakerExpression;
+
+    private final Function<CourseCard, Object> valueExtractor;
+    private final Function<CourseCard, Long> tieBreakerExtractor;
+    private final Function<String, Object> valueParser;
+
+    CourseSort(String param,
+               String expression,
+               String tieBreakerExpression,
+               Function<CourseCard, Object> valueExtractor,
+               Function<CourseCard, Long> tieBreakerExtractor,
+               Function<String, Object> valueParser) {
+        this.param = param;
+        this.expression = expression;
+        this.tieBreakerExpression = tieBreakerExpression;
+        this.valueExtractor = valueExtractor;
+        this.tieBreakerExtractor = tieBreakerExtractor;
+        this.valueParser = valueParser;
+    }
+
+    public boolean hasTieBreaker() {
+        return !expression.equals(tieBreakerExpression);
+    }
+
+    public Object valueOf(CourseCard course) {
+        return valueExtractor.apply(course);
+    }
+
+    public Long tieBreakerOf(CourseCard course) {
+        return tieBreakerExtractor.apply(course);
+    }
+
+    /**
+     * @throws NumberFormatException when value does not match type of sorted value
+     */
+    public Object parseValue(String value) {
+        return valueParser.apply(value);
+    }
+
+    /**
+     * @return ID order when param is not provided
+     * @throws InvalidSortException when order with given param not exists
+     */
+    public static CourseSort fromParam(String param) throws InvalidSortException {
+        if (param == null)
+            return ID;
+
+        for (CourseSort sort : values()) {
+            if (sort.param.equals(param))
+                return sort;
+        }
+        throw new InvalidSortException("Sort: " + param + " is not supported.");
+    }
+}
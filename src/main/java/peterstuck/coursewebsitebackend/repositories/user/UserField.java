@@ -0,0 +1,54 @@
+package peterstuck.coursewebsitebackend.repositories.user;
+
+import peterstuck.coursewebsitebackend.exceptions.InvalidFieldsException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields of user info which client can select. Associations of not selected fields are not loaded at all.
+ */
+public enum UserField {
+
+    EMAIL("email", false),
+    FIRST_NAME("firstName", false),
+    LAST_NAME("lastName", false),
+    USER_DETAIL("userDetail", true),
+    PURCHASED_COURSES("purchasedCourses", true);
+
+    /**
+     * Name of field in request param and in response
+     */
+    public final String param;
+
+    /**
+     * True when field is association fetched together with user
+     */
+    public final boolean fetched;
+
+    UserField(String param, boolean fetched) {
+        this.param = param;
+        this.fetched = fetched;
+    }
+
+    /**
+     * @param param comma separated names of fields
+     * @return all fields when param is not provided
+     * @throws InvalidFieldsException when any of fields can not be selected
+     */
+    public static Set<UserField> fromParam(String param) throws InvalidFieldsException {
+        if (param == null)
+            return EnumSet.allOf(UserField.class);
+
+        Set<UserField> fields = EnumSet.noneOf(UserField.class);
+        for (String name : param.split(",")) {
+            UserField field = Arrays.stream(values())
+                    .filter(value -> value.param.equals(name.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidFieldsException("Field: " + name + " can not be selected."));
+            fields.add(field);
+        }
+        return fields;
+    }
+}
@@ -1,5 +1,6 @@
 package peterstuck.coursewebsitebackend.repositories.user;
 
+import org.hibernate.jpa.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -8,9 +9,15 @@ import peterstuck.coursewebsitebackend.models.user.Role;
 import peterstuck.coursewebsitebackend.models.user.User;
 import peterstuck.coursewebsitebackend.repositories.RoleRepository;
 
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
 public class UserRepository {
@@ -34,6 +41,49 @@ public class UserRepository {
         }
     }
 
+    /**
+     * Loads user with profile and purchased courses in one query.
+     * @return null when user with email not exists
+     */
+    public User findInfoByEmail(String email) {
+        return findInfoByEmail(email, EnumSet.allOf(UserField.class));
+    }
+
+    /**
+     * Loads user with associations of selected fields only, in one query.
+     * @return null when user with email not exists
+     */
+    public User findInfoByEmail(String email, Set<UserField> fields) {
+        EntityGraph<User> graph = manager.createEntityGraph(User.class);
+        fields.stream()
+                .filter(field -> field.fetched)
+                .forEach(field -> graph.addAttributeNodes(field.param));
+
+        return manager.createQuery("select distinct u from User u where u.email = :email", User.class)
+                .setParameter("email", email)
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .setHint("javax.persistence.fetchgraph", graph)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @return ids of user activities by user email, users which not exist are skipped
+     */
+    public Map<String, Long> findActivityIdsByEmails(Collection<String> emails) {
+        Map<String, Long> activityIds = new HashMap<>();
+        if (emails.isEmpty())
+            return activityIds;
+
+        manager.createQuery("select u.email, u.userActivity.id from User u where u.email in :emails", Object[].class)
+                .setParameter("emails", emails)
+                .getResultList()
+                .forEach(row -> activityIds.put((String) row[0], (Long) row[1]));
+
+        return activityIds;
+    }
+
     /**
      * Every new User gets role USER as default role.
      */
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import peterstuck.coursewebsitebackend.exceptions.CategoryNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCategoryParentException;
 
 import java.util.Date;
 import java.util.HashMap;
@@ -25,6 +26,15 @@ public class CategoryAdvisor {
         return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidCategoryParentException.class)
+    public ResponseEntity<Object> handleInvalidCategoryParentException(InvalidCategoryParentException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", new Date().getTime());
+        body.put("message", ex.getMessage());
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -15,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import peterstuck.coursewebsitebackend.exceptions.CategoryNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCategoryParentException;
 import peterstuck.coursewebsitebackend.models.course.Category;
 import peterstuck.coursewebsitebackend.services.category.CategoryService;
 
@@ -92,7 +93,7 @@ public class CategoryResource {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Category updated",
                 content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Category.class)) }),
-            @ApiResponse(responseCode = "400", description = "Invalid category data or not an admin",
+            @ApiResponse(responseCode = "400", description = "Invalid category data, category moved to its own subcategory or not an admin",
                     content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Category.class)) }),
             @ApiResponse(responseCode = "404", description = "Category with supplied id not found",
                     content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Category.class)) }),
@@ -104,7 +105,7 @@ public class CategoryResource {
             @Parameter(description = "id of category that is going to be updated", required = true)
             @PathVariable int categoryId,
             @Parameter(description = "valid Category object with updated data", required = true)
-            @Valid @RequestBody Category category) throws CategoryNotFoundException {
+            @Valid @RequestBody Category category) throws CategoryNotFoundException, InvalidCategoryParentException {
         Category updated = service.update(categoryId, category);
 
         return getCategoryEntityModel(updated);
@@ -0,0 +1,148 @@
+package peterstuck.coursewebsitebackend.resources.course;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import peterstuck.coursewebsitebackend.exceptions.CommentNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.CourseNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCursorException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidSortException;
+import peterstuck.coursewebsitebackend.exceptions.NotAnAuthorException;
+import peterstuck.coursewebsitebackend.exceptions.ServiceOverloadedException;
+import peterstuck.coursewebsitebackend.exceptions.UserNotExistsException;
+import peterstuck.coursewebsitebackend.models.course.Comment;
+import peterstuck.coursewebsitebackend.models.course.CommentPage;
+import peterstuck.coursewebsitebackend.repositories.course.CommentSort;
+import peterstuck.coursewebsitebackend.services.comment.CommentService;
+
+import javax.validation.Valid;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/courses/{courseId}/comments")
+@Tag(name = "Comments")
+public class CommentResource {
+
+    @Autowired
+    private CommentService service;
+
+    private static final String DEFAULT_PAGE_SIZE = "10";
+
+    @Operation(summary = "returns page of comments of course with supplied id",
+            description = "Comments can be sorted from newest, highest or lowest rate. Next page is available under link with rel 'next'.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found comments",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CommentPage.class)) }),
+            @ApiResponse(responseCode = "204", description = "No comments on page",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CommentPage.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or sort",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CommentPage.class)) }),
+            @ApiResponse(responseCode = "404", description = "No course with supplied id",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CommentPage.class)) })
+    })
+    @GetMapping
+    public ResponseEntity<Object> getComments(
+            @PathVariable Long courseId,
+            @Parameter(description = "newest, highest or lowest, newest when not provided")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "cursor from next link of previous page, first page when not provided")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "max number of comments on page")
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size
+    ) throws CourseNotFoundException, InvalidCursorException, InvalidSortException {
+        CommentPage page = service.findPage(courseId, CommentSort.fromParam(sort), cursor, size);
+
+        EntityModel<CommentPage> model = EntityModel.of(page);
+        if (page.getNextCursor() != null)
+            model.add(linkTo(methodOn(this.getClass())
+                    .getComments(courseId, sort, page.getNextCursor(), size))
+                    .withRel("next"));
+
+        return new ResponseEntity<>(model, page.getComments().size() > 0 ? HttpStatus.OK : HttpStatus.NO_CONTENT);
+    }
+
+    @Operation(summary = "adds comment of requester to course with supplied id",
+            description = "Comments are written in batches, response is returned when batch with comment is saved and course rate is updated.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Comment created",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class)) }),
+            @ApiResponse(responseCode = "400", description = "Bad comment data",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class)) }),
+            @ApiResponse(responseCode = "404", description = "No course with supplied id",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class)) }),
+            @ApiResponse(responseCode = "503", description = "Too many comments are waiting to be saved or comment was not saved in time",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class)) })
+    })
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public EntityModel<Comment> addComment(
+            @Parameter(required = true)
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long courseId,
+            @Parameter(description = "comment with description and rate", required = true)
+            @Valid @RequestBody Comment comment
+    ) throws CourseNotFoundException, UserNotExistsException, ServiceOverloadedException {
+        Comment saved = service.submit(courseId, comment, authHeader);
+
+        EntityModel<Comment> model = EntityModel.of(saved);
+        model.add(linkTo(this.getClass(), courseId).withRel("comments"));
+        return model;
+    }
+
+    @Operation(summary = "updates comment of requester with supplied id",
+            description = "Only description and rate are updated, course rate is updated together with comment.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comment updated",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class)) }),
+            @ApiResponse(responseCode = "400", description = "Bad comment data or requester is not an author of comment",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class)) }),
+            @ApiResponse(responseCode = "404", description = "No comment with supplied id in course",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Comment.class)) })
+    })
+    @PutMapping("/{commentId}")
+    public EntityModel<Comment> updateComment(
+            @Parameter(required = true)
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long courseId,
+            @PathVariable int commentId,
+            @Parameter(description = "comment with updated description and rate", required = true)
+            @Valid @RequestBody Comment comment
+    ) throws CommentNotFoundException, NotAnAuthorException {
+        Comment updated = service.update(courseId, commentId, comment, authHeader);
+
+        EntityModel<Comment> model = EntityModel.of(updated);
+        model.add(linkTo(this.getClass(), courseId).withRel("comments"));
+        return model;
+    }
+
+    @Operation(summary = "deletes comment of requester with supplied id", description = "Rate of comment is removed from course rate.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Comment deleted"),
+            @ApiResponse(responseCode = "400", description = "Requester is not an author of comment"),
+            @ApiResponse(responseCode = "404", description = "No comment with supplied id in course")
+    })
+    @DeleteMapping("/{commentId}")
+    public String deleteComment(
+            @Parameter(required = true)
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long courseId,
+            @PathVariable int commentId
+    ) throws CommentNotFoundException, NotAnAuthorException {
+        service.delete(courseId, commentId, authHeader);
+
+        return "Comment with ID: " + commentId + " was successfully deleted.";
+    }
+
+}
@@ -7,8 +7,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+import peterstuck.coursewebsitebackend.exceptions.BatchTooLargeException;
+import peterstuck.coursewebsitebackend.exceptions.CommentNotFoundException;
 import peterstuck.coursewebsitebackend.exceptions.CourseNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCursorException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidFieldsException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidSortException;
 import peterstuck.coursewebsitebackend.exceptions.NotAnAuthorException;
+import peterstuck.coursewebsitebackend.exceptions.ServiceOverloadedException;
 import peterstuck.coursewebsitebackend.exceptions.UserNotExistsException;
 
 import java.util.Date;
@@ -18,19 +24,31 @@ import java.util.Map;
 @ControllerAdvice
 public class CourseAdvisor extends ResponseEntityExceptionHandler {
 
-    @ExceptionHandler(CourseNotFoundException.class)
-    public ResponseEntity<Object> handleCourseNotFoundException(CourseNotFoundException ex) {
+    @ExceptionHandler({
+            CourseNotFoundException.class,
+            CommentNotFoundException.class
+    })
+    public ResponseEntity<Object> handleCourseNotFoundException(Exception ex) {
         return new ResponseEntity<>(getStandardErrorResponse(ex), HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler({
             NotAnAuthorException.class,
-            UserNotExistsException.class
+            UserNotExistsException.class,
+            InvalidCursorException.class,
+            InvalidSortException.class,
+            BatchTooLargeException.class,
+            InvalidFieldsException.class
     })
     public ResponseEntity<Object> handleNotAnAuthorException(Exception ex) {
         return new ResponseEntity<>(getStandardErrorResponse(ex), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Object> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        return new ResponseEntity<>(getStandardErrorResponse(ex), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     private Map<String, Object> getStandardErrorResponse(Exception ex) {
         Map<String, Object> body = new LinkedHashMap<>();
         body.put("timestamp", new Date().getTime());
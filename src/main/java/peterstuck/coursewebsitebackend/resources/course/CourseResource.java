@@ -1,6 +1,5 @@
 package peterstuck.coursewebsitebackend.resources.course;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,22 +9,40 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
 import org.springframework.hateoas.EntityModel;
-import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import peterstuck.coursewebsitebackend.exceptions.BatchTooLargeException;
 import peterstuck.coursewebsitebackend.exceptions.CourseNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCursorException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidFieldsException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidSortException;
 import peterstuck.coursewebsitebackend.exceptions.NotAnAuthorException;
+import peterstuck.coursewebsitebackend.exceptions.ServiceOverloadedException;
 import peterstuck.coursewebsitebackend.exceptions.UserNotExistsException;
 import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseBatch;
+import peterstuck.coursewebsitebackend.models.course.CourseChanges;
+import peterstuck.coursewebsitebackend.models.course.CoursePage;
+import peterstuck.coursewebsitebackend.models.course.Language;
+import peterstuck.coursewebsitebackend.models.course.RatingHistogram;
+import peterstuck.coursewebsitebackend.models.course.Suggestions;
+import peterstuck.coursewebsitebackend.models.user.User;
+import peterstuck.coursewebsitebackend.repositories.course.CourseField;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFilter;
+import peterstuck.coursewebsitebackend.repositories.course.CourseSort;
 import peterstuck.coursewebsitebackend.services.course.CourseService;
-import peterstuck.coursewebsitebackend.utils.JsonFilter;
+import peterstuck.coursewebsitebackend.services.suggestion.SuggestionSort;
+import peterstuck.coursewebsitebackend.utils.FieldsFilter;
 
 import javax.validation.Valid;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Set;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -40,9 +57,16 @@ public class CourseResource {
     @Qualifier(value = "courseServiceImpl")
     private CourseService service;
 
-    private final String FILTER_NAME = "JsonFilter";
+    private static final String DEFAULT_PAGE_SIZE = "20";
 
-    private final String[] USER_EXCEPT_FIELDS = new String[] {
+    private static final String DEFAULT_SUGGESTIONS_SIZE = "5";
+
+    private static final String DEFAULT_CHANGES_SIZE = "100";
+
+    private static final String FIELDS_DESCRIPTION = "comma separated fields of course: title, price, lastUpdate, languages, subtitles, " +
+            "courseDescription, courseFeedback or authors, all when not provided";
+
+    private static final String[] USER_EXCEPT_FIELDS = new String[] {
             "password",
             "roles",
             "userActivity",
@@ -50,76 +74,309 @@ public class CourseResource {
             "purchasedCourses"
     };
 
-    @Operation(summary = "returns all courses", description = "When keyword param is provided it will also filter courses with keyword in title.")
+    @Operation(summary = "returns page of courses", description = "When keyword param is provided it will also filter courses with keyword in title. " +
+            "Courses can be sorted by price, avgRate, ratesCount, lastUpdate or title and narrowed by price range, minimal rating, languages and subtitles. " +
+            "Facet counts are computed for all matching courses, not only for returned page, so next link does not request them again. " +
+            "First page carries total of matching courses estimated from database statistics, exact count is the slow path requested by exactTotal. " +
+            "Next page is available under link with rel 'next'.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found courses",
-                content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Course.class)) }),
-            @ApiResponse(responseCode = "204", description = "No courses",
-                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Course.class)) })
+                content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CoursePage.class)) }),
+            @ApiResponse(responseCode = "204", description = "No courses on page",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CoursePage.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or sort",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CoursePage.class)) })
     })
     @GetMapping
     public ResponseEntity<Object> getAllCourses(
-            @Parameter(name = "additionally searches courses by titles containing keyword when provided")
-            @RequestParam(required = false) String keyword) throws JsonProcessingException {
-        List<Course> courses = service.findAll(keyword);
+            @Parameter(description = "additionally searches courses by titles containing keyword when provided")
+            @RequestParam(required = false) String keyword,
+            @Parameter(description = "sorts courses by price, avgRate, ratesCount, lastUpdate or title, by id when not provided")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "asc or desc")
+            @RequestParam(defaultValue = "asc") String order,
+            @Parameter(description = "min price of course, inclusive")
+            @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "max price of course, inclusive")
+            @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "min average rate of course, inclusive")
+            @RequestParam(required = false) Double minRating,
+            @Parameter(description = "matches courses in any of languages, ex. POLISH,ENGLISH")
+            @RequestParam(required = false) Set<Language> language,
+            @Parameter(description = "matches courses with subtitles in any of languages, ex. POLISH,ENGLISH")
+            @RequestParam(required = false) Set<Language> subtitle,
+            @Parameter(description = "cursor from next link of previous page, first page when not provided")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "max number of courses on page")
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+            @Parameter(description = "adds counts of matching courses per language, subtitle, category, price and rating when true")
+            @RequestParam(defaultValue = "false") boolean facets,
+            @Parameter(description = "counts all matching courses for total instead of estimating it when true. Slow path, use only when exact number is required")
+            @RequestParam(defaultValue = "false") boolean exactTotal) throws InvalidCursorException, InvalidSortException {
+        CourseFilter filter = getFilterBuilder(keyword, sort, order, minPrice, maxPrice, minRating, language, subtitle).build();
+        CoursePage page = service.findAll(filter, cursor, size, facets, exactTotal);
 
-        String[] courseExceptFields = new String[] {
-                "duration",
-                "longDescription",
-                "mainTopics",
-                "requirements",
-                "comments"
-        };
+        EntityModel<CoursePage> model = EntityModel.of(page);
+        if (page.getNextCursor() != null)
+            model.add(linkTo(methodOn(this.getClass())
+                    .getAllCourses(keyword, sort, order, minPrice, maxPrice, minRating, language, subtitle, page.getNextCursor(), size, false, false))
+                    .withRel("next"));
 
-        return getResponseAndStatus((List<Course>) filterCourseData(courses, courseExceptFields));
+        return getResponseAndStatus(model);
     }
 
 
-    @Operation(summary = "returns courses with given category id", description = "When keyword param is provided it will also filter courses with keyword in title.")
+    @Operation(summary = "returns page of courses with given category id", description = "When keyword param is provided it will also filter courses with keyword in title. " +
+            "When includeDescendants is true also courses from all subcategories are returned. " +
+            "Courses can be sorted by price, avgRate, ratesCount, lastUpdate or title and narrowed by price range, minimal rating, languages and subtitles. " +
+            "Facet counts are computed for all matching courses, not only for returned page, so next link does not request them again. " +
+            "First page carries total of matching courses estimated from database statistics, exact count is the slow path requested by exactTotal. " +
+            "Next page is available under link with rel 'next'.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found courses",
-                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Course.class)) }),
-            @ApiResponse(responseCode = "204", description = "No courses",
-                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Course.class)) })
+                content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CoursePage.class)) }),
+            @ApiResponse(responseCode = "204", description = "No courses on page",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CoursePage.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or sort",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CoursePage.class)) })
     })
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<Object> getCoursesByCategory(
             @PathVariable int categoryId,
             @Parameter(description = "additionally searches courses by titles containing keyword when provided")
-            @RequestParam(required = false) String keyword
-    ) throws JsonProcessingException {
-        List<Course> courses = service.findAllByCategory(keyword, categoryId);
+            @RequestParam(required = false) String keyword,
+            @Parameter(description = "also returns courses from all subcategories when true")
+            @RequestParam(defaultValue = "false") boolean includeDescendants,
+            @Parameter(description = "sorts courses by price, avgRate, ratesCount, lastUpdate or title, by id when not provided")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "asc or desc")
+            @RequestParam(defaultValue = "asc") String order,
+            @Parameter(description = "min price of course, inclusive")
+            @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "max price of course, inclusive")
+            @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "min average rate of course, inclusive")
+            @RequestParam(required = false) Double minRating,
+            @Parameter(description = "matches courses in any of languages, ex. POLISH,ENGLISH")
+            @RequestParam(required = false) Set<Language> language,
+            @Parameter(description = "matches courses with subtitles in any of languages, ex. POLISH,ENGLISH")
+            @RequestParam(required = false) Set<Language> subtitle,
+            @Parameter(description = "cursor from next link of previous page, first page when not provided")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "max number of courses on page")
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+            @Parameter(description = "adds counts of matching courses per language, subtitle, category, price and rating when true")
+            @RequestParam(defaultValue = "false") boolean facets,
+            @Parameter(description = "counts all matching courses for total instead of estimating it when true. Slow path, use only when exact number is required")
+            @RequestParam(defaultValue = "false") boolean exactTotal
+    ) throws InvalidCursorException, InvalidSortException {
+        CourseFilter filter = getFilterBuilder(keyword, sort, order, minPrice, maxPrice, minRating, language, subtitle)
+                .categoryId(categoryId)
+                .includeDescendants(includeDescendants)
+                .build();
+        CoursePage page = service.findAll(filter, cursor, size, facets, exactTotal);
+
+        EntityModel<CoursePage> model = EntityModel.of(page);
+        if (page.getNextCursor() != null)
+            model.add(linkTo(methodOn(this.getClass())
+                    .getCoursesByCategory(categoryId, keyword, includeDescendants, sort, order, minPrice, maxPrice, minRating, language, subtitle, page.getNextCursor(), size, false, false))
+                    .withRel("next"));
+
+        return getResponseAndStatus(model);
+    }
+
+    @Operation(summary = "returns page of courses matching searched phrase, from the most relevant",
+            description = "Phrase is searched in titles, short and long descriptions and main topics of courses, title matches are the most relevant. " +
+                    "Words are also matched in stemmed forms of course languages and Polish words match their other inflected forms. " +
+                    "Better rated courses are ranked higher and matched words are marked in highlight of each course. " +
+                    "When nothing is found, misspelled words are corrected to the closest words of course titles and topics and courses found for corrected phrase are returned with it in didYouMean. " +
+                    "Next page is available under link with rel 'next'.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found courses",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CoursePage.class)) }),
+            @ApiResponse(responseCode = "204", description = "No courses matching phrase",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CoursePage.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CoursePage.class)) }),
+            @ApiResponse(responseCode = "503", description = "Search index is being built after first start")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<Object> searchCourses(
+            @Parameter(description = "searched words", required = true)
+            @RequestParam String query,
+            @Parameter(description = "cursor from next link of previous page, first page when not provided")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "max number of courses on page")
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) throws InvalidCursorException, ServiceOverloadedException {
+        CoursePage page = service.search(query, cursor, size);
+        String searched = page.getDidYouMean() != null ? page.getDidYouMean() : query;
+
+        EntityModel<CoursePage> model = EntityModel.of(page);
+        if (page.getNextCursor() != null)
+            model.add(linkTo(methodOn(this.getClass())
+                    .searchCourses(searched, page.getNextCursor(), size))
+                    .withRel("next"));
+
+        return getResponseAndStatus(model);
+    }
+
+    @Operation(summary = "rebuilds search index of all courses in background",
+            description = "Endpoint available only for page admin. Searches use the old index until the new one is ready.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Rebuild started"),
+            @ApiResponse(responseCode = "409", description = "Rebuild is already running")
+    })
+    @PostMapping("/search/reindex")
+    public ResponseEntity<String> rebuildSearchIndex() {
+        if (!service.rebuildSearchIndex())
+            return new ResponseEntity<>("Search index rebuild is already running.", HttpStatus.CONFLICT);
+
+        return new ResponseEntity<>("Search index rebuild started.", HttpStatus.ACCEPTED);
+    }
+
+    @Operation(summary = "returns course titles and category names with any word starting with typed prefix",
+            description = "Suggestions are served from memory. Courses are ordered by popularity (number of rates) or rating, categories by number of courses. " +
+                    "Ratings and popularity are refreshed periodically, new titles and names are suggested right after they are saved. At most 10 courses and 10 categories are returned.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggested courses and categories, empty lists when nothing matches",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Suggestions.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid sort")
+    })
+    @GetMapping("/suggest")
+    public Suggestions suggest(
+            @Parameter(description = "typed text, case insensitive", required = true)
+            @RequestParam String prefix,
+            @Parameter(description = "orders courses by popularity or rating, by popularity when not provided")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "max number of suggested courses and categories")
+            @RequestParam(defaultValue = DEFAULT_SUGGESTIONS_SIZE) int size) throws InvalidSortException {
+        return service.suggest(prefix, SuggestionSort.fromParam(sort), size);
+    }
 
-        String[] courseExceptFields = new String[] {
-                "duration",
-                "longDescription",
-                "mainTopics",
-                "requirements",
-                "comments"
-        };
+    /**
+     * @throws InvalidSortException when sort or order is not supported
+     */
+    private CourseFilter.CourseFilterBuilder getFilterBuilder(String keyword, String sort, String order, Double minPrice, Double maxPrice, Double minRating,
+                                                             Set<Language> languages, Set<Language> subtitles) throws InvalidSortException {
+        Sort.Direction direction = Sort.Direction.fromOptionalString(order)
+                .orElseThrow(() -> new InvalidSortException("Order: " + order + " is not supported."));
 
-        return getResponseAndStatus((List<Course>) filterCourseData(courses, courseExceptFields));
+        return CourseFilter.builder()
+                .keyword(keyword)
+                .sort(CourseSort.fromParam(sort))
+                .direction(direction)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minRating(minRating)
+                .languages(languages)
+                .subtitles(subtitles);
     }
 
-    private ResponseEntity<Object> getResponseAndStatus(List<Course> courses) {
+    private ResponseEntity<Object> getResponseAndStatus(EntityModel<CoursePage> page) {
         return new ResponseEntity<>(
-                courses,
-                (courses.size() > 0 ? HttpStatus.OK : HttpStatus.NO_CONTENT)
+                page,
+                (page.getContent().getCourses().size() > 0 ? HttpStatus.OK : HttpStatus.NO_CONTENT)
         );
     }
 
-    @Operation(summary = "returns course with supplied id")
+    @Operation(summary = "returns rating histograms of courses with supplied ids",
+            description = "Histograms are returned by course id, courses which not exist are skipped. At most 100 distinct ids are handled.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found histograms"),
+            @ApiResponse(responseCode = "400", description = "Too many ids")
+    })
+    @GetMapping("/histograms")
+    public Map<Long, RatingHistogram> getRatingHistograms(
+            @Parameter(description = "comma separated course ids", required = true)
+            @RequestParam List<Long> ids) throws BatchTooLargeException {
+        return service.findRatingHistograms(ids);
+    }
+
+    @Operation(summary = "returns courses changed after supplied token",
+            description = "Created and updated courses, also ones with changed ratings, are returned as cards, deleted ones as ids, " +
+                    "each course once with its latest state. " +
+                    "Without token only token of changes already committed is returned, it should be taken before downloading whole catalog. " +
+                    "Next changes are requested with returned token.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changed courses with next token",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CourseChanges.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid token")
+    })
+    @GetMapping("/changes")
+    public CourseChanges getChanges(
+            @Parameter(description = "token returned with previous changes")
+            @RequestParam(required = false) String since,
+            @Parameter(description = "max number of changes, at most 500, changes made together are always returned together")
+            @RequestParam(defaultValue = DEFAULT_CHANGES_SIZE) int size) throws InvalidCursorException {
+        return service.findChanges(since, size);
+    }
+
+    @Operation(summary = "returns courses with supplied ids",
+            description = "Courses are returned with the same details as single course, in order of ids. " +
+                    "Ids of courses which not exist are returned in missingIds. At most 200 distinct ids are handled, use POST /api/courses/batch for long lists. " +
+                    "Fields of courses can be selected as in single course.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found courses and ids of missing ones",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CourseBatch.class)) }),
+            @ApiResponse(responseCode = "400", description = "Too many ids or invalid fields")
+    })
+    @GetMapping(params = "ids")
+    public MappingJacksonValue getCoursesByIds(
+            @Parameter(description = "comma separated course ids", required = true)
+            @RequestParam List<Long> ids,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) throws BatchTooLargeException, InvalidFieldsException {
+        return getCourseBatch(ids, fields);
+    }
+
+    @Operation(summary = "returns courses with ids supplied in body",
+            description = "Same as GET /api/courses?ids= for lists of ids too long for url.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found courses and ids of missing ones",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = CourseBatch.class)) }),
+            @ApiResponse(responseCode = "400", description = "Too many ids or invalid fields")
+    })
+    @PostMapping("/batch")
+    public MappingJacksonValue getCoursesByIdsInBody(
+            @Parameter(description = "course ids", required = true)
+            @RequestBody List<Long> ids,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) throws BatchTooLargeException, InvalidFieldsException {
+        return getCourseBatch(ids, fields);
+    }
+
+    private MappingJacksonValue getCourseBatch(List<Long> ids, String fields) throws BatchTooLargeException, InvalidFieldsException {
+        Set<CourseField> selected = CourseField.fromParam(fields);
+        CourseBatch batch = service.findAllById(ids, selected);
+
+        FieldsFilter filter = courseFilter();
+        batch.getCourses().forEach(course -> filter.only(course, paramsOf(selected)));
+        return filter.apply(batch);
+    }
+
+    @Operation(summary = "returns course with supplied id",
+            description = "Only fields listed in fields param are returned and loaded, id is always returned. All fields are returned when param is not provided.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found course",
                     content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Course.class)) }),
+            @ApiResponse(responseCode = "400", description = "Field which can not be selected",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Course.class)) }),
             @ApiResponse(responseCode = "404", description = "No course with supplied id",
                     content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Course.class)) })
     })
     @GetMapping("/{id}")
-    public EntityModel<Course> getCourseById(@PathVariable Long id) throws CourseNotFoundException, JsonProcessingException {
-        Course filteredCourse = (Course) filterCourseData(service.findById(id), new String[0]);
+    public MappingJacksonValue getCourseById(
+            @PathVariable Long id,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) throws CourseNotFoundException, InvalidFieldsException {
+        Set<CourseField> selected = CourseField.fromParam(fields);
+        Course course = service.findById(id, selected);
 
-        return EntityModel.of(filteredCourse);
+        EntityModel<Course> model = EntityModel.of(course);
+        model.add(linkTo(CommentResource.class, id).withRel("comments"));
+        return courseFilter()
+                .only(course, paramsOf(selected))
+                .apply(model);
     }
 
     @Operation(summary = "adds new course", description = "Adds new course only when course object is valid.")
@@ -131,17 +388,14 @@ public class CourseResource {
     })
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public EntityModel<Course> addCourse(
+    public MappingJacksonValue addCourse(
             @Parameter(required = true)
             @RequestHeader("Authorization") String authHeader,
             @Parameter(description = "new course object should provide basic information about itself and category/ies", required = true)
-            @Valid @RequestBody Course course) throws JsonProcessingException, UserNotExistsException, CourseNotFoundException {
-        final String[] courseExceptFields = new String[] { "courseFeedback" };
-
+            @Valid @RequestBody Course course) throws UserNotExistsException {
         Course savedCourse = service.save(course, authHeader);
-        Course filteredCourse = (Course) filterCourseData(savedCourse, courseExceptFields);
 
-        return getCourseEntityModel(filteredCourse.getId(), filteredCourse);
+        return getCourseEntityModel(savedCourse.getId(), savedCourse);
     }
 
     @Operation(summary = "updates existing course with given id",
@@ -155,33 +409,42 @@ public class CourseResource {
                     content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Course.class)) }),
     })
     @PutMapping("/{id}")
-    public EntityModel<Course> updateCourse(
+    public MappingJacksonValue updateCourse(
             @Parameter(required = true)
             @RequestHeader("Authorization") String authHeader,
             @Parameter(required = true)
             @PathVariable Long id,
             @Parameter(description = "course with updated data", required = true)
             @Valid @RequestBody Course updatedCourse
-    ) throws CourseNotFoundException, JsonProcessingException, NotAnAuthorException {
-        String[] courseExceptFields = new String[] { "courseFeedback" };
-
+    ) throws CourseNotFoundException, NotAnAuthorException {
         Course updated = service.update(id, authHeader, updatedCourse);
-        Course filteredCourse = (Course) filterCourseData(updated, courseExceptFields);
 
-        return getCourseEntityModel(id, filteredCourse);
+        return getCourseEntityModel(id, updated);
     }
 
-    private Object filterCourseData(Object rawObject, String[] courseExceptFields) throws JsonProcessingException {
-        String[] exceptFields = Stream.concat(Arrays.stream(courseExceptFields), Arrays.stream(USER_EXCEPT_FIELDS)).toArray(String[]::new);
+    /**
+     * Saved course is returned without feedback.
+     */
+    private MappingJacksonValue getCourseEntityModel(Long id, Course course) {
+        EntityModel<Course> model = EntityModel.of(course);
+        model.add(linkTo(this.getClass()).slash(id).withRel("course-link"));
+        return courseFilter()
+                .except(Course.class, "courseFeedback")
+                .apply(model);
+    }
 
-        return JsonFilter.filterFields(rawObject, FILTER_NAME, exceptFields);
+    /**
+     * Private data of course authors is never returned.
+     */
+    private static FieldsFilter courseFilter() {
+        return new FieldsFilter().except(User.class, USER_EXCEPT_FIELDS);
     }
 
-    private EntityModel<Course> getCourseEntityModel(Long id, Course course) throws CourseNotFoundException, JsonProcessingException {
-        EntityModel<Course> model = EntityModel.of(course);
-        WebMvcLinkBuilder linkToCourse = linkTo(methodOn(this.getClass()).getCourseById(id));
-        model.add(linkToCourse.withRel("course-link"));
-        return model;
+    private static List<String> paramsOf(Set<CourseField> fields) {
+        List<String> params = new ArrayList<>();
+        params.add("id");
+        fields.forEach(field -> params.add(field.param));
+        return params;
     }
 
     @Operation(summary = "deletes course with supplied id",
@@ -0,0 +1,24 @@
+package peterstuck.coursewebsitebackend.resources.graphql;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import java.util.Map;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Schema(description = "GraphQL query with its variables")
+public class GraphQLRequest {
+
+    @NotBlank(message = "Query is mandatory.")
+    private String query;
+
+    private String operationName;
+
+    private Map<String, Object> variables;
+
+}
@@ -0,0 +1,38 @@
+package peterstuck.coursewebsitebackend.resources.graphql;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import peterstuck.coursewebsitebackend.services.graphql.GraphQLService;
+
+import javax.validation.Valid;
+import java.util.Map;
+
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping("/api/graphql")
+@Tag(name = "GraphQL")
+public class GraphQLResource {
+
+    @Autowired
+    private GraphQLService service;
+
+    @Operation(summary = "executes GraphQL query over courses, categories and users",
+            description = "Schema is available in graphql/schema.graphqls. Only public data of users can be queried. " +
+                    "Nested fields of all courses are loaded together, so whole screen can be fetched in one request without loading courses one by one. " +
+                    "Queries nested deeper than 8 levels or with estimated cost over 1000 fields are rejected with errors.")
+    @ApiResponse(responseCode = "200", description = "Query result with data and errors in GraphQL response format")
+    @PostMapping
+    public Map<String, Object> execute(
+            @Parameter(description = "query with optional operation name and variables", required = true)
+            @Valid @RequestBody GraphQLRequest request) {
+        return service.execute(request.getQuery(), request.getOperationName(), request.getVariables());
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import peterstuck.coursewebsitebackend.exceptions.InvalidFieldsException;
 import peterstuck.coursewebsitebackend.exceptions.UsernameNotUniqueException;
 
 import java.util.Date;
@@ -24,6 +25,11 @@ public class UserAdvisor {
         return new ResponseEntity<>(createResponseContent(ex.getMessage()), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<Object> handleInvalidFieldsException(Exception ex) {
+        return new ResponseEntity<>(createResponseContent(ex.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
     private Map<String, Object> createResponseContent(String message) {
         Map<String, Object> body = new HashMap<>();
         body.put("timestamp", new Date().getTime());
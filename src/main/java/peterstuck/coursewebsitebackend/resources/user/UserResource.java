@@ -1,6 +1,5 @@
 package peterstuck.coursewebsitebackend.resources.user;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,15 +10,21 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
+import peterstuck.coursewebsitebackend.exceptions.InvalidFieldsException;
 import peterstuck.coursewebsitebackend.exceptions.UsernameNotUniqueException;
+import peterstuck.coursewebsitebackend.models.course.Course;
 import peterstuck.coursewebsitebackend.models.user.User;
+import peterstuck.coursewebsitebackend.repositories.user.UserField;
 import peterstuck.coursewebsitebackend.resources.auth.JwtToken;
 import peterstuck.coursewebsitebackend.services.user.UserService;
-import peterstuck.coursewebsitebackend.utils.JsonFilter;
+import peterstuck.coursewebsitebackend.utils.FieldsFilter;
 
 import javax.validation.Valid;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "http://localhost:3000")
 @RestController
@@ -31,8 +36,6 @@ public class UserResource {
     @Qualifier("userServiceImpl")
     private UserService service;
 
-    private final String FILTER_NAME = "JsonFilter";
-
     @Operation(summary = "register new user", description = "Operation available for everyone.")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "User registered",
@@ -65,31 +68,28 @@ public class UserResource {
         return new JwtToken(newToken);
     }
 
-    @Operation(summary = "returns user data", description = "User identification is being proceed based on passed JWT.")
+    @Operation(summary = "returns user data", description = "User identification is being proceed based on passed JWT. " +
+            "Only fields listed in fields param are returned and loaded, all fields are returned when param is not provided.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User data (without vulnerable data)",
                     content = { @Content(mediaType = "application/json", schema = @Schema(implementation = User.class)) }),
-            @ApiResponse(responseCode = "400", description = "Invalid JWT",
+            @ApiResponse(responseCode = "400", description = "Invalid JWT or field which can not be selected",
                     content = { @Content(mediaType = "application/json", schema = @Schema(implementation = User.class)) }),
     })
     @GetMapping
-    public User getUserInfo(
+    public MappingJacksonValue getUserInfo(
             @Parameter(description = "authorization request header", required = true)
-            @RequestHeader("Authorization") String authHeader) throws UsernameNotFoundException, JsonProcessingException {
-        User user = service.getUserInfo(authHeader);
-
-        String[] exceptFields = new String[] {
-                // user
-                "userActivity",
-                "roles",
-                "password",
-                // course
-                "price",
-                "courseDescription",
-                "courseFeedback"
-        };
+            @RequestHeader("Authorization") String authHeader,
+            @Parameter(description = "comma separated fields of user: email, firstName, lastName, userDetail or purchasedCourses, all when not provided")
+            @RequestParam(required = false) String fields) throws UsernameNotFoundException, InvalidFieldsException {
+        Set<UserField> selected = UserField.fromParam(fields);
+        User user = service.getUserInfo(authHeader, selected);
 
-        return (User) JsonFilter.filterFields(user, FILTER_NAME, exceptFields);
+        return new FieldsFilter()
+                .only(user, selected.stream().map(field -> field.param).collect(Collectors.toList()))
+                .except(User.class, "userActivity", "roles", "password")
+                .except(Course.class, "price", "courseDescription", "courseFeedback")
+                .apply(user);
     }
 
 }
@@ -0,0 +1,133 @@
+package peterstuck.coursewebsitebackend.services.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import peterstuck.coursewebsitebackend.models.course.CourseChange;
+import peterstuck.coursewebsitebackend.repositories.CourseChangeRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Local file with catalog index entries, postings and cards of all courses, written after every full rebuild.
+ * On startup the file is memory mapped and listings are answered from it at once when it was written in the same format
+ * for the same database, then only courses found in course change log after its checkpoint are read from database,
+ * so restarted node does not load whole catalog at once.
+ */
+@Component
+public class CatalogCache {
+
+    /**
+     * When more courses changed since checkpoint, whole catalog is loaded instead.
+     */
+    private static final int MAX_CATCH_UP = 10_000;
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+
+    @Value("${catalog.cache.file:${java.io.tmpdir}/course-website-catalog.cache}")
+    private String file;
+
+    /**
+     * Database which cached catalog was loaded from
+     */
+    @Value("${spring.datasource.url:}")
+    private String source;
+
+    @Autowired
+    private CatalogIndex catalogIndex;
+
+    @Autowired
+    private CourseCatalog courseCatalog;
+
+    @Autowired
+    private CourseChangeRepository changeRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!loadFile())
+            rebuild();
+    }
+
+    /**
+     * Loads index and catalog from database and saves them to file when both were loaded.
+     * Checkpoint is read before loading, so changes committed during rebuild are caught up again from the log.
+     */
+    @Scheduled(initialDelayString = "${catalog.index.refresh-delay:300000}", fixedDelayString = "${catalog.index.refresh-delay:300000}")
+    public void rebuild() {
+        long checkpoint = changeRepository.findCheckpoint();
+        boolean indexed = catalogIndex.rebuild();
+        boolean cataloged = courseCatalog.rebuild();
+        if (indexed && cataloged)
+            saveFile(checkpoint);
+    }
+
+    /**
+     * Database with fewer changes than checkpoint of file was recreated or restored since file was written.
+     * @return false when file is missing, invalid, too old or was not loaded
+     */
+    private boolean loadFile() {
+        Path path = Path.of(file);
+        if (!Files.isReadable(path))
+            return false;
+
+        try {
+            CatalogFile cached = CatalogFile.map(path, source);
+            if (cached == null) {
+                logger.info("Catalog cache file " + file + " was written in other format or for other database");
+                return false;
+            }
+            if (cached.checkpoint() > changeRepository.findCheckpoint()) {
+                logger.info("Catalog cache file " + file + " is ahead of database");
+                return false;
+            }
+
+            List<CourseChange> changes = changeRepository.findAfter(cached.checkpoint(), MAX_CATCH_UP + 1);
+            if (changes.size() > MAX_CATCH_UP)
+                return false;
+            Set<Long> changedIds = changes.stream().map(CourseChange::getCourseId).collect(Collectors.toSet());
+
+            if (!catalogIndex.load(cached))
+                return false;
+            courseCatalog.load(cached);
+            catalogIndex.refresh(changedIds);
+            courseCatalog.refresh(changedIds);
+
+            logger.info("Catalog loaded from cache file " + file + " with " + cached.cardCount() + " courses, "
+                    + changedIds.size() + " changed courses loaded from database");
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Catalog cache file " + file + " not loaded: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * File is written aside and moved over the old one, so readers never read partially written file
+     * and file mapped by running node is left intact.
+     */
+    private void saveFile(long checkpoint) {
+        Path path = Path.of(file);
+        Path written = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(written)))) {
+                CatalogFile.write(out, source, checkpoint, catalogIndex.entries(), courseCatalog.cards());
+            }
+            Files.move(written, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Catalog cache file " + file + " not saved: " + e.getMessage());
+        }
+    }
+}
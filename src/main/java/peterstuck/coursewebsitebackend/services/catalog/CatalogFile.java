@@ -0,0 +1,556 @@
+package peterstuck.coursewebsitebackend.services.catalog;
+
+import peterstuck.coursewebsitebackend.models.course.CatalogEntry;
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.models.course.Language;
+import peterstuck.coursewebsitebackend.models.course.PriceBucket;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Catalog cache file mapped into memory and read in place. Body holds records of cards, catalog index entries
+ * and postings (ascending ids of courses having value of criterion), followed by directories of fixed width items
+ * sorted by key, so card, entry or posting is found by binary search without reading the rest of file.
+ * Cards and entries are read from file on every lookup, postings are decoded into bitmaps when first used.
+ * Buffer is never read relatively, so it is shared by concurrent readers.
+ */
+final class CatalogFile {
+
+    private static final int MAGIC = 0x43435441;
+
+    /**
+     * Raised on every change of file layout, files in other versions are not loaded.
+     */
+    private static final int FORMAT_VERSION = 4;
+
+    /**
+     * Raised on every change of meaning of cached values, ex. how average rate, title key or postings are computed,
+     * so files written from other schema are not loaded even when their layout is the same.
+     */
+    private static final int SCHEMA_VERSION = 1;
+
+    /**
+     * Card directory item: course id and offset of record
+     */
+    private static final int CARD_ITEM = Long.BYTES + Integer.BYTES;
+
+    /**
+     * Entry, category and half star directory item: int key and offset of record
+     */
+    private static final int KEYED_ITEM = 2 * Integer.BYTES;
+
+    /**
+     * Stored in place of offset of posting of value no course has
+     */
+    private static final int NONE = -1;
+
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+    /**
+     * Token of course changes which were final before catalog was loaded from database
+     */
+    private final long checkpoint;
+
+    private final ByteBuffer body;
+
+    private final int cardDirectory;
+
+    private final int entryDirectory;
+
+    private final int allPosting;
+
+    private final int categoryDirectory;
+
+    private final int languageDirectory;
+
+    private final int subtitleDirectory;
+
+    private final int priceDirectory;
+
+    private final int halfStarDirectory;
+
+    private final int suffixDirectory;
+
+    /**
+     * Postings by offset, decoded bitmaps are never changed
+     */
+    private final Map<Integer, CompressedBitmap> decoded = new ConcurrentHashMap<>();
+
+    private CatalogFile(long checkpoint, ByteBuffer body) {
+        this.checkpoint = checkpoint;
+        this.body = body;
+        cardDirectory = body.getInt(0);
+        entryDirectory = body.getInt(Integer.BYTES);
+
+        int position = body.getInt(2 * Integer.BYTES);
+        allPosting = body.getInt(position);
+        categoryDirectory = position + Integer.BYTES;
+        languageDirectory = categoryDirectory + Integer.BYTES + body.getInt(categoryDirectory) * KEYED_ITEM;
+        subtitleDirectory = languageDirectory + Language.values().length * Integer.BYTES;
+        priceDirectory = subtitleDirectory + Language.values().length * Integer.BYTES;
+        halfStarDirectory = priceDirectory + PriceBucket.values().length * Integer.BYTES;
+        suffixDirectory = halfStarDirectory + Integer.BYTES + body.getInt(halfStarDirectory) * KEYED_ITEM;
+    }
+
+    /**
+     * Only header and checksum are read, pages of file are loaded by system when they are read.
+     * @return null when file does not hold valid catalog of the same format, schema and database
+     */
+    static CatalogFile map(Path path, String source) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                return null;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || buffer.getInt() != SCHEMA_VERSION
+                || !source.equals(readString(buffer)))
+            return null;
+
+        long checkpoint = buffer.getLong();
+        long expectedChecksum = buffer.getLong();
+        if (buffer.getInt() != buffer.remaining())
+            return null;
+        ByteBuffer body = buffer.slice();
+        CRC32 checksum = new CRC32();
+        checksum.update(body.duplicate());
+        if (checksum.getValue() != expectedChecksum)
+            return null;
+
+        return new CatalogFile(checkpoint, body);
+    }
+
+    /**
+     * Body is written to memory first, as directories and checksum are known only when all records are written.
+     */
+    static void write(DataOutputStream out, String source, long checkpoint, List<CatalogEntry> entries, List<CourseCard> cards)
+            throws IOException {
+        byte[] body = writeBody(entries, cards);
+        CRC32 checksum = new CRC32();
+        checksum.update(body);
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(SCHEMA_VERSION);
+        writeString(out, source);
+        out.writeLong(checkpoint);
+        out.writeLong(checksum.getValue());
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    long checkpoint() {
+        return checkpoint;
+    }
+
+    int cardCount() {
+        return body.getInt(cardDirectory);
+    }
+
+    /**
+     * @return new card of course with given id, null when course is not in file
+     */
+    CourseCard findCard(long id) {
+        int low = 0;
+        int high = cardCount() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = body.getLong(cardItem(middle));
+            if (middleId < id)
+                low = middle + 1;
+            else if (middleId > id)
+                high = middle - 1;
+            else
+                return card(middle);
+        }
+        return null;
+    }
+
+    /**
+     * @return new cards of all courses ordered by id
+     */
+    List<CourseCard> cards() {
+        List<CourseCard> cards = new ArrayList<>(cardCount());
+        for (int position = 0; position < cardCount(); position++)
+            cards.add(card(position));
+        return cards;
+    }
+
+    private int cardItem(int position) {
+        return cardDirectory + Integer.BYTES + position * CARD_ITEM;
+    }
+
+    private CourseCard card(int position) {
+        long id = body.getLong(cardItem(position));
+        ByteBuffer record = body.duplicate().position(body.getInt(cardItem(position) + Long.BYTES));
+        String title = readString(record);
+        Double price = readPrice(record);
+        long lastUpdate = record.getLong();
+        CourseCard card = new CourseCard(id, title, price, lastUpdate == Long.MIN_VALUE ? null : lastUpdate, readString(record),
+                record.getLong(), record.getDouble(), record.getInt(), record.getInt(), null);
+        for (int i = record.getInt(); i > 0; i--)
+            card.getAuthors().add(readString(record));
+        return card;
+    }
+
+    /**
+     * @return new entry of course with given id, null when course is not in file
+     */
+    CatalogEntry findEntry(long id) {
+        int position = find(entryDirectory, id);
+        return position < 0 ? null : entry(position);
+    }
+
+    /**
+     * @return new entries of all courses ordered by id
+     */
+    List<CatalogEntry> entries() {
+        int count = body.getInt(entryDirectory);
+        List<CatalogEntry> entries = new ArrayList<>(count);
+        for (int position = 0; position < count; position++)
+            entries.add(entry(position));
+        return entries;
+    }
+
+    private CatalogEntry entry(int position) {
+        int item = entryDirectory + Integer.BYTES + position * KEYED_ITEM;
+        ByteBuffer record = body.duplicate().position(body.getInt(item + Integer.BYTES));
+        CatalogEntry entry = new CatalogEntry((long) body.getInt(item), readString(record), readPrice(record), record.getDouble(),
+                record.getInt(), record.getInt());
+        for (int i = record.getInt(); i > 0; i--)
+            entry.getCategoryIds().add(record.getInt());
+        return entry;
+    }
+
+    CompressedBitmap all() {
+        return posting(allPosting);
+    }
+
+    CompressedBitmap category(int categoryId) {
+        int position = find(categoryDirectory, categoryId);
+        return position < 0 ? EMPTY : posting(body.getInt(categoryDirectory + Integer.BYTES + position * KEYED_ITEM + Integer.BYTES));
+    }
+
+    CompressedBitmap language(Language language) {
+        return posting(body.getInt(languageDirectory + language.ordinal() * Integer.BYTES));
+    }
+
+    CompressedBitmap subtitle(Language language) {
+        return posting(body.getInt(subtitleDirectory + language.ordinal() * Integer.BYTES));
+    }
+
+    CompressedBitmap price(PriceBucket bucket) {
+        return posting(body.getInt(priceDirectory + bucket.ordinal() * Integer.BYTES));
+    }
+
+    /**
+     * @return courses by average rate rounded down to half star
+     */
+    Map<Integer, CompressedBitmap> halfStars() {
+        Map<Integer, CompressedBitmap> halfStars = new HashMap<>();
+        for (int i = 0; i < body.getInt(halfStarDirectory); i++) {
+            int item = halfStarDirectory + Integer.BYTES + i * KEYED_ITEM;
+            halfStars.put(body.getInt(item), posting(body.getInt(item + Integer.BYTES)));
+        }
+        return halfStars;
+    }
+
+    /**
+     * @return postings of suffixes from inclusive to exclusive bound
+     */
+    Collection<CompressedBitmap> suffixes(String from, String to) {
+        int count = body.getInt(suffixDirectory);
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (suffix(middle).compareTo(from) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        List<CompressedBitmap> postings = new ArrayList<>();
+        for (int position = low; position < count; position++) {
+            ByteBuffer record = body.duplicate().position(suffixRecord(position));
+            if (readString(record).compareTo(to) >= 0)
+                break;
+            postings.add(posting(record.position()));
+        }
+        return postings;
+    }
+
+    private int suffixRecord(int position) {
+        return body.getInt(suffixDirectory + Integer.BYTES + position * Integer.BYTES);
+    }
+
+    private String suffix(int position) {
+        return readString(body.duplicate().position(suffixRecord(position)));
+    }
+
+    /**
+     * @param directory offset of directory of int keys
+     * @return position of key in directory, -1 when it is missing
+     */
+    private int find(int directory, long key) {
+        int low = 0;
+        int high = body.getInt(directory) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleKey = body.getInt(directory + Integer.BYTES + middle * KEYED_ITEM);
+            if (middleKey < key)
+                low = middle + 1;
+            else if (middleKey > key)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -1;
+    }
+
+    private CompressedBitmap posting(int offset) {
+        if (offset == NONE)
+            return EMPTY;
+
+        return decoded.computeIfAbsent(offset, key -> {
+            IntBuffer ids = body.duplicate().position(offset + Integer.BYTES).slice().asIntBuffer();
+            CompressedBitmap bitmap = new CompressedBitmap();
+            int count = body.getInt(offset);
+            for (int i = 0; i < count; i++)
+                bitmap.add(ids.get(i));
+            return bitmap;
+        });
+    }
+
+    /**
+     * Layout of body, offsets are counted from its start:
+     * offsets of card, entry and posting directories, then records, then directories.
+     * Card directory is count and (long id, int offset) per card, entry directory is count and (int id, int offset) per entry.
+     * Posting directory is offset of posting of all courses, categories as count and (int id, int offset) per category,
+     * offsets per language, subtitle language and price bucket, half stars as count and (int half stars, int offset),
+     * and suffixes as count and offset per suffix record of suffix followed by its posting. Keys are ascending.
+     */
+    private static byte[] writeBody(List<CatalogEntry> entries, List<CourseCard> cards) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(0);
+
+        List<CourseCard> sortedCards = new ArrayList<>(cards);
+        sortedCards.sort(Comparator.comparing(CourseCard::getId));
+        int[] cardOffsets = new int[sortedCards.size()];
+        for (int i = 0; i < sortedCards.size(); i++) {
+            cardOffsets[i] = out.size();
+            writeCard(out, sortedCards.get(i));
+        }
+
+        List<CatalogEntry> sortedEntries = new ArrayList<>(entries);
+        sortedEntries.sort(Comparator.comparing(CatalogEntry::getId));
+        int[] entryOffsets = new int[sortedEntries.size()];
+        for (int i = 0; i < sortedEntries.size(); i++) {
+            entryOffsets[i] = out.size();
+            writeEntry(out, sortedEntries.get(i));
+        }
+
+        Postings postings = new Postings(sortedEntries);
+        int allOffset = writePosting(out, postings.all);
+        Map<Integer, Integer> categoryOffsets = writePostings(out, postings.categories);
+        Map<Language, Integer> languageOffsets = writePostings(out, postings.languages);
+        Map<Language, Integer> subtitleOffsets = writePostings(out, postings.subtitles);
+        Map<PriceBucket, Integer> priceOffsets = writePostings(out, postings.prices);
+        Map<Integer, Integer> halfStarOffsets = writePostings(out, postings.halfStars);
+        List<Integer> suffixOffsets = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> suffix : postings.suffixes.entrySet()) {
+            suffixOffsets.add(out.size());
+            writeString(out, suffix.getKey());
+            writePosting(out, suffix.getValue());
+        }
+
+        int cardDirectory = out.size();
+        out.writeInt(sortedCards.size());
+        for (int i = 0; i < sortedCards.size(); i++) {
+            out.writeLong(sortedCards.get(i).getId());
+            out.writeInt(cardOffsets[i]);
+        }
+
+        int entryDirectory = out.size();
+        out.writeInt(sortedEntries.size());
+        for (int i = 0; i < sortedEntries.size(); i++) {
+            out.writeInt(Math.toIntExact(sortedEntries.get(i).getId()));
+            out.writeInt(entryOffsets[i]);
+        }
+
+        int postingDirectory = out.size();
+        out.writeInt(allOffset);
+        writeKeyedDirectory(out, categoryOffsets);
+        for (Language language : Language.values())
+            out.writeInt(languageOffsets.getOrDefault(language, NONE));
+        for (Language language : Language.values())
+            out.writeInt(subtitleOffsets.getOrDefault(language, NONE));
+        for (PriceBucket bucket : PriceBucket.values())
+            out.writeInt(priceOffsets.getOrDefault(bucket, NONE));
+        writeKeyedDirectory(out, halfStarOffsets);
+        out.writeInt(suffixOffsets.size());
+        for (int offset : suffixOffsets)
+            out.writeInt(offset);
+        out.flush();
+
+        byte[] body = bytes.toByteArray();
+        ByteBuffer.wrap(body)
+                .putInt(0, cardDirectory)
+                .putInt(Integer.BYTES, entryDirectory)
+                .putInt(2 * Integer.BYTES, postingDirectory);
+        return body;
+    }
+
+    private static void writeCard(DataOutputStream out, CourseCard card) throws IOException {
+        writeString(out, card.getTitle());
+        writePrice(out, card.getPrice());
+        out.writeLong(card.getLastUpdate() == null ? Long.MIN_VALUE : card.getLastUpdate());
+        writeString(out, card.getShortDescription());
+        out.writeLong(card.getFeedbackId() == null ? 0 : card.getFeedbackId());
+        out.writeDouble(card.getAvgRate());
+        out.writeInt(card.getRatesCount());
+        out.writeInt(Language.toMask(card.getLanguages()));
+        out.writeInt(card.getAuthors().size());
+        for (String author : card.getAuthors())
+            writeString(out, author);
+    }
+
+    private static void writeEntry(DataOutputStream out, CatalogEntry entry) throws IOException {
+        writeString(out, entry.getTitleKey());
+        writePrice(out, entry.getPrice());
+        out.writeDouble(entry.getAvgRate());
+        out.writeInt(entry.getLanguagesMask());
+        out.writeInt(entry.getSubtitlesMask());
+        out.writeInt(entry.getCategoryIds().size());
+        for (int categoryId : entry.getCategoryIds())
+            out.writeInt(categoryId);
+    }
+
+    /**
+     * @return offsets of postings by key
+     */
+    private static <K> Map<K, Integer> writePostings(DataOutputStream out, Map<K, List<Integer>> postings) throws IOException {
+        Map<K, Integer> offsets = new TreeMap<>();
+        for (Map.Entry<K, List<Integer>> posting : postings.entrySet())
+            offsets.put(posting.getKey(), writePosting(out, posting.getValue()));
+        return offsets;
+    }
+
+    /**
+     * @return offset of posting
+     */
+    private static int writePosting(DataOutputStream out, List<Integer> ids) throws IOException {
+        int offset = out.size();
+        out.writeInt(ids.size());
+        for (int id : ids)
+            out.writeInt(id);
+        return offset;
+    }
+
+    private static void writeKeyedDirectory(DataOutputStream out, Map<Integer, Integer> offsets) throws IOException {
+        out.writeInt(offsets.size());
+        for (Map.Entry<Integer, Integer> offset : offsets.entrySet()) {
+            out.writeInt(offset.getKey());
+            out.writeInt(offset.getValue());
+        }
+    }
+
+    /**
+     * Price is written as NaN when course has no price.
+     */
+    private static void writePrice(DataOutputStream out, Double price) throws IOException {
+        out.writeDouble(price == null ? Double.NaN : price);
+    }
+
+    private static Double readPrice(ByteBuffer buffer) {
+        double price = buffer.getDouble();
+        return Double.isNaN(price) ? null : price;
+    }
+
+    /**
+     * Text is written as length of its UTF-8 bytes and bytes, null as length -1.
+     */
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ascending ids of courses per value of every criterion, by the same rules as in catalog index.
+     */
+    private static class Postings {
+
+        private final List<Integer> all = new ArrayList<>();
+
+        private final Map<Integer, List<Integer>> categories = new TreeMap<>();
+
+        private final Map<Language, List<Integer>> languages = new EnumMap<>(Language.class);
+
+        private final Map<Language, List<Integer>> subtitles = new EnumMap<>(Language.class);
+
+        private final Map<PriceBucket, List<Integer>> prices = new EnumMap<>(PriceBucket.class);
+
+        private final Map<Integer, List<Integer>> halfStars = new TreeMap<>();
+
+        private final NavigableMap<String, List<Integer>> suffixes = new TreeMap<>();
+
+        /**
+         * @param entries ordered by id
+         */
+        private Postings(List<CatalogEntry> entries) {
+            for (CatalogEntry entry : entries) {
+                int id = Math.toIntExact(entry.getId());
+                all.add(id);
+                entry.getCategoryIds().stream().distinct().forEach(categoryId -> ids(categories, categoryId).add(id));
+                Language.fromMask(entry.getLanguagesMask()).forEach(language -> ids(languages, language).add(id));
+                Language.fromMask(entry.getSubtitlesMask()).forEach(language -> ids(subtitles, language).add(id));
+                if (entry.getPrice() != null)
+                    ids(prices, CatalogIndex.bucketOf(entry.getPrice())).add(id);
+                ids(halfStars, CatalogIndex.halfStarsOf(entry.getAvgRate())).add(id);
+                CatalogIndex.suffixesOf(entry).forEach(suffix -> ids(suffixes, suffix).add(id));
+            }
+        }
+
+        private static <K> List<Integer> ids(Map<K, List<Integer>> postings, K key) {
+            return postings.computeIfAbsent(key, k -> new ArrayList<>());
+        }
+    }
+}
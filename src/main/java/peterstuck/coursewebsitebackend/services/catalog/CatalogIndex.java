@@ -0,0 +1,672 @@
+package peterstuck.coursewebsitebackend.services.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import peterstuck.coursewebsitebackend.models.course.CatalogEntry;
+import peterstuck.coursewebsitebackend.models.course.Category;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.Language;
+import peterstuck.coursewebsitebackend.models.course.PriceBucket;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFilter;
+import peterstuck.coursewebsitebackend.repositories.course.CourseSort;
+import peterstuck.coursewebsitebackend.utils.SearchKeyUtil;
+import peterstuck.coursewebsitebackend.utils.SearchQueryUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In memory inverted index of course listing criteria. Every category, language, subtitle, price bucket, half star rating
+ * and word of title maps to bitmap of ids of courses having it, so filter is intersection of few bitmaps
+ * and page is selected by rank of the last course from previous page, without querying database.
+ * Only listings ordered by id are answered, other orders and category subtrees are left to database.
+ * Writes of courses and changes of their ratings are applied after commit, periodic rebuild run by CatalogCache
+ * only repairs what was missed. When node starts from catalog cache file, bitmaps are read from the mapped file
+ * until the first rebuild.
+ */
+@Component
+public class CatalogIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogIndex.class);
+
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+    @Value("${catalog.index.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Entries entries = new HeapEntries();
+
+    /**
+     * False until the first rebuild loads all courses.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Writes applied during rebuild, replayed on rebuilt entries. Null when rebuild is not running.
+     */
+    private List<Consumer<Entries>> writesDuringRebuild;
+
+    /**
+     * @param afterId id of the last course from previous page, null for first page
+     * @param limit max number of returned ids
+     * @return page of ids in order of filter, empty when index is not loaded or filter has to be answered by database
+     */
+    public Optional<IndexPage> findPage(CourseFilter filter, Long afterId, int limit) {
+        if (!canAnswer(filter))
+            return Optional.empty();
+
+        lock.readLock().lock();
+        try {
+            CompressedBitmap matching = entries.match(filter);
+            int total = matching.cardinality();
+            int[] ids;
+            if (filter.getDirection() == Sort.Direction.ASC) {
+                int from = afterId == null ? 0 : matching.rank(toPosition(afterId));
+                ids = matching.select(from, limit);
+            } else {
+                int to = afterId == null ? total : matching.rank(toPosition(afterId) - 1);
+                int[] ascending = matching.select(Math.max(0, to - limit), Math.min(to, limit));
+                ids = new int[ascending.length];
+                for (int i = 0; i < ascending.length; i++)
+                    ids[i] = ascending[ascending.length - 1 - i];
+            }
+
+            List<Long> page = new ArrayList<>(ids.length);
+            for (int id : ids)
+                page.add((long) id);
+            return Optional.of(new IndexPage(page, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean canAnswer(CourseFilter filter) {
+        return enabled && loaded
+                && filter.getSort() == CourseSort.ID
+                && !(filter.getCategoryId() != null && filter.isIncludeDescendants());
+    }
+
+    private static int toPosition(long id) {
+        return (int) Math.max(0, Math.min(id, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Adds new course or replaces criteria of existing one. Values are read from course at once,
+     * so lazy collections are loaded within current transaction.
+     */
+    public void putCourse(Course course) {
+        if (course.getId() == null)
+            return;
+        if (course.getId() > Integer.MAX_VALUE) {
+            logger.error("Course id: " + course.getId() + " exceeds range of catalog index, listings are left to database");
+            loaded = false;
+            return;
+        }
+        if (course.getCourseFeedback() == null) {
+            removeCourse(course.getId());
+            return;
+        }
+
+        List<Integer> categoryIds = course.getCategories() == null ? new ArrayList<>() : course.getCategories().stream()
+                .map(Category::getId)
+                .collect(Collectors.toList());
+        CatalogEntry entry = new CatalogEntry(course.getId(), SearchKeyUtil.toSearchKey(course.getTitle()), course.getPrice(),
+                course.getCourseFeedback().getAvgRate(), Language.toMask(course.getLanguages()), Language.toMask(course.getSubtitles()),
+                categoryIds);
+        write(entries -> entries.put(entry));
+    }
+
+    public void removeCourse(Long id) {
+        write(entries -> entries.remove(id));
+    }
+
+    /**
+     * Moves course to bucket of new average rate, other criteria are kept.
+     */
+    public void updateRating(Long id, double avgRate) {
+        write(entries -> entries.updateRating(id, avgRate));
+    }
+
+    /**
+     * Change is applied after commit of current transaction, so rolled back writes are never listed.
+     */
+    private void write(Consumer<Entries> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<Entries> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(entries);
+            if (writesDuringRebuild != null)
+                writesDuringRebuild.add(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads criteria of all courses aside and swaps index, listings are answered by the old one in the meantime.
+     * @return false when index is disabled or loading failed
+     */
+    public boolean rebuild() {
+        return enabled && replace(() -> withCategories(courseRepository.findAllCatalogEntries(), courseRepository.findAllCategoryIds()));
+    }
+
+    /**
+     * Swaps index for one answering listings from memory mapped catalog cache file at once, without loading it.
+     * Later writes are kept in memory aside the file until the next rebuild.
+     * @return false when index is disabled
+     */
+    boolean load(CatalogFile file) {
+        if (!enabled)
+            return false;
+
+        lock.writeLock().lock();
+        try {
+            entries = new MappedEntries(file);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Reloads criteria of changed courses, courses which are no longer listed are dropped.
+     */
+    public void refresh(Collection<Long> changedIds) {
+        if (!enabled || !loaded || changedIds.isEmpty())
+            return;
+
+        List<CatalogEntry> changed = withCategories(
+                courseRepository.findCatalogEntriesByIds(changedIds), courseRepository.findCategoryIdsByCourseIds(changedIds));
+        write(entries -> {
+            changedIds.forEach(entries::remove);
+            changed.forEach(entries::put);
+        });
+    }
+
+    /**
+     * @return entries of all indexed courses
+     */
+    public List<CatalogEntry> entries() {
+        lock.readLock().lock();
+        try {
+            return entries.list();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param categoryIds pairs of course id and id of its category
+     */
+    private static List<CatalogEntry> withCategories(List<CatalogEntry> courses, List<Object[]> categoryIds) {
+        Map<Long, CatalogEntry> entriesById = new HashMap<>();
+        courses.forEach(entry -> entriesById.put(entry.getId(), entry));
+        for (Object[] row : categoryIds) {
+            CatalogEntry entry = entriesById.get(((Number) row[0]).longValue());
+            if (entry != null)
+                entry.getCategoryIds().add(((Number) row[1]).intValue());
+        }
+        return courses;
+    }
+
+    private boolean replace(Supplier<Collection<CatalogEntry>> source) {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Entries rebuilt = new HeapEntries();
+        boolean succeeded = false;
+        try {
+            source.get().forEach(rebuilt::put);
+            succeeded = true;
+        } catch (RuntimeException e) {
+            logger.error("Catalog index rebuild failed: " + e.getMessage());
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (succeeded) {
+                writesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                entries = rebuilt;
+                loaded = true;
+            }
+            writesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return succeeded;
+    }
+
+    /**
+     * Bitmaps of course ids per value of every criterion and entries of courses, which filters are matched against.
+     */
+    private abstract static class Entries {
+
+        abstract CompressedBitmap all();
+
+        abstract CompressedBitmap category(int categoryId);
+
+        abstract CompressedBitmap language(Language language);
+
+        abstract CompressedBitmap subtitle(Language language);
+
+        abstract CompressedBitmap price(PriceBucket bucket);
+
+        /**
+         * Courses by average rate rounded down to half star, 9 stands for 4.5
+         */
+        abstract Map<Integer, CompressedBitmap> halfStars();
+
+        /**
+         * Courses by every suffix of every word of title, so words containing keyword word start with it
+         * and are found in one sorted range instead of scanning all words.
+         * @return bitmaps of suffixes from inclusive to exclusive bound
+         */
+        abstract Collection<CompressedBitmap> suffixes(String from, String to);
+
+        abstract CatalogEntry entry(int id);
+
+        /**
+         * @return entries of all courses
+         */
+        abstract List<CatalogEntry> list();
+
+        abstract void put(CatalogEntry entry);
+
+        abstract void remove(Long courseId);
+
+        abstract void updateRating(Long courseId, double avgRate);
+
+        /**
+         * The most selective bitmaps are intersected first, keyword is checked last on remaining courses only.
+         */
+        CompressedBitmap match(CourseFilter filter) {
+            CompressedBitmap matching = all();
+            if (filter.getCategoryId() != null)
+                matching = matching.and(category(filter.getCategoryId()));
+            if (filter.getLanguages() != null && !filter.getLanguages().isEmpty())
+                matching = matching.and(union(filter.getLanguages(), this::language));
+            if (filter.getSubtitles() != null && !filter.getSubtitles().isEmpty())
+                matching = matching.and(union(filter.getSubtitles(), this::subtitle));
+            if (filter.getMinPrice() != null || filter.getMaxPrice() != null)
+                matching = matching.and(matchPrice(filter.getMinPrice(), filter.getMaxPrice()));
+            if (filter.getMinRating() != null)
+                matching = matching.and(matchRating(filter.getMinRating()));
+            if (filter.getKeyword() != null)
+                matching = matchKeyword(matching, SearchKeyUtil.toSearchKey(filter.getKeyword()));
+            return matching;
+        }
+
+        /**
+         * Buckets within range are taken whole, prices from buckets crossing its bounds are checked one by one.
+         */
+        private CompressedBitmap matchPrice(Double min, Double max) {
+            CompressedBitmap matching = new CompressedBitmap();
+            double lowerBound = Double.NEGATIVE_INFINITY;
+            for (PriceBucket bucket : PriceBucket.values()) {
+                CompressedBitmap inBucket = price(bucket);
+                boolean overlaps = (min == null || bucket.upperBound > min) && (max == null || lowerBound <= max);
+                boolean within = (min == null || lowerBound >= min) && (max == null || bucket.upperBound <= max);
+                if (!inBucket.isEmpty() && overlaps)
+                    matching = matching.or(within ? inBucket : inBucket.filter(id -> {
+                        double price = entry(id).getPrice();
+                        return (min == null || price >= min) && (max == null || price <= max);
+                    }));
+                lowerBound = bucket.upperBound;
+            }
+            return matching;
+        }
+
+        private CompressedBitmap matchRating(double minRating) {
+            CompressedBitmap matching = new CompressedBitmap();
+            for (Map.Entry<Integer, CompressedBitmap> stars : halfStars().entrySet()) {
+                double lowerBound = stars.getKey() / 2.0;
+                if (lowerBound >= minRating)
+                    matching = matching.or(stars.getValue());
+                else if (lowerBound + 0.5 > minRating)
+                    matching = matching.or(stars.getValue().filter(id -> entry(id).getAvgRate() >= minRating));
+            }
+            return matching;
+        }
+
+        /**
+         * Keyword matches part of title, also across words. Courses having words containing every word of keyword
+         * are found in bitmaps of suffixes starting with it and then checked against whole keyword.
+         */
+        private CompressedBitmap matchKeyword(CompressedBitmap candidates, String keyword) {
+            CompressedBitmap matching = candidates;
+            for (String keywordWord : SearchQueryUtil.words(keyword)) {
+                CompressedBitmap withWord = new CompressedBitmap();
+                for (CompressedBitmap withSuffix : suffixes(keywordWord, keywordWord + Character.MAX_VALUE))
+                    withWord = withWord.or(withSuffix.and(matching));
+                matching = withWord;
+            }
+            return matching.filter(id -> {
+                String titleKey = entry(id).getTitleKey();
+                return titleKey != null && titleKey.contains(keyword);
+            });
+        }
+
+        private static CompressedBitmap union(Collection<Language> languages, Function<Language, CompressedBitmap> bitmaps) {
+            CompressedBitmap union = new CompressedBitmap();
+            for (Language language : languages)
+                union = union.or(bitmaps.apply(language));
+            return union;
+        }
+    }
+
+    /**
+     * Bitmaps and entries held in memory, changed in place.
+     */
+    private static class HeapEntries extends Entries {
+
+        private final CompressedBitmap all = new CompressedBitmap();
+
+        private final Map<Integer, CatalogEntry> courses = new HashMap<>();
+
+        private final Map<Integer, CompressedBitmap> categories = new HashMap<>();
+
+        private final Map<Language, CompressedBitmap> languages = new EnumMap<>(Language.class);
+
+        private final Map<Language, CompressedBitmap> subtitles = new EnumMap<>(Language.class);
+
+        private final Map<PriceBucket, CompressedBitmap> prices = new EnumMap<>(PriceBucket.class);
+
+        private final Map<Integer, CompressedBitmap> halfStars = new HashMap<>();
+
+        private final NavigableMap<String, CompressedBitmap> suffixes = new TreeMap<>();
+
+        @Override
+        CompressedBitmap all() {
+            return all;
+        }
+
+        @Override
+        CompressedBitmap category(int categoryId) {
+            return categories.getOrDefault(categoryId, EMPTY);
+        }
+
+        @Override
+        CompressedBitmap language(Language language) {
+            return languages.getOrDefault(language, EMPTY);
+        }
+
+        @Override
+        CompressedBitmap subtitle(Language language) {
+            return subtitles.getOrDefault(language, EMPTY);
+        }
+
+        @Override
+        CompressedBitmap price(PriceBucket bucket) {
+            return prices.getOrDefault(bucket, EMPTY);
+        }
+
+        @Override
+        Map<Integer, CompressedBitmap> halfStars() {
+            return halfStars;
+        }
+
+        @Override
+        Collection<CompressedBitmap> suffixes(String from, String to) {
+            return suffixes.subMap(from, true, to, false).values();
+        }
+
+        @Override
+        CatalogEntry entry(int id) {
+            return courses.get(id);
+        }
+
+        @Override
+        List<CatalogEntry> list() {
+            return new ArrayList<>(courses.values());
+        }
+
+        /**
+         * Ids which do not fit bitmap are never listed from index, so index is not loaded with them.
+         */
+        @Override
+        void put(CatalogEntry entry) {
+            if (entry.getId() > Integer.MAX_VALUE)
+                throw new IllegalStateException("Course id: " + entry.getId() + " exceeds range of catalog index");
+
+            int id = entry.getId().intValue();
+            remove(entry.getId());
+            courses.put(id, entry);
+            all.add(id);
+            entry.getCategoryIds().forEach(categoryId -> bitmap(categories, categoryId).add(id));
+            Language.fromMask(entry.getLanguagesMask()).forEach(language -> bitmap(languages, language).add(id));
+            Language.fromMask(entry.getSubtitlesMask()).forEach(language -> bitmap(subtitles, language).add(id));
+            if (entry.getPrice() != null)
+                bitmap(prices, bucketOf(entry.getPrice())).add(id);
+            bitmap(halfStars, halfStarsOf(entry.getAvgRate())).add(id);
+            suffixesOf(entry).forEach(suffix -> bitmap(suffixes, suffix).add(id));
+        }
+
+        @Override
+        void remove(Long courseId) {
+            if (courseId > Integer.MAX_VALUE)
+                return;
+
+            int id = courseId.intValue();
+            CatalogEntry old = courses.remove(id);
+            if (old == null)
+                return;
+
+            all.remove(id);
+            old.getCategoryIds().forEach(categoryId -> unmark(categories, categoryId, id));
+            Language.fromMask(old.getLanguagesMask()).forEach(language -> unmark(languages, language, id));
+            Language.fromMask(old.getSubtitlesMask()).forEach(language -> unmark(subtitles, language, id));
+            if (old.getPrice() != null)
+                unmark(prices, bucketOf(old.getPrice()), id);
+            unmark(halfStars, halfStarsOf(old.getAvgRate()), id);
+            suffixesOf(old).forEach(suffix -> unmark(suffixes, suffix, id));
+        }
+
+        @Override
+        void updateRating(Long courseId, double avgRate) {
+            if (courseId > Integer.MAX_VALUE)
+                return;
+
+            int id = courseId.intValue();
+            CatalogEntry old = courses.get(id);
+            if (old == null)
+                return;
+
+            courses.put(id, old.withAvgRate(avgRate));
+            if (halfStarsOf(old.getAvgRate()) != halfStarsOf(avgRate)) {
+                unmark(halfStars, halfStarsOf(old.getAvgRate()), id);
+                bitmap(halfStars, halfStarsOf(avgRate)).add(id);
+            }
+        }
+
+        private static <K> CompressedBitmap bitmap(Map<K, CompressedBitmap> bitmaps, K key) {
+            return bitmaps.computeIfAbsent(key, k -> new CompressedBitmap());
+        }
+
+        private static <K> void unmark(Map<K, CompressedBitmap> bitmaps, K key, int id) {
+            CompressedBitmap bitmap = bitmaps.get(key);
+            if (bitmap == null)
+                return;
+
+            bitmap.remove(id);
+            if (bitmap.isEmpty())
+                bitmaps.remove(key);
+        }
+    }
+
+    /**
+     * Bitmaps and entries read from memory mapped catalog cache file, which is never changed.
+     * Courses written since file was mapped are superseded by their entries in memory,
+     * so filter is matched against file without superseded courses and against entries in memory.
+     */
+    private static class MappedEntries extends Entries {
+
+        private final CatalogFile file;
+
+        private final HeapEntries written = new HeapEntries();
+
+        /**
+         * Courses which entries in file are no longer valid, they are either in written entries or removed
+         */
+        private final CompressedBitmap superseded = new CompressedBitmap();
+
+        private MappedEntries(CatalogFile file) {
+            this.file = file;
+        }
+
+        @Override
+        CompressedBitmap all() {
+            return file.all();
+        }
+
+        @Override
+        CompressedBitmap category(int categoryId) {
+            return file.category(categoryId);
+        }
+
+        @Override
+        CompressedBitmap language(Language language) {
+            return file.language(language);
+        }
+
+        @Override
+        CompressedBitmap subtitle(Language language) {
+            return file.subtitle(language);
+        }
+
+        @Override
+        CompressedBitmap price(PriceBucket bucket) {
+            return file.price(bucket);
+        }
+
+        @Override
+        Map<Integer, CompressedBitmap> halfStars() {
+            return file.halfStars();
+        }
+
+        @Override
+        Collection<CompressedBitmap> suffixes(String from, String to) {
+            return file.suffixes(from, to);
+        }
+
+        @Override
+        CatalogEntry entry(int id) {
+            return file.findEntry(id);
+        }
+
+        @Override
+        List<CatalogEntry> list() {
+            List<CatalogEntry> entries = file.entries().stream()
+                    .filter(entry -> !superseded.contains(entry.getId().intValue()))
+                    .collect(Collectors.toList());
+            entries.addAll(written.list());
+            return entries;
+        }
+
+        @Override
+        CompressedBitmap match(CourseFilter filter) {
+            CompressedBitmap matching = super.match(filter);
+            if (!superseded.isEmpty())
+                matching = matching.filter(id -> !superseded.contains(id)).or(written.match(filter));
+            return matching;
+        }
+
+        @Override
+        void put(CatalogEntry entry) {
+            written.put(entry);
+            superseded.add(entry.getId().intValue());
+        }
+
+        @Override
+        void remove(Long courseId) {
+            if (courseId > Integer.MAX_VALUE)
+                return;
+
+            written.remove(courseId);
+            superseded.add(courseId.intValue());
+        }
+
+        /**
+         * Course which is only in file is copied to written entries with new rate.
+         */
+        @Override
+        void updateRating(Long courseId, double avgRate) {
+            if (courseId > Integer.MAX_VALUE)
+                return;
+
+            if (superseded.contains(courseId.intValue())) {
+                written.updateRating(courseId, avgRate);
+                return;
+            }
+            CatalogEntry old = file.findEntry(courseId);
+            if (old != null)
+                put(old.withAvgRate(avgRate));
+        }
+    }
+
+    static PriceBucket bucketOf(double price) {
+        for (PriceBucket bucket : PriceBucket.values()) {
+            if (price < bucket.upperBound)
+                return bucket;
+        }
+        return PriceBucket.FROM_200;
+    }
+
+    static int halfStarsOf(double rate) {
+        return (int) Math.floor(rate * 2);
+    }
+
+    static Set<String> suffixesOf(CatalogEntry entry) {
+        Set<String> suffixes = new HashSet<>();
+        if (entry.getTitleKey() != null) {
+            for (String word : SearchQueryUtil.words(entry.getTitleKey())) {
+                for (int i = 0; i < word.length(); i++)
+                    suffixes.add(word.substring(i));
+            }
+        }
+        return suffixes;
+    }
+}
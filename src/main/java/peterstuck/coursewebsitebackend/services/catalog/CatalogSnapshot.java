@@ -0,0 +1,269 @@
+package peterstuck.coursewebsitebackend.services.catalog;
+
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.models.course.CourseRating;
+import peterstuck.coursewebsitebackend.models.course.Language;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable cards of listed courses stored column by column in primitive arrays ordered by id.
+ * Whole catalog takes few arrays instead of object graph per course, equal texts of different courses are stored once.
+ * Every change returns new snapshot, so readers need no locks. Changes are applied in batches,
+ * columns are copied once per batch and only rating columns when nothing else has changed.
+ */
+final class CatalogSnapshot {
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, new ConcurrentHashMap<>());
+
+    /**
+     * Stored in place of null price
+     */
+    private static final double NO_PRICE = Double.NaN;
+
+    /**
+     * Stored in place of null last update
+     */
+    private static final long NO_LAST_UPDATE = Long.MIN_VALUE;
+
+    private final long[] ids;
+
+    private final String[] titles;
+
+    private final double[] prices;
+
+    private final long[] lastUpdates;
+
+    private final String[] shortDescriptions;
+
+    private final long[] feedbackIds;
+
+    private final double[] avgRates;
+
+    private final int[] ratesCounts;
+
+    private final int[] languagesMasks;
+
+    private final String[][] authors;
+
+    /**
+     * Pool of titles, short descriptions and authors shared by all snapshots changed from one full load,
+     * so texts loaded again with every change of course are not duplicated. Readers never use it.
+     * Texts of removed courses stay in it until the next full load. Concurrent, as EMPTY snapshot is shared.
+     */
+    private final Map<String, String> texts;
+
+    private CatalogSnapshot(int size, Map<String, String> texts) {
+        ids = new long[size];
+        titles = new String[size];
+        prices = new double[size];
+        lastUpdates = new long[size];
+        shortDescriptions = new String[size];
+        feedbackIds = new long[size];
+        avgRates = new double[size];
+        ratesCounts = new int[size];
+        languagesMasks = new int[size];
+        authors = new String[size][];
+        this.texts = texts;
+    }
+
+    /**
+     * Shares all columns of source except rating ones.
+     */
+    private CatalogSnapshot(CatalogSnapshot source, double[] avgRates, int[] ratesCounts) {
+        ids = source.ids;
+        titles = source.titles;
+        prices = source.prices;
+        lastUpdates = source.lastUpdates;
+        shortDescriptions = source.shortDescriptions;
+        feedbackIds = source.feedbackIds;
+        this.avgRates = avgRates;
+        this.ratesCounts = ratesCounts;
+        languagesMasks = source.languagesMasks;
+        authors = source.authors;
+        texts = source.texts;
+    }
+
+    static CatalogSnapshot of(Collection<CourseCard> cards) {
+        Map<Long, CourseCard> cardsById = new TreeMap<>();
+        cards.forEach(card -> cardsById.put(card.getId(), card));
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(cardsById.size(), new ConcurrentHashMap<>());
+        int position = 0;
+        for (CourseCard card : cardsById.values())
+            snapshot.set(position++, card);
+        return snapshot;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return new cards of all courses ordered by id
+     */
+    List<CourseCard> cards() {
+        List<CourseCard> cards = new ArrayList<>(size());
+        for (int position = 0; position < size(); position++)
+            cards.add(card(position));
+        return cards;
+    }
+
+    /**
+     * @return new card of course with given id, null when course is not listed
+     */
+    CourseCard find(long id) {
+        int position = Arrays.binarySearch(ids, id);
+        return position >= 0 ? card(position) : null;
+    }
+
+    /**
+     * @return snapshot with all changes applied, this one when there is nothing to change
+     */
+    CatalogSnapshot apply(Changes changes) {
+        if (changes.isEmpty())
+            return this;
+        if (changes.onlyRatings())
+            return withRatings(changes.ratings);
+
+        Map<Long, CourseCard> puts = new TreeMap<>(changes.puts);
+        int size = 0;
+        for (long id : ids) {
+            if (changes.keeps(id) && !puts.containsKey(id))
+                size++;
+        }
+        CatalogSnapshot changed = new CatalogSnapshot(size + puts.size(), texts);
+
+        int position = 0;
+        int target = 0;
+        for (CourseCard put : puts.values()) {
+            for (; position < size() && ids[position] < put.getId(); position++) {
+                if (changes.keeps(ids[position]))
+                    changed.copy(target++, this, position);
+            }
+            if (position < size() && ids[position] == put.getId())
+                position++;
+            changed.set(target++, put);
+        }
+        for (; position < size(); position++) {
+            if (changes.keeps(ids[position]))
+                changed.copy(target++, this, position);
+        }
+
+        changes.ratings.values().forEach(changed::setRating);
+        return changed;
+    }
+
+    /**
+     * Ratings of courses which are not listed are skipped.
+     */
+    private CatalogSnapshot withRatings(Map<Long, CourseRating> ratings) {
+        CatalogSnapshot changed = new CatalogSnapshot(this, avgRates.clone(), ratesCounts.clone());
+        ratings.values().forEach(changed::setRating);
+        return changed;
+    }
+
+    private CourseCard card(int position) {
+        CourseCard card = new CourseCard(ids[position], titles[position],
+                Double.isNaN(prices[position]) ? null : prices[position],
+                lastUpdates[position] == NO_LAST_UPDATE ? null : lastUpdates[position],
+                shortDescriptions[position], feedbackIds[position], avgRates[position], ratesCounts[position],
+                languagesMasks[position], null);
+        card.getAuthors().addAll(Arrays.asList(authors[position]));
+        return card;
+    }
+
+    /**
+     * Setters are used only while snapshot is being created, before it is published.
+     */
+    private void set(int position, CourseCard card) {
+        ids[position] = card.getId();
+        titles[position] = pooled(card.getTitle());
+        prices[position] = card.getPrice() == null ? NO_PRICE : card.getPrice();
+        lastUpdates[position] = card.getLastUpdate() == null ? NO_LAST_UPDATE : card.getLastUpdate();
+        shortDescriptions[position] = pooled(card.getShortDescription());
+        feedbackIds[position] = card.getFeedbackId() == null ? 0 : card.getFeedbackId();
+        avgRates[position] = card.getAvgRate();
+        ratesCounts[position] = card.getRatesCount();
+        languagesMasks[position] = Language.toMask(card.getLanguages());
+        authors[position] = card.getAuthors().stream().map(this::pooled).toArray(String[]::new);
+    }
+
+    private String pooled(String text) {
+        if (text == null)
+            return null;
+
+        String pooled = texts.putIfAbsent(text, text);
+        return pooled == null ? text : pooled;
+    }
+
+    private void copy(int position, CatalogSnapshot source, int sourcePosition) {
+        ids[position] = source.ids[sourcePosition];
+        titles[position] = source.titles[sourcePosition];
+        prices[position] = source.prices[sourcePosition];
+        lastUpdates[position] = source.lastUpdates[sourcePosition];
+        shortDescriptions[position] = source.shortDescriptions[sourcePosition];
+        feedbackIds[position] = source.feedbackIds[sourcePosition];
+        avgRates[position] = source.avgRates[sourcePosition];
+        ratesCounts[position] = source.ratesCounts[sourcePosition];
+        languagesMasks[position] = source.languagesMasks[sourcePosition];
+        authors[position] = source.authors[sourcePosition];
+    }
+
+    private void setRating(CourseRating rating) {
+        int position = Arrays.binarySearch(ids, rating.getCourseId());
+        if (position >= 0) {
+            avgRates[position] = rating.getAvgRate();
+            ratesCounts[position] = rating.getRatesCount();
+        }
+    }
+
+    /**
+     * Writes collected to be applied together, the later write of course wins. Not thread safe.
+     */
+    static final class Changes {
+
+        private final Map<Long, CourseCard> puts = new HashMap<>();
+
+        private final Set<Long> removals = new HashSet<>();
+
+        private final Map<Long, CourseRating> ratings = new HashMap<>();
+
+        void put(CourseCard card) {
+            removals.remove(card.getId());
+            ratings.remove(card.getId());
+            puts.put(card.getId(), card);
+        }
+
+        void remove(Long id) {
+            puts.remove(id);
+            ratings.remove(id);
+            removals.add(id);
+        }
+
+        void updateRating(CourseRating rating) {
+            ratings.put(rating.getCourseId(), rating);
+        }
+
+        private boolean keeps(long id) {
+            return !removals.contains(id);
+        }
+
+        private boolean isEmpty() {
+            return puts.isEmpty() && removals.isEmpty() && ratings.isEmpty();
+        }
+
+        private boolean onlyRatings() {
+            return puts.isEmpty() && removals.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package peterstuck.coursewebsitebackend.services.catalog;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Set of non negative ints split by upper 16 bits into containers, as in roaring bitmaps.
+ * Sparse container keeps sorted array of lower 16 bits, dense one keeps 2^16 bits, so set costs at most 2 bytes per value
+ * and intersection works on whole containers. Results of and, or and filter are new bitmaps. Not thread safe.
+ */
+class CompressedBitmap {
+
+    /**
+     * Containers with more values are kept as bits, as array would take more than 8 kB then.
+     */
+    private static final int ARRAY_LIMIT = 4096;
+
+    private static final int WORDS = 1 << 10;
+
+    private char[] keys = new char[0];
+
+    private Container[] containers = new Container[0];
+
+    private int size;
+
+    void add(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new Container());
+        }
+        containers[index].add((char) value);
+    }
+
+    void remove(int value) {
+        if (value < 0)
+            return;
+
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (index < 0)
+            return;
+
+        containers[index].remove((char) value);
+        if (containers[index].cardinality == 0)
+            removeContainer(index);
+    }
+
+    boolean contains(int value) {
+        if (value < 0)
+            return false;
+
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++)
+            cardinality += containers[i].cardinality;
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of values lower or equal to given one
+     */
+    int rank(int value) {
+        if (value < 0)
+            return 0;
+
+        char key = (char) (value >>> 16);
+        int rank = 0;
+        for (int i = 0; i < size && keys[i] <= key; i++)
+            rank += keys[i] < key ? containers[i].cardinality : containers[i].rank((char) value);
+        return rank;
+    }
+
+    /**
+     * @return at most count values in ascending order, starting from value with given rank (0 for the lowest one)
+     */
+    int[] select(int fromRank, int count) {
+        int[] selected = new int[Math.max(0, Math.min(count, cardinality() - Math.max(fromRank, 0)))];
+        int skip = Math.max(fromRank, 0);
+        int taken = 0;
+        for (int i = 0; i < size && taken < selected.length; i++) {
+            Container container = containers[i];
+            if (skip >= container.cardinality) {
+                skip -= container.cardinality;
+                continue;
+            }
+            int high = keys[i] << 16;
+            for (int j = skip; j < container.cardinality && taken < selected.length; j++)
+                selected[taken++] = high | container.select(j);
+            skip = 0;
+        }
+        return selected;
+    }
+
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            containers[i].forEach(low -> action.accept(high | low));
+        }
+    }
+
+    CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality > 0)
+                    result.insertContainer(result.size, keys[i], container);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || i < size && keys[i] < other.keys[j]) {
+                result.insertContainer(result.size, keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.insertContainer(result.size, other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.insertContainer(result.size, keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return values matching condition
+     */
+    CompressedBitmap filter(IntPredicate condition) {
+        CompressedBitmap result = new CompressedBitmap();
+        forEach(value -> {
+            if (condition.test(value))
+                result.add(value);
+        });
+        return result;
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(4, size * 2));
+            containers = Arrays.copyOf(containers, keys.length);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0)
+            throw new IllegalArgumentException("Bitmap keeps only non negative values, got: " + value);
+    }
+
+    /**
+     * Lower 16 bits of values sharing upper ones, in sorted array or in bits.
+     */
+    private static class Container {
+
+        private char[] values = new char[4];
+
+        private long[] words;
+
+        private int cardinality;
+
+        private boolean contains(char value) {
+            return words != null
+                    ? (words[value >>> 6] & (1L << value)) != 0
+                    : Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        private void add(char value) {
+            if (words != null) {
+                if ((words[value >>> 6] & (1L << value)) == 0) {
+                    words[value >>> 6] |= 1L << value;
+                    cardinality++;
+                }
+                return;
+            }
+
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0)
+                return;
+
+            index = -index - 1;
+            if (cardinality == values.length)
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_LIMIT + 1));
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            if (cardinality > ARRAY_LIMIT)
+                toWords();
+        }
+
+        private void remove(char value) {
+            if (words != null) {
+                if ((words[value >>> 6] & (1L << value)) != 0) {
+                    words[value >>> 6] &= ~(1L << value);
+                    cardinality--;
+                    if (cardinality <= ARRAY_LIMIT)
+                        toValues();
+                }
+                return;
+            }
+
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index < 0)
+                return;
+
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+        }
+
+        private int rank(char value) {
+            if (words == null) {
+                int index = Arrays.binarySearch(values, 0, cardinality, value);
+                return index >= 0 ? index + 1 : -index - 1;
+            }
+
+            int rank = 0;
+            for (int i = 0; i < value >>> 6; i++)
+                rank += Long.bitCount(words[i]);
+            return rank + Long.bitCount(words[value >>> 6] & (-1L >>> (63 - (value & 63))));
+        }
+
+        private int select(int rank) {
+            if (words == null)
+                return values[rank];
+
+            for (int i = 0; i < WORDS; i++) {
+                int count = Long.bitCount(words[i]);
+                if (rank < count) {
+                    long word = words[i];
+                    for (int j = 0; j < rank; j++)
+                        word &= word - 1;
+                    return i * 64 + Long.numberOfTrailingZeros(word);
+                }
+                rank -= count;
+            }
+            throw new IndexOutOfBoundsException("Rank: " + rank + " exceeds cardinality: " + cardinality);
+        }
+
+        private void forEach(IntConsumer action) {
+            if (words == null) {
+                for (int i = 0; i < cardinality; i++)
+                    action.accept(values[i]);
+                return;
+            }
+
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private Container and(Container other) {
+            if (words != null && other.words != null) {
+                long[] result = new long[WORDS];
+                for (int i = 0; i < WORDS; i++)
+                    result[i] = words[i] & other.words[i];
+                return fromWords(result);
+            }
+
+            Container sparse = words == null ? this : other;
+            Container probed = sparse == this ? other : this;
+            Container result = new Container();
+            result.values = new char[Math.max(sparse.cardinality, 1)];
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (probed.contains(sparse.values[i]))
+                    result.values[result.cardinality++] = sparse.values[i];
+            }
+            return result;
+        }
+
+        private Container or(Container other) {
+            if (words == null && other.words == null && cardinality + other.cardinality <= ARRAY_LIMIT) {
+                Container result = new Container();
+                result.values = new char[Math.max(cardinality + other.cardinality, 1)];
+                int i = 0;
+                int j = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    char next;
+                    if (j >= other.cardinality || i < cardinality && values[i] < other.values[j])
+                        next = values[i++];
+                    else if (i >= cardinality || values[i] > other.values[j])
+                        next = other.values[j++];
+                    else {
+                        next = values[i++];
+                        j++;
+                    }
+                    result.values[result.cardinality++] = next;
+                }
+                return result;
+            }
+
+            long[] result = new long[WORDS];
+            forEach(value -> result[value >>> 6] |= 1L << value);
+            other.forEach(value -> result[value >>> 6] |= 1L << value);
+            return fromWords(result);
+        }
+
+        private Container copy() {
+            Container copy = new Container();
+            copy.values = values == null ? null : Arrays.copyOf(values, Math.max(cardinality, 1));
+            copy.words = words == null ? null : words.clone();
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        private static Container fromWords(long[] words) {
+            Container container = new Container();
+            container.words = words;
+            container.values = null;
+            for (long word : words)
+                container.cardinality += Long.bitCount(word);
+            if (container.cardinality <= ARRAY_LIMIT)
+                container.toValues();
+            return container;
+        }
+
+        private void toWords() {
+            long[] bits = new long[WORDS];
+            for (int i = 0; i < cardinality; i++)
+                bits[values[i] >>> 6] |= 1L << values[i];
+            words = bits;
+            values = null;
+        }
+
+        private void toValues() {
+            char[] sorted = new char[Math.max(cardinality, 4)];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    sorted[count++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            values = sorted;
+            words = null;
+        }
+    }
+}
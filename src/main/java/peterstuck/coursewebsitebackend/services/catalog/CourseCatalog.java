@@ -0,0 +1,216 @@
+package peterstuck.coursewebsitebackend.services.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.models.course.CourseRating;
+import peterstuck.coursewebsitebackend.models.course.Language;
+import peterstuck.coursewebsitebackend.models.user.User;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Cards of all listed courses held in memory as immutable snapshot, so listings answered by catalog index
+ * need neither database nor Hibernate entities. Writes of courses and changes of their ratings replace snapshot
+ * by changed copy after commit, writes committed at once are coalesced into one copy.
+ */
+@Component
+public class CourseCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseCatalog.class);
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+
+    /**
+     * Memory mapped catalog cache file cards are read from until the first write copies them to snapshot,
+     * null when cards are in snapshot. Readers read it before snapshot and writers clear it after snapshot is written,
+     * so reader which finds it cleared reads the new snapshot.
+     */
+    private volatile CatalogFile file;
+
+    /**
+     * False until the first rebuild loads all courses.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Writes applied during rebuild, replayed on rebuilt snapshot. Null when rebuild is not running.
+     */
+    private List<CatalogSnapshot.Changes> writesDuringRebuild;
+
+    /**
+     * Committed writes waiting for the next copy of snapshot
+     */
+    private final Queue<Consumer<CatalogSnapshot.Changes>> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @return new cards in order of ids, empty when catalog is not loaded or any of courses is missing in it
+     */
+    public Optional<List<CourseCard>> findCards(List<Long> ids) {
+        if (!loaded)
+            return Optional.empty();
+
+        CatalogFile mapped = file;
+        CatalogSnapshot current = snapshot;
+        List<CourseCard> cards = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            CourseCard card = mapped != null ? mapped.findCard(id) : current.find(id);
+            if (card == null)
+                return Optional.empty();
+            cards.add(card);
+        }
+        return Optional.of(cards);
+    }
+
+    /**
+     * Adds card of new course or replaces card of existing one. Card is created at once,
+     * so lazy description, feedback and authors are loaded within current transaction.
+     */
+    public void putCourse(Course course) {
+        if (course.getId() == null)
+            return;
+        if (course.getCourseFeedback() == null) {
+            removeCourse(course.getId());
+            return;
+        }
+
+        CourseCard card = new CourseCard(course.getId(), course.getTitle(), course.getPrice(), course.getLastUpdate(),
+                course.getCourseDescription() == null ? null : course.getCourseDescription().getShortDescription(),
+                course.getCourseFeedback().getId(), course.getCourseFeedback().getAvgRate(), course.getCourseFeedback().getRatesCount(),
+                Language.toMask(course.getLanguages()), null);
+        if (course.getAuthors() != null)
+            course.getAuthors().stream()
+                    .sorted(Comparator.comparing(User::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                    .forEach(author -> card.getAuthors().add(author.getFirstName() + " " + author.getLastName()));
+        write(changes -> changes.put(card));
+    }
+
+    public void removeCourse(Long id) {
+        write(changes -> changes.remove(id));
+    }
+
+    /**
+     * Replaces average rate and number of rates on card of course, other values are kept.
+     */
+    public void updateRating(CourseRating rating) {
+        write(changes -> changes.updateRating(rating));
+    }
+
+    /**
+     * Change is applied after commit of current transaction, so rolled back writes are never listed.
+     */
+    private void write(Consumer<CatalogSnapshot.Changes> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    /**
+     * Writers are serialized, readers keep using the snapshot they have read until they finish.
+     * Writer which gets the lock applies also writes queued by writers waiting for it, so under load snapshot
+     * is copied once per group of commits. Every write is published before its writer returns.
+     * The first write after catalog cache file was loaded copies cards from file, readers use file in the meantime.
+     */
+    private void apply(Consumer<CatalogSnapshot.Changes> change) {
+        pending.add(change);
+        synchronized (this) {
+            if (pending.isEmpty())
+                return;
+
+            CatalogSnapshot.Changes changes = new CatalogSnapshot.Changes();
+            for (Consumer<CatalogSnapshot.Changes> next = pending.poll(); next != null; next = pending.poll())
+                next.accept(changes);
+            snapshot = (file != null ? CatalogSnapshot.of(file.cards()) : snapshot).apply(changes);
+            file = null;
+            if (writesDuringRebuild != null)
+                writesDuringRebuild.add(changes);
+        }
+    }
+
+    /**
+     * Loads cards of all courses aside and swaps snapshot, listings are answered by the old one in the meantime.
+     * @return false when loading failed
+     */
+    public boolean rebuild() {
+        return replace(() -> courseRepository.findAllCards());
+    }
+
+    /**
+     * Swaps snapshot for memory mapped catalog cache file, cards are read from it at once without loading it.
+     */
+    synchronized void load(CatalogFile cached) {
+        file = cached;
+        loaded = true;
+    }
+
+    /**
+     * Reloads cards of changed courses, courses which are no longer listed are dropped.
+     */
+    public void refresh(Collection<Long> changedIds) {
+        if (!loaded || changedIds.isEmpty())
+            return;
+
+        List<CourseCard> changed = courseRepository.findCardsByIds(new ArrayList<>(changedIds));
+        write(changes -> {
+            changedIds.forEach(changes::remove);
+            changed.forEach(changes::put);
+        });
+    }
+
+    /**
+     * @return cards of all courses in catalog ordered by id
+     */
+    public List<CourseCard> cards() {
+        CatalogFile mapped = file;
+        return mapped != null ? mapped.cards() : snapshot.cards();
+    }
+
+    private boolean replace(Supplier<Collection<CourseCard>> source) {
+        synchronized (this) {
+            writesDuringRebuild = new ArrayList<>();
+        }
+
+        CatalogSnapshot rebuilt = null;
+        try {
+            rebuilt = CatalogSnapshot.of(source.get());
+        } catch (RuntimeException e) {
+            logger.error("Course catalog rebuild failed: " + e.getMessage());
+        }
+
+        synchronized (this) {
+            if (rebuilt != null) {
+                for (CatalogSnapshot.Changes changes : writesDuringRebuild)
+                    rebuilt = rebuilt.apply(changes);
+                snapshot = rebuilt;
+                file = null;
+                loaded = true;
+            }
+            writesDuringRebuild = null;
+        }
+        return rebuilt != null;
+    }
+}
@@ -0,0 +1,25 @@
+package peterstuck.coursewebsitebackend.services.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Ids of courses from page of listing answered by catalog index.
+ */
+@Getter
+@AllArgsConstructor
+public class IndexPage {
+
+    /**
+     * Ids in listing order
+     */
+    private final List<Long> ids;
+
+    /**
+     * Exact number of all courses matching filter
+     */
+    private final int total;
+
+}
@@ -1,6 +1,7 @@
 package peterstuck.coursewebsitebackend.services.category;
 
 import peterstuck.coursewebsitebackend.exceptions.CategoryNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCategoryParentException;
 import peterstuck.coursewebsitebackend.models.course.Category;
 
 import java.util.*;
@@ -14,10 +15,20 @@ public interface CategoryService {
 
     List<Category> getChildCategories(int parentCategoryId);
 
+    /**
+     * Also sets materialized path of category based on its parent.
+     */
     Category save(Category category);
 
-    Category update(int categoryId, Category updated) throws CategoryNotFoundException;
+    /**
+     * When parent category was changed, paths of whole subtree are moved with it.
+     * @throws InvalidCategoryParentException when category would become its own descendant
+     */
+    Category update(int categoryId, Category updated) throws CategoryNotFoundException, InvalidCategoryParentException;
 
+    /**
+     * Child categories of deleted category are moved to its parent.
+     */
     void delete(int categoryId) throws CategoryNotFoundException;
 
 }
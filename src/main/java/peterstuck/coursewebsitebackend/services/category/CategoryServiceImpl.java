@@ -4,57 +4,99 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import peterstuck.coursewebsitebackend.exceptions.CategoryNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCategoryParentException;
 import peterstuck.coursewebsitebackend.models.course.Category;
 import peterstuck.coursewebsitebackend.repositories.CategoryRepository;
+import peterstuck.coursewebsitebackend.services.suggestion.SuggestionIndex;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static peterstuck.coursewebsitebackend.utils.ObjectUpdater.updateCategory;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final String PATH_SEPARATOR = "/";
+
     @Autowired
     private CategoryRepository repository;
 
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
     @Override
     @Transactional
     public List<Category> getMainCategories() {
-        return repository.findAll().stream()
-                .filter(category -> category.getParentCategoryId() == 0)
-                .collect(Collectors.toList());
+        return repository.findByParentCategoryIdOrderByNameSortKeyAscIdAsc(0);
     }
 
     @Override
     @Transactional
     public List<Category> getChildCategories(int parentCategoryId) {
-        return repository.findAll().stream()
-                .filter(category -> category.getParentCategoryId() == parentCategoryId)
-                .collect(Collectors.toList());
+        return repository.findByParentCategoryIdOrderByNameSortKeyAscIdAsc(parentCategoryId);
     }
 
     @Override
     @Transactional
     public Category save(Category category) {
-        return repository.save(category);
+        Category saved = repository.save(category);
+        saved.setPath(createPath(saved.getParentCategoryId(), saved.getId()));
+        suggestionIndex.putCategory((long) saved.getId(), saved.getName());
+
+        return saved;
     }
 
     @Override
     @Transactional
-    public Category update(int categoryId, Category updated) throws CategoryNotFoundException {
+    public Category update(int categoryId, Category updated) throws CategoryNotFoundException, InvalidCategoryParentException {
         Category category = getCategoryOrThrowException(categoryId);
+        if (category.getPath() != null && category.getParentCategoryId() != updated.getParentCategoryId())
+            moveSubtree(category, updated.getParentCategoryId());
+
         updateCategory(category, updated);
-        save(category);
+        repository.save(category);
+        suggestionIndex.putCategory((long) categoryId, category.getName());
 
         return category;
     }
 
+    /**
+     * Updates only paths of moved subtree, rest of hierarchy stays untouched.
+     */
+    private void moveSubtree(Category category, int newParentCategoryId) throws InvalidCategoryParentException {
+        String oldPath = category.getPath();
+        String newPath = createPath(newParentCategoryId, category.getId());
+        if (newPath.startsWith(oldPath))
+            throw new InvalidCategoryParentException("Category with id: " + category.getId() + " cannot be moved to its own subcategory.");
+
+        repository.replacePathPrefix(oldPath, newPath);
+        category.setPath(newPath);
+    }
+
     @Override
     @Transactional
     public void delete(int categoryId) throws CategoryNotFoundException {
         Category category = getCategoryOrThrowException(categoryId);
+
+        repository.updateParentCategoryId(categoryId, category.getParentCategoryId());
+        if (category.getPath() != null)
+            repository.replacePathPrefix(category.getPath(), getPath(category.getParentCategoryId()));
+
         repository.delete(category);
+        suggestionIndex.removeCategory((long) categoryId);
+    }
+
+    private String createPath(int parentCategoryId, int categoryId) {
+        return getPath(parentCategoryId) + categoryId + PATH_SEPARATOR;
+    }
+
+    /**
+     * Main categories and categories with not existing parent are placed in hierarchy root.
+     */
+    private String getPath(int categoryId) {
+        return repository.findById(categoryId)
+                .map(Category::getPath)
+                .orElse(PATH_SEPARATOR);
     }
 
     private Category getCategoryOrThrowException(int categoryId) throws CategoryNotFoundException {
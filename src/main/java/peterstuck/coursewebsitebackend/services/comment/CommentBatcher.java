@@ -0,0 +1,198 @@
+package peterstuck.coursewebsitebackend.services.comment;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import peterstuck.coursewebsitebackend.exceptions.CourseNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.ServiceOverloadedException;
+import peterstuck.coursewebsitebackend.exceptions.UserNotExistsException;
+import peterstuck.coursewebsitebackend.models.course.Comment;
+import peterstuck.coursewebsitebackend.models.course.CourseFeedback;
+import peterstuck.coursewebsitebackend.models.user.UserActivity;
+import peterstuck.coursewebsitebackend.repositories.CommentRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseFeedbackRepository;
+import peterstuck.coursewebsitebackend.repositories.user.UserRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Writes submitted comments in micro-batches from a single thread. Everything submitted while previous batch
+ * was written goes into the next one, so under load each batch is one transaction with one aggregate update per course,
+ * and concurrent submissions for the same course never wait for each other on the feedback row lock.
+ * Courses and authors are resolved here too, so waiting request threads do not hold database connections.
+ * When batch fails, its comments are written again one by one, so one bad comment fails only its own request.
+ */
+@Component
+public class CommentBatcher {
+
+    static final int MAX_BATCH_SIZE = 200;
+
+    /**
+     * Submissions over this number of waiting comments are rejected instead of queued
+     */
+    static final int MAX_QUEUE_SIZE = 10_000;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CourseFeedbackRepository feedbackRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RatingPublisher ratingPublisher;
+
+    @Autowired
+    private EntityManager manager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    private final BlockingQueue<PendingComment> queue = new LinkedBlockingQueue<>(MAX_QUEUE_SIZE);
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "comment-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    private void start() {
+        transaction = new TransactionTemplate(transactionManager);
+        writer.execute(this::writeBatches);
+    }
+
+    @PreDestroy
+    private void stop() {
+        writer.shutdownNow();
+    }
+
+    /**
+     * @return future completed with saved comment after its batch is committed, or with CourseNotFoundException
+     * or UserNotExistsException when course or author not exists, or with ServiceOverloadedException when queue is full
+     */
+    public CompletableFuture<Comment> submit(Comment comment, Long courseId, String authorEmail) {
+        PendingComment pending = new PendingComment(comment, courseId, authorEmail, new CompletableFuture<>());
+        if (!queue.offer(pending))
+            pending.result.completeExceptionally(new ServiceOverloadedException("Too many comments are waiting to be saved, try again later."));
+
+        return pending.result;
+    }
+
+    private void writeBatches() {
+        List<PendingComment> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+            // Writer is the only consumer of queue, so nothing may end its loop
+            try {
+                writeBatch(batch);
+            } catch (Throwable e) {
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<PendingComment> batch) {
+        try {
+            complete(transaction.execute(status -> write(batch)));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            batch.stream()
+                    .filter(pending -> !pending.result.isDone())
+                    .forEach(this::writeAlone);
+        }
+    }
+
+    /**
+     * Id assigned by insert of rolled back batch is cleared, so comment is inserted again.
+     */
+    private void writeAlone(PendingComment pending) {
+        pending.comment.setId(0);
+        try {
+            complete(transaction.execute(status -> write(List.of(pending))));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private void complete(List<PendingComment> written) {
+        written.forEach(pending -> pending.result.complete(pending.comment));
+    }
+
+    /**
+     * Aggregates are updated after all inserts, so feedback rows stay locked only until the end of short transaction.
+     * @return comments which were written, the rest is already completed with exception
+     */
+    private List<PendingComment> write(List<PendingComment> batch) {
+        Map<Long, Long> feedbackIds = feedbackRepository.findIdsByCourseIds(
+                batch.stream().map(pending -> pending.courseId).collect(Collectors.toSet()));
+        Map<String, Long> activityIds = userRepository.findActivityIdsByEmails(
+                batch.stream().map(pending -> pending.authorEmail).collect(Collectors.toSet()));
+
+        List<PendingComment> accepted = new ArrayList<>();
+        Map<Long, List<Double>> ratesByFeedback = new LinkedHashMap<>();
+        for (PendingComment pending : batch) {
+            Long feedbackId = feedbackIds.get(pending.courseId);
+            Long activityId = activityIds.get(pending.authorEmail);
+            if (feedbackId == null) {
+                pending.result.completeExceptionally(new CourseNotFoundException("Course with id: " + pending.courseId + " not found!"));
+            } else if (activityId == null) {
+                pending.result.completeExceptionally(new UserNotExistsException("User with email: " + pending.authorEmail + " not exists."));
+            } else {
+                pending.comment.setCourseFeedback(manager.getReference(CourseFeedback.class, feedbackId));
+                pending.comment.setAuthor(manager.getReference(UserActivity.class, activityId));
+                ratesByFeedback.computeIfAbsent(feedbackId, id -> new ArrayList<>()).add(pending.comment.getRate());
+                accepted.add(pending);
+            }
+        }
+
+        commentRepository.saveAll(accepted.stream().map(pending -> pending.comment).collect(Collectors.toList()));
+        commentRepository.flush();
+        ratesByFeedback.forEach(feedbackRepository::addRates);
+        ratingPublisher.publish(ratesByFeedback.keySet());
+
+        return accepted;
+    }
+
+    @AllArgsConstructor
+    private static class PendingComment {
+
+        private final Comment comment;
+
+        private final Long courseId;
+
+        private final String authorEmail;
+
+        private final CompletableFuture<Comment> result;
+
+    }
+
+}
@@ -0,0 +1,52 @@
+package peterstuck.coursewebsitebackend.services.comment;
+
+import peterstuck.coursewebsitebackend.exceptions.CommentNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.CourseNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCursorException;
+import peterstuck.coursewebsitebackend.exceptions.NotAnAuthorException;
+import peterstuck.coursewebsitebackend.exceptions.ServiceOverloadedException;
+import peterstuck.coursewebsitebackend.exceptions.UserNotExistsException;
+import peterstuck.coursewebsitebackend.models.course.Comment;
+import peterstuck.coursewebsitebackend.models.course.CommentPage;
+import peterstuck.coursewebsitebackend.repositories.course.CommentSort;
+
+/**
+ * Every change of comment updates rate aggregates of course feedback in the same transaction.
+ */
+public interface CommentService {
+
+    int MAX_PAGE_SIZE = 50;
+
+    int SUBMIT_TIMEOUT_SECONDS = 10;
+
+    /**
+     * @param cursor cursor of requested page, first page when null
+     * @param size max number of comments on page, limited to MAX_PAGE_SIZE
+     * @throws InvalidCursorException when cursor was created for different order
+     */
+    CommentPage findPage(Long courseId, CommentSort sort, String cursor, int size) throws CourseNotFoundException, InvalidCursorException;
+
+    Comment add(Long courseId, Comment comment) throws CourseNotFoundException;
+
+    /**
+     * Adds comment of requester through CommentBatcher and waits until its batch is committed, at most SUBMIT_TIMEOUT_SECONDS.
+     * @throws UserNotExistsException when requester recognized based on JWT not exists
+     * @throws ServiceOverloadedException when too many comments are waiting or comment was not saved in time
+     */
+    Comment submit(Long courseId, Comment comment, String token) throws CourseNotFoundException, UserNotExistsException, ServiceOverloadedException;
+
+    /**
+     * Only description and rate can be changed, rate aggregates of course are updated when rate changes.
+     * @throws CommentNotFoundException when comment not exists or belongs to other course
+     * @throws NotAnAuthorException when requester recognized based on JWT is not author of comment
+     */
+    Comment update(Long courseId, int commentId, Comment updated, String token) throws CommentNotFoundException, NotAnAuthorException;
+
+    /**
+     * Rate of comment is removed from rate aggregates of course.
+     * @throws CommentNotFoundException when comment not exists or belongs to other course
+     * @throws NotAnAuthorException when requester recognized based on JWT is not author of comment
+     */
+    void delete(Long courseId, int commentId, String token) throws CommentNotFoundException, NotAnAuthorException;
+
+}
@@ -0,0 +1,187 @@
+package peterstuck.coursewebsitebackend.services.comment;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import peterstuck.coursewebsitebackend.exceptions.CommentNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.CourseNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCursorException;
+import peterstuck.coursewebsitebackend.exceptions.NotAnAuthorException;
+import peterstuck.coursewebsitebackend.exceptions.ServiceOverloadedException;
+import peterstuck.coursewebsitebackend.exceptions.UserNotExistsException;
+import peterstuck.coursewebsitebackend.models.course.Comment;
+import peterstuck.coursewebsitebackend.models.course.CommentPage;
+import peterstuck.coursewebsitebackend.models.course.CourseFeedback;
+import peterstuck.coursewebsitebackend.repositories.CommentRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseFeedbackRepository;
+import peterstuck.coursewebsitebackend.repositories.course.CommentKeyset;
+import peterstuck.coursewebsitebackend.repositories.course.CommentSort;
+import peterstuck.coursewebsitebackend.repositories.user.UserRepository;
+import peterstuck.coursewebsitebackend.utils.CursorUtil;
+import peterstuck.coursewebsitebackend.utils.JwtUtil;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class CommentServiceImpl implements CommentService {
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CourseFeedbackRepository feedbackRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommentBatcher batcher;
+
+    @Autowired
+    private RatingPublisher ratingPublisher;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /**
+     * Reads one more row than requested to find out if next page exists without counting all comments.
+     */
+    @Override
+    @Transactional
+    public CommentPage findPage(Long courseId, CommentSort sort, String cursor, int size) throws CourseNotFoundException, InvalidCursorException {
+        CourseFeedback feedback = findFeedbackByCourseId(courseId);
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<Comment> comments = commentRepository.findPage(feedback.getId(), sort, decodeCursor(cursor, sort), limit + 1);
+
+        boolean hasNext = comments.size() > limit;
+        if (hasNext)
+            comments = comments.subList(0, limit);
+
+        String nextCursor = hasNext ? encodeCursor(comments.get(comments.size() - 1), sort) : null;
+        return new CommentPage(comments, nextCursor);
+    }
+
+    private String encodeCursor(Comment last, CommentSort sort) {
+        return CursorUtil.encode(sort.param, last.getId(), sort.valueOf(last));
+    }
+
+    /**
+     * @throws InvalidCursorException when cursor is malformed or was created for different order
+     */
+    private CommentKeyset decodeCursor(String cursor, CommentSort sort) throws InvalidCursorException {
+        String[] parts = CursorUtil.decode(cursor, 3);
+        if (parts == null)
+            return null;
+
+        if (!sort.param.equals(parts[0]))
+            throw new InvalidCursorException("Cursor: " + cursor + " does not match requested order.");
+
+        try {
+            return new CommentKeyset(sort.parseValue(parts[2]), Integer.valueOf(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Cursor: " + cursor + " is not valid.");
+        }
+    }
+
+    @Override
+    @Transactional
+    public Comment add(Long courseId, Comment comment) throws CourseNotFoundException {
+        CourseFeedback feedback = findFeedbackByCourseId(courseId);
+
+        comment.setCourseFeedback(feedback);
+        commentRepository.save(comment);
+        feedbackRepository.addRate(feedback.getId(), comment.getRate());
+        ratingPublisher.publish(List.of(feedback.getId()));
+
+        return comment;
+    }
+
+    /**
+     * Not transactional, request thread only waits until CommentBatcher writes the comment.
+     * Comment may still be written after waiting timed out.
+     */
+    @Override
+    public Comment submit(Long courseId, Comment comment, String token) throws CourseNotFoundException, UserNotExistsException, ServiceOverloadedException {
+        String email = jwtUtil.extractUsername(token.substring(7));
+        try {
+            return batcher.submit(comment, courseId, email).get(SUBMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CourseNotFoundException)
+                throw (CourseNotFoundException) e.getCause();
+            if (e.getCause() instanceof UserNotExistsException)
+                throw (UserNotExistsException) e.getCause();
+            if (e.getCause() instanceof ServiceOverloadedException)
+                throw (ServiceOverloadedException) e.getCause();
+            throw new IllegalStateException("Comment was not saved.", e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceOverloadedException("Comment was not saved in " + SUBMIT_TIMEOUT_SECONDS + " seconds, check comments before sending it again.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for comment to be saved.", e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public Comment update(Long courseId, int commentId, Comment updated, String token) throws CommentNotFoundException, NotAnAuthorException {
+        Comment comment = findById(courseId, commentId);
+        checkIsAnAuthorOrThrowException(comment, token);
+        double oldRate = comment.getRate();
+
+        comment.setDescription(updated.getDescription());
+        comment.setRate(updated.getRate());
+        commentRepository.save(comment);
+        if (oldRate != updated.getRate()) {
+            feedbackRepository.changeRate(comment.getCourseFeedback().getId(), oldRate, updated.getRate());
+            ratingPublisher.publish(List.of(comment.getCourseFeedback().getId()));
+        }
+
+        return comment;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long courseId, int commentId, String token) throws CommentNotFoundException, NotAnAuthorException {
+        Comment comment = findById(courseId, commentId);
+        checkIsAnAuthorOrThrowException(comment, token);
+
+        commentRepository.delete(comment);
+        feedbackRepository.removeRate(comment.getCourseFeedback().getId(), comment.getRate());
+        ratingPublisher.publish(List.of(comment.getCourseFeedback().getId()));
+    }
+
+    private CourseFeedback findFeedbackByCourseId(Long courseId) throws CourseNotFoundException {
+        return feedbackRepository.findByCourseId(courseId)
+                .orElseThrow(() -> new CourseNotFoundException("Course with id: " + courseId + " not found!"));
+    }
+
+    /**
+     * @throws CommentNotFoundException when comment not exists or belongs to other course
+     */
+    private Comment findById(Long courseId, int commentId) throws CommentNotFoundException {
+        Long feedbackId = feedbackRepository.findByCourseId(courseId)
+                .map(CourseFeedback::getId)
+                .orElse(null);
+
+        return commentRepository.findById(commentId)
+                .filter(comment -> comment.getCourseFeedback() != null && comment.getCourseFeedback().getId().equals(feedbackId))
+                .orElseThrow(() -> new CommentNotFoundException("Comment with id: " + commentId + " not found!"));
+    }
+
+    /**
+     * Author is compared by id of user activity, so neither user nor author of comment is loaded.
+     * @throws NotAnAuthorException when requester was not recognized as author of comment based on JWT.
+     */
+    private void checkIsAnAuthorOrThrowException(Comment comment, String token) throws NotAnAuthorException {
+        String email = jwtUtil.extractUsername(token.substring(7));
+        Long activityId = email == null ? null : userRepository.findActivityIdsByEmails(Set.of(email)).get(email);
+
+        if (activityId == null || comment.getAuthor() == null || !activityId.equals(comment.getAuthor().getId()))
+            throw new NotAnAuthorException("You are allow to update or delete only own comments.");
+    }
+
+}
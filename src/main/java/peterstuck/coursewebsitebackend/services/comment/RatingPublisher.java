@@ -0,0 +1,53 @@
+package peterstuck.coursewebsitebackend.services.comment;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import peterstuck.coursewebsitebackend.models.course.CourseRating;
+import peterstuck.coursewebsitebackend.repositories.CourseChangeRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseFeedbackRepository;
+import peterstuck.coursewebsitebackend.services.catalog.CatalogIndex;
+import peterstuck.coursewebsitebackend.services.catalog.CourseCatalog;
+import peterstuck.coursewebsitebackend.services.search.CourseSearchIndex;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Pushes changed rate aggregates of courses to in memory indexes and catalog, so filters, ranking and cards
+ * do not wait for periodic rebuild. Changes are recorded in course change log too, as they change course cards,
+ * so clients and caches catching up from the log see them.
+ */
+@Component
+public class RatingPublisher {
+
+    @Autowired
+    private CourseFeedbackRepository feedbackRepository;
+
+    @Autowired
+    private CourseChangeRepository changeRepository;
+
+    @Autowired
+    private CatalogIndex catalogIndex;
+
+    @Autowired
+    private CourseCatalog courseCatalog;
+
+    @Autowired
+    private CourseSearchIndex searchIndex;
+
+    /**
+     * Has to be called in transaction which changed aggregates, after they were updated.
+     * Indexes apply new values after commit, the same as writes of courses. Changes are recorded in order of course ids,
+     * so batches changing the same courses wait for each other instead of deadlocking.
+     */
+    public void publish(Collection<Long> feedbackIds) {
+        List<CourseRating> ratings = feedbackRepository.findRatingsByFeedbackIds(feedbackIds);
+        for (CourseRating rating : ratings) {
+            changeRepository.record(rating.getCourseId(), false);
+            catalogIndex.updateRating(rating.getCourseId(), rating.getAvgRate());
+            courseCatalog.updateRating(rating);
+            searchIndex.updateRating(rating.getCourseId(), rating.getAvgRate());
+        }
+    }
+
+}
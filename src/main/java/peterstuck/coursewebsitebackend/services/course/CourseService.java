@@ -1,23 +1,97 @@
 package peterstuck.coursewebsitebackend.services.course;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import peterstuck.coursewebsitebackend.exceptions.BatchTooLargeException;
 import peterstuck.coursewebsitebackend.exceptions.CourseNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCursorException;
 import peterstuck.coursewebsitebackend.exceptions.NotAnAuthorException;
+import peterstuck.coursewebsitebackend.exceptions.ServiceOverloadedException;
 import peterstuck.coursewebsitebackend.exceptions.UserNotExistsException;
 import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseBatch;
+import peterstuck.coursewebsitebackend.models.course.CourseChanges;
+import peterstuck.coursewebsitebackend.models.course.CoursePage;
+import peterstuck.coursewebsitebackend.models.course.RatingHistogram;
+import peterstuck.coursewebsitebackend.models.course.Suggestions;
+import peterstuck.coursewebsitebackend.repositories.course.CourseField;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFilter;
+import peterstuck.coursewebsitebackend.services.suggestion.SuggestionSort;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface CourseService {
 
+    int MAX_PAGE_SIZE = 100;
+
+    int LATEST_COMMENTS_COUNT = 3;
+
+    int MAX_BATCH_SIZE = 200;
+
+    int MAX_CHANGES_SIZE = 500;
+
+    /**
+     * @param filter criteria and order of courses
+     * @param cursor cursor of requested page, first page when null
+     * @param size max number of courses on page, limited to MAX_PAGE_SIZE
+     * @param withFacets when true page contains also facet counts of all courses matching filters
+     * @param exactTotal when true total of first page is counted exactly, which is the slow path, otherwise it is estimated
+     * @throws InvalidCursorException when cursor was created for different order
+     */
+    CoursePage findAll(CourseFilter filter, String cursor, int size, boolean withFacets, boolean exactTotal) throws InvalidCursorException;
+
+    /**
+     * @param phrase words searched in titles, descriptions and main topics of courses
+     * @param cursor cursor of requested page, first page when null
+     * @param size max number of courses on page, limited to MAX_PAGE_SIZE
+     * @return courses ordered from the most relevant, first page of corrected phrase when nothing was found for misspelled one
+     * @throws InvalidCursorException when cursor is malformed
+     * @throws ServiceOverloadedException when search index is not built yet
+     */
+    CoursePage search(String phrase, String cursor, int size) throws InvalidCursorException, ServiceOverloadedException;
+
     /**
-     * @param keyword optional additional filter by title
+     * Starts rebuild of search index of all courses in background.
+     * @return false when rebuild is already running
      */
-    List<Course> findAll(String keyword) throws JsonProcessingException;
+    boolean rebuildSearchIndex();
 
-    List<Course> findAllByCategory(String keyword, int categoryId) throws JsonProcessingException;
+    /**
+     * @param prefix typed beginning of any word of course title or category name
+     * @param sort order of suggested courses, categories are always ordered by number of courses
+     * @param size max number of suggested courses and categories, limited to SuggestionIndex.MAX_SUGGESTIONS
+     */
+    Suggestions suggest(String prefix, SuggestionSort sort, int size);
 
-    Course findById(Long id) throws CourseNotFoundException;
+    /**
+     * @param fields selected fields, associations of other fields are not loaded
+     */
+    Course findById(Long id, Set<CourseField> fields) throws CourseNotFoundException;
+
+    /**
+     * Loads details of all courses with the same number of queries as single course.
+     * @param ids ids of courses, repeated ones are returned once
+     * @param fields selected fields, associations of other fields are not loaded
+     * @return courses in order of ids, with ids of courses which not exist
+     * @throws BatchTooLargeException when more than MAX_BATCH_SIZE distinct ids are requested
+     */
+    CourseBatch findAllById(List<Long> ids, Set<CourseField> fields) throws BatchTooLargeException;
+
+    /**
+     * @param courseIds ids of courses, repeated ones are returned once
+     * @return rating histograms by course id, without courses which not exist
+     * @throws BatchTooLargeException when more than MAX_PAGE_SIZE distinct ids are requested
+     */
+    Map<Long, RatingHistogram> findRatingHistograms(List<Long> courseIds) throws BatchTooLargeException;
+
+    /**
+     * Changes are read from change log, so cost depends on number of changed courses, not on size of catalog.
+     * @param since token returned with previous changes, when null no changes are returned, only token of changes
+     *              which are already final, client takes it before downloading whole catalog
+     * @param size max number of changes, limited to MAX_CHANGES_SIZE, exceeded only to return all changes of the last transaction
+     * @throws InvalidCursorException when token is malformed
+     */
+    CourseChanges findChanges(String since, int size) throws InvalidCursorException;
 
     Course save(Course course, String token) throws UserNotExistsException;
 
@@ -3,21 +3,57 @@ package peterstuck.coursewebsitebackend.services.course;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import peterstuck.coursewebsitebackend.exceptions.BatchTooLargeException;
 import peterstuck.coursewebsitebackend.exceptions.CourseNotFoundException;
+import peterstuck.coursewebsitebackend.exceptions.InvalidCursorException;
 import peterstuck.coursewebsitebackend.exceptions.NotAnAuthorException;
+import peterstuck.coursewebsitebackend.exceptions.ServiceOverloadedException;
 import peterstuck.coursewebsitebackend.exceptions.UserNotExistsException;
 import peterstuck.coursewebsitebackend.models.course.Comment;
 import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseBatch;
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.models.course.CourseChange;
+import peterstuck.coursewebsitebackend.models.course.CourseChanges;
 import peterstuck.coursewebsitebackend.models.course.CourseFeedback;
+import peterstuck.coursewebsitebackend.models.course.CoursePage;
+import peterstuck.coursewebsitebackend.models.course.RatingHistogram;
+import peterstuck.coursewebsitebackend.models.course.Suggestions;
 import peterstuck.coursewebsitebackend.models.user.User;
+import peterstuck.coursewebsitebackend.repositories.CommentRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseChangeRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseFeedbackRepository;
 import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.repositories.course.CommentSort;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFetchPlan;
+import peterstuck.coursewebsitebackend.repositories.course.CourseField;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFilter;
+import peterstuck.coursewebsitebackend.repositories.course.CourseKeyset;
+import peterstuck.coursewebsitebackend.repositories.course.CourseSearchHit;
+import peterstuck.coursewebsitebackend.repositories.course.CourseSort;
 import peterstuck.coursewebsitebackend.repositories.user.UserRepository;
+import peterstuck.coursewebsitebackend.services.catalog.CatalogIndex;
+import peterstuck.coursewebsitebackend.services.catalog.CourseCatalog;
+import peterstuck.coursewebsitebackend.services.catalog.IndexPage;
+import peterstuck.coursewebsitebackend.services.search.CourseSearchIndex;
+import peterstuck.coursewebsitebackend.services.suggestion.SpellingDictionary;
+import peterstuck.coursewebsitebackend.services.suggestion.SuggestionIndex;
+import peterstuck.coursewebsitebackend.services.suggestion.SuggestionSort;
+import peterstuck.coursewebsitebackend.utils.CursorUtil;
 import peterstuck.coursewebsitebackend.utils.JwtUtil;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import static peterstuck.coursewebsitebackend.utils.ObjectInitializer.initializeCourseObject;
 import static peterstuck.coursewebsitebackend.utils.ObjectUpdater.updateCourse;
 
 @Service
@@ -26,71 +62,294 @@ public class CourseServiceImpl implements CourseService {
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private CourseFeedbackRepository feedbackRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CourseChangeRepository changeRepository;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CourseSearchIndex searchIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private SpellingDictionary spellingDictionary;
+
+    @Autowired
+    private CatalogIndex catalogIndex;
+
+    @Autowired
+    private CourseCatalog courseCatalog;
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    /**
+     * Reads one more row than requested to find out if next page exists without counting all rows.
+     * Ids of courses are taken from catalog index when it can answer filter and their cards from in memory catalog,
+     * database is queried only for cards missing in catalog then. No transaction is opened, as all queries only read.
+     */
+    @Override
+    public CoursePage findAll(CourseFilter filter, String cursor, int size, boolean withFacets, boolean exactTotal) throws InvalidCursorException {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        CourseKeyset after = decodeCursor(cursor, filter);
+        Optional<IndexPage> indexed = catalogIndex.findPage(filter, after == null ? null : after.getTieBreakerId(), limit + 1);
+        List<CourseCard> courses = indexed.isPresent()
+                ? courseCatalog.findCards(indexed.get().getIds()).orElseGet(() -> courseRepository.findCardsByIds(indexed.get().getIds()))
+                : courseRepository.findPage(filter, after, limit + 1);
+
+        boolean hasNext = courses.size() > limit;
+        if (hasNext)
+            courses = courses.subList(0, limit);
+
+        String nextCursor = hasNext ? encodeCursor(courses.get(courses.size() - 1), filter) : null;
+        CoursePage page = new CoursePage(courses, nextCursor);
+        if (withFacets)
+            page.setFacets(courseRepository.countFacets(filter));
+        if (cursor == null && indexed.isPresent()) {
+            page.setTotal((long) indexed.get().getTotal());
+            page.setTotalExact(true);
+        } else if (cursor == null) {
+            setTotal(page, filter, hasNext, exactTotal);
+        }
+
+        return page;
+    }
+
+    /**
+     * Single page of results is its own exact total. Otherwise estimate is raised to at least the number of courses
+     * known to exist, as planner statistics may be stale.
+     */
+    private void setTotal(CoursePage page, CourseFilter filter, boolean hasNext, boolean exactTotal) {
+        int known = page.getCourses().size();
+        if (!hasNext) {
+            page.setTotal((long) known);
+            page.setTotalExact(true);
+        } else if (exactTotal) {
+            page.setTotal(courseRepository.countExactly(filter));
+            page.setTotalExact(true);
+        } else {
+            page.setTotal(Math.max(courseRepository.estimateCount(filter), known + 1));
+            page.setTotalExact(false);
+        }
+    }
+
+    /**
+     * Cursor stores order it was created for, sorted value is stored last as it may contain any text.
+     */
+    private String encodeCursor(CourseCard last, CourseFilter filter) {
+        CourseSort sort = filter.getSort();
+        return CursorUtil.encode(sort.param, filter.getDirection(), sort.tieBreakerOf(last), sort.valueOf(last));
+    }
+
+    /**
+     * @throws InvalidCursorException when cursor is malformed or was created for different order
+     */
+    private CourseKeyset decodeCursor(String cursor, CourseFilter filter) throws InvalidCursorException {
+        String[] parts = CursorUtil.decode(cursor, 4);
+        if (parts == null)
+            return null;
+
+        CourseSort sort = filter.getSort();
+        if (!sort.param.equals(parts[0]) || !filter.getDirection().name().equals(parts[1]))
+            throw new InvalidCursorException("Cursor: " + cursor + " does not match requested order.");
+
+        try {
+            return new CourseKeyset(sort.parseValue(parts[3]), Long.valueOf(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Cursor: " + cursor + " is not valid.");
+        }
+    }
+
+    /**
+     * When first page of misspelled phrase is empty, corrected phrase is searched instead.
+     */
     @Override
     @Transactional
-    public List<Course> findAll(String keyword) {
-        List<Course> courses = courseRepository.findAll();
-        if (keyword != null)
-            courses = filterCoursesByTitle(courses, keyword);
+    public CoursePage search(String phrase, String cursor, int size) throws InvalidCursorException, ServiceOverloadedException {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        CoursePage page = searchPage(phrase, decodeSearchCursor(cursor), limit);
+        if (!page.getCourses().isEmpty() || cursor != null)
+            return page;
 
-        courses.forEach(course -> {
-            initializeCourseObject(course);
-            computeAvgAndCountOfRates(course);
-        });
+        String corrected = spellingDictionary.correct(phrase);
+        if (corrected == null)
+            return page;
 
-        return courses;
+        CoursePage correctedPage = searchPage(corrected, null, limit);
+        correctedPage.setDidYouMean(corrected);
+        return correctedPage;
     }
 
-    private List<Course> filterCoursesByTitle(List<Course> courses, String keyword) {
-        return courses.stream()
-                .filter(course -> checkCourseTitleContainsKeyword(course, keyword))
-                .collect(Collectors.toList());
+    /**
+     * Only ids of hits are searched, cards are loaded for the page only.
+     * Index is not ready only while it is built for the first time, database is not searched instead,
+     * so course writes do not maintain second full text index.
+     */
+    private CoursePage searchPage(String phrase, CourseSearchHit after, int limit) throws ServiceOverloadedException {
+        if (!searchIndex.isReady())
+            throw new ServiceOverloadedException("Search index is being built, try again later.");
+
+        List<CourseSearchHit> hits = searchIndex.search(phrase, after, limit + 1);
+
+        boolean hasNext = hits.size() > limit;
+        if (hasNext)
+            hits = hits.subList(0, limit);
+
+        Map<Long, String> highlights = new HashMap<>();
+        hits.forEach(hit -> highlights.put(hit.getId(), hit.getHighlight()));
+        List<CourseCard> courses = courseRepository.findCardsByIds(hits.stream().map(CourseSearchHit::getId).collect(Collectors.toList()));
+        courses.forEach(card -> card.setHighlight(highlights.get(card.getId())));
+        String nextCursor = null;
+        if (hasNext) {
+            CourseSearchHit last = hits.get(hits.size() - 1);
+            nextCursor = CursorUtil.encode(last.getId(), last.getRank());
+        }
+        return new CoursePage(courses, nextCursor);
     }
 
+    @Override
+    public boolean rebuildSearchIndex() {
+        return searchIndex.startRebuild();
+    }
+
+    /**
+     * Served from memory only, without touching database.
+     */
+    @Override
+    public Suggestions suggest(String prefix, SuggestionSort sort, int size) {
+        return new Suggestions(suggestionIndex.findCourses(prefix, sort, size), suggestionIndex.findCategories(prefix, size));
+    }
+
+    /**
+     * @throws InvalidCursorException when cursor is malformed
+     */
+    private CourseSearchHit decodeSearchCursor(String cursor) throws InvalidCursorException {
+        String[] parts = CursorUtil.decode(cursor, 2);
+        if (parts == null)
+            return null;
+
+        try {
+            return new CourseSearchHit(Long.valueOf(parts[0]), Double.parseDouble(parts[1]), null);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Cursor: " + cursor + " is not valid.");
+        }
+    }
+
+    /**
+     * Only the newest comments are embedded in course, rest of them is paginated separately.
+     */
     @Override
     @Transactional
-    public List<Course> findAllByCategory(String keyword, int categoryId) {
-        return this.findAll(keyword)
-                .stream()
-                .filter(course -> checkCourseHasCategoryWithId(course, categoryId))
-                .collect(Collectors.toList());
+    public Course findById(Long id, Set<CourseField> fields) throws CourseNotFoundException {
+        Course course = allSelected(fields) ? findById(id, CourseFetchPlan.DETAIL)
+                : courseRepository.findAllByIdWithFields(List.of(id), fields).stream()
+                        .findFirst()
+                        .orElseThrow(() -> new CourseNotFoundException("Course with id: " + id + " not found!"));
+        if (fields.contains(CourseField.COURSE_FEEDBACK)) {
+            CourseFeedback feedback = course.getCourseFeedback();
+            feedback.setLatestComments(commentRepository.findPage(feedback.getId(), CommentSort.NEWEST, null, LATEST_COMMENTS_COUNT));
+        }
+
+        return course;
     }
 
-    private boolean checkCourseTitleContainsKeyword(Course course, String keyword) {
-        return course.getTitle().toLowerCase().contains(keyword.toLowerCase());
+    /**
+     * Courses with all fields are loaded with detail plan.
+     */
+    private List<Course> loadCourses(Collection<Long> ids, Set<CourseField> fields) {
+        return allSelected(fields) ? courseRepository.findAllById(ids, CourseFetchPlan.DETAIL) : courseRepository.findAllByIdWithFields(ids, fields);
     }
 
-    private boolean checkCourseHasCategoryWithId(Course course, int categoryId) {
-        return course.getCategories()
-                .stream()
-                .anyMatch(category -> category.getId() == categoryId);
+    private static boolean allSelected(Set<CourseField> fields) {
+        return fields.containsAll(EnumSet.allOf(CourseField.class));
     }
 
     @Override
     @Transactional
-    public Course findById(Long id) throws CourseNotFoundException {
-        Course course = courseRepository.findById(id)
-                .orElseThrow(() -> new CourseNotFoundException("Course with id: " + id + " not found!"));
+    public CourseBatch findAllById(List<Long> ids, Set<CourseField> fields) throws BatchTooLargeException {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > MAX_BATCH_SIZE)
+            throw new BatchTooLargeException("At most " + MAX_BATCH_SIZE + " courses can be requested at once.");
 
-        initializeCourseObject(course);
-        computeAvgAndCountOfRates(course);
+        Map<Long, Course> coursesById = new HashMap<>();
+        loadCourses(requested, fields).forEach(course -> coursesById.put(course.getId(), course));
+        Map<Long, List<Comment>> latestComments = !fields.contains(CourseField.COURSE_FEEDBACK) ? Map.of()
+                : commentRepository.findLatestByFeedbackIds(coursesById.values().stream()
+                        .map(course -> course.getCourseFeedback().getId())
+                        .collect(Collectors.toList()), LATEST_COMMENTS_COUNT);
 
-        return course;
+        List<Course> courses = new ArrayList<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Course course = coursesById.get(id);
+            if (course == null) {
+                missingIds.add(id);
+                continue;
+            }
+            if (fields.contains(CourseField.COURSE_FEEDBACK)) {
+                CourseFeedback feedback = course.getCourseFeedback();
+                feedback.setLatestComments(latestComments.getOrDefault(feedback.getId(), new ArrayList<>()));
+            }
+            courses.add(course);
+        }
+        return new CourseBatch(courses, missingIds);
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, RatingHistogram> findRatingHistograms(List<Long> courseIds) throws BatchTooLargeException {
+        Set<Long> requested = new HashSet<>(courseIds);
+        if (requested.size() > MAX_PAGE_SIZE)
+            throw new BatchTooLargeException("At most " + MAX_PAGE_SIZE + " histograms can be requested at once.");
+
+        return feedbackRepository.findHistogramsByCourseIds(requested);
     }
 
-    private void computeAvgAndCountOfRates(Course course) {
-        var courseFeedback = course.getCourseFeedback();
-        var courseComments = course.getCourseFeedback().getComments();
+    /**
+     * Cards of changed courses are read from database, in memory catalog applies changes only after commit,
+     * so it may lag behind the log. Course deleted after its update was read is skipped, its tombstone comes with the next token.
+     */
+    @Override
+    public CourseChanges findChanges(String since, int size) throws InvalidCursorException {
+        String[] parts = CursorUtil.decode(since, 1);
+        if (parts == null)
+            return new CourseChanges(List.of(), List.of(), CursorUtil.encode(changeRepository.findCheckpoint()), false);
+
+        long afterId;
+        try {
+            afterId = Long.parseLong(parts[0]);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Token: " + since + " is not valid.");
+        }
+
+        int limit = Math.min(Math.max(size, 1), MAX_CHANGES_SIZE);
+        List<CourseChange> changes = changeRepository.findAfter(afterId, limit);
+        boolean hasMore = changes.size() >= limit;
 
-        double avg = courseComments.stream().mapToDouble(Comment::getRate).sum() / courseComments.size();
-        courseFeedback.setAvgRate(avg);
-        courseFeedback.setRatesCount(courseComments.size());
+        List<Long> upsertedIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        for (CourseChange change : changes)
+            (change.isDeleted() ? deletedIds : upsertedIds).add(change.getCourseId());
+
+        List<CourseCard> upserts = upsertedIds.isEmpty() ? List.of()
+                : courseRepository.findCardsByIds(upsertedIds);
+        long lastId = changes.isEmpty() ? afterId : changes.get(changes.size() - 1).getTransactionId();
+
+        return new CourseChanges(upserts, deletedIds, CursorUtil.encode(lastId), hasMore);
+    }
+
+    private Course findById(Long id, CourseFetchPlan plan) throws CourseNotFoundException {
+        return courseRepository.findById(id, plan)
+                .orElseThrow(() -> new CourseNotFoundException("Course with id: " + id + " not found!"));
     }
 
     @Override
@@ -99,7 +358,26 @@ public class CourseServiceImpl implements CourseService {
         course.setCourseFeedback(new CourseFeedback());
         checkAuthors(course, token);
 
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        changeRepository.record(saved.getId(), false);
+        searchIndex.putCourse(saved);
+        suggestionIndex.putCourse(saved.getId(), saved.getTitle());
+        spellingDictionary.addAll(textsOf(saved));
+        catalogIndex.putCourse(saved);
+        courseCatalog.putCourse(saved);
+
+        return saved;
+    }
+
+    /**
+     * Title and main topics, which misspelled search phrases are corrected to.
+     */
+    private List<String> textsOf(Course course) {
+        List<String> texts = new ArrayList<>();
+        texts.add(course.getTitle());
+        if (course.getCourseDescription() != null && course.getCourseDescription().getMainTopics() != null)
+            texts.addAll(course.getCourseDescription().getMainTopics());
+        return texts;
     }
 
     /**
@@ -121,11 +399,17 @@ public class CourseServiceImpl implements CourseService {
     @Override
     @Transactional
     public Course update(Long id, String token, Course updated) throws CourseNotFoundException, NotAnAuthorException {
-        Course course = this.findById(id);
+        Course course = findById(id, CourseFetchPlan.EDIT);
         checkIsAnAuthorOrThrowException(course, token);
 
         updateCourse(course, updated);
         courseRepository.save(course);
+        changeRepository.record(id, false);
+        searchIndex.putCourse(course);
+        suggestionIndex.putCourse(id, course.getTitle());
+        spellingDictionary.addAll(textsOf(course));
+        catalogIndex.putCourse(course);
+        courseCatalog.putCourse(course);
 
         return course;
     }
@@ -133,9 +417,15 @@ public class CourseServiceImpl implements CourseService {
     @Override
     @Transactional
     public void delete(Long id, String token) throws CourseNotFoundException, NotAnAuthorException {
-        Course course = this.findById(id);
+        Course course = courseRepository.findById(id)
+                .orElseThrow(() -> new CourseNotFoundException("Course with id: " + id + " not found!"));
         checkIsAnAuthorOrThrowException(course, token);
         courseRepository.delete(course);
+        changeRepository.record(id, true);
+        searchIndex.removeCourse(id);
+        suggestionIndex.removeCourse(id);
+        catalogIndex.removeCourse(id);
+        courseCatalog.removeCourse(id);
     }
 
     /**
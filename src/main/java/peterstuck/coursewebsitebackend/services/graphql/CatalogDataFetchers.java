@@ -0,0 +1,57 @@
+package peterstuck.coursewebsitebackend.services.graphql;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.idl.RuntimeWiring;
+import org.springframework.stereotype.Component;
+import peterstuck.coursewebsitebackend.models.course.Category;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseFeedback;
+import peterstuck.coursewebsitebackend.models.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static graphql.schema.idl.TypeRuntimeWiring.newTypeWiring;
+
+/**
+ * Resolvers of fields which are not plain properties of models. Associations are resolved by data loaders,
+ * other fields are read by default property fetchers.
+ */
+@Component
+public class CatalogDataFetchers {
+
+    public RuntimeWiring wiring() {
+        return RuntimeWiring.newRuntimeWiring()
+                .type(newTypeWiring("Query")
+                        .dataFetcher("course", env -> env.getDataLoader(CatalogDataLoaders.COURSES)
+                                .load(Long.valueOf(env.<String>getArgument("id"))))
+                        .dataFetcher("courses", env -> env.getDataLoader(CatalogDataLoaders.COURSES)
+                                .loadMany(env.<List<String>>getArgument("ids").stream().map(Long::valueOf).collect(Collectors.toList())))
+                        .dataFetcher("categories", env -> env.getDataLoader(CatalogDataLoaders.CHILDREN)
+                                .load(env.<Integer>getArgument("parentId"))))
+                .type(newTypeWiring("Course")
+                        .dataFetcher("description", byCourseId(CatalogDataLoaders.DESCRIPTIONS))
+                        .dataFetcher("feedback", byCourseId(CatalogDataLoaders.FEEDBACKS))
+                        .dataFetcher("categories", byCourseId(CatalogDataLoaders.CATEGORIES))
+                        .dataFetcher("authors", byCourseId(CatalogDataLoaders.AUTHORS)))
+                .type(newTypeWiring("CourseFeedback")
+                        .dataFetcher("histogram", env -> {
+                            List<Map<String, Object>> counts = new ArrayList<>();
+                            env.<CourseFeedback>getSource().getHistogram().toMap()
+                                    .forEach((rating, count) -> counts.add(Map.of("rating", rating, "count", count)));
+                            return counts;
+                        }))
+                .type(newTypeWiring("Category")
+                        .dataFetcher("children", env -> env.getDataLoader(CatalogDataLoaders.CHILDREN)
+                                .load(env.<Category>getSource().getId())))
+                .type(newTypeWiring("User")
+                        .dataFetcher("profile", env -> env.<User>getSource().getUserDetail()))
+                .build();
+    }
+
+    private static DataFetcher<?> byCourseId(String loaderName) {
+        return env -> env.getDataLoader(loaderName).load(env.<Course>getSource().getId());
+    }
+}
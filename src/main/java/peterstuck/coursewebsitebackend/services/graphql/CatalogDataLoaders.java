@@ -0,0 +1,105 @@
+package peterstuck.coursewebsitebackend.services.graphql;
+
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import peterstuck.coursewebsitebackend.models.course.Category;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseDescription;
+import peterstuck.coursewebsitebackend.models.course.CourseFeedback;
+import peterstuck.coursewebsitebackend.models.user.User;
+import peterstuck.coursewebsitebackend.repositories.CategoryRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFetchPlan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loaders of data queried by GraphQL, created for every request. Keys requested by all fields on the same level
+ * of query are collected and loaded with one query per loader, so nested fields never query database per course.
+ * Data is read by explicit queries and fetch plans, lazy associations outside of them are never touched.
+ * Loaders are called within read only transaction of GraphQLService.
+ */
+@Component
+public class CatalogDataLoaders {
+
+    static final String COURSES = "courses";
+    static final String DESCRIPTIONS = "descriptions";
+    static final String FEEDBACKS = "feedbacks";
+    static final String CATEGORIES = "categories";
+    static final String AUTHORS = "authors";
+
+    /**
+     * Child categories by id of parent category
+     */
+    static final String CHILDREN = "children";
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    public DataLoaderRegistry newRegistry() {
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        registry.register(COURSES, DataLoader.newMappedDataLoader(this::loadCourses));
+        registry.register(DESCRIPTIONS, DataLoader.newMappedDataLoader(this::loadDescriptions));
+        registry.register(FEEDBACKS, DataLoader.newMappedDataLoader(
+                (Set<Long> ids) -> CompletableFuture.completedFuture(byCourseId(courseRepository.findFeedbacksByCourseIds(ids), CourseFeedback.class))));
+        registry.register(CATEGORIES, DataLoader.newMappedDataLoader(
+                (Set<Long> ids) -> CompletableFuture.completedFuture(groupByCourseId(ids, courseRepository.findCategoriesByCourseIds(ids), Category.class))));
+        registry.register(AUTHORS, DataLoader.newMappedDataLoader(
+                (Set<Long> ids) -> CompletableFuture.completedFuture(groupByCourseId(ids, courseRepository.findAuthorsByCourseIds(ids), User.class))));
+        registry.register(CHILDREN, DataLoader.newMappedDataLoader(this::loadChildren));
+        return registry;
+    }
+
+    private CompletableFuture<Map<Long, Course>> loadCourses(Set<Long> ids) {
+        Map<Long, Course> courses = new HashMap<>();
+        courseRepository.findAllById(ids).forEach(course -> courses.put(course.getId(), course));
+        return CompletableFuture.completedFuture(courses);
+    }
+
+    private CompletableFuture<Map<Long, CourseDescription>> loadDescriptions(Set<Long> ids) {
+        Map<Long, CourseDescription> descriptions = new HashMap<>();
+        courseRepository.findAllById(ids, CourseFetchPlan.DESCRIPTION)
+                .forEach(course -> descriptions.put(course.getId(), course.getCourseDescription()));
+        return CompletableFuture.completedFuture(descriptions);
+    }
+
+    private CompletableFuture<Map<Integer, List<Category>>> loadChildren(Set<Integer> parentIds) {
+        Map<Integer, List<Category>> children = new HashMap<>();
+        parentIds.forEach(parentId -> children.put(parentId, new ArrayList<>()));
+        categoryRepository.findByParentCategoryIdInOrderByNameSortKeyAscIdAsc(parentIds)
+                .forEach(category -> children.get(category.getParentCategoryId()).add(category));
+        return CompletableFuture.completedFuture(children);
+    }
+
+    /**
+     * @param rows pairs of course id and value
+     */
+    private static <T> Map<Long, T> byCourseId(List<Object[]> rows, Class<T> type) {
+        Map<Long, T> values = new HashMap<>();
+        for (Object[] row : rows)
+            values.put((Long) row[0], type.cast(row[1]));
+        return values;
+    }
+
+    /**
+     * @param rows pairs of course id and value
+     * @return values by course id, empty list for courses without values
+     */
+    private static <T> Map<Long, List<T>> groupByCourseId(Set<Long> ids, List<Object[]> rows, Class<T> type) {
+        Map<Long, List<T>> values = new HashMap<>();
+        ids.forEach(id -> values.put(id, new ArrayList<>()));
+        for (Object[] row : rows)
+            values.get((Long) row[0]).add(type.cast(row[1]));
+        return values;
+    }
+}
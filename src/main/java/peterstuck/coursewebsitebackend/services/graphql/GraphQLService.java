@@ -0,0 +1,15 @@
+package peterstuck.coursewebsitebackend.services.graphql;
+
+import java.util.Map;
+
+public interface GraphQLService {
+
+    /**
+     * Executes read only query over courses, categories and public data of users.
+     * Queries deeper or more costly than configured limits are rejected before anything is loaded.
+     * @param variables values of query variables, may be null
+     * @return result in GraphQL response format, with errors instead of data when query is invalid
+     */
+    Map<String, Object> execute(String query, String operationName, Map<String, Object> variables);
+
+}
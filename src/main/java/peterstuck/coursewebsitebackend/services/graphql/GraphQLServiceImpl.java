@@ -0,0 +1,37 @@
+package peterstuck.coursewebsitebackend.services.graphql;
+
+import graphql.ExecutionInput;
+import graphql.GraphQL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+@Service
+public class GraphQLServiceImpl implements GraphQLService {
+
+    @Autowired
+    private GraphQL graphQL;
+
+    @Autowired
+    private CatalogDataLoaders dataLoaders;
+
+    /**
+     * Data loaders are created for every query, so nothing loaded for one client is cached for others.
+     * Whole query runs in one read only transaction, so entity graphs loaded by separate queries meet
+     * in the same persistence context and fields of loaded entities are read before it is closed.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> execute(String query, String operationName, Map<String, Object> variables) {
+        ExecutionInput input = ExecutionInput.newExecutionInput()
+                .query(query)
+                .operationName(operationName)
+                .variables(variables != null ? variables : Map.of())
+                .dataLoaderRegistry(dataLoaders.newRegistry())
+                .build();
+
+        return graphQL.execute(input).toSpecification();
+    }
+}
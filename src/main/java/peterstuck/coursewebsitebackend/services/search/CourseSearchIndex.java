@@ -0,0 +1,717 @@
+package peterstuck.coursewebsitebackend.services.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.de.GermanAnalyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.fr.FrenchAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.pl.PolishAnalyzer;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.function.FunctionScoreQuery;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DoubleValuesSource;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.search.uhighlight.WholeBreakIterator;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseChange;
+import peterstuck.coursewebsitebackend.models.course.Language;
+import peterstuck.coursewebsitebackend.repositories.CourseChangeRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.repositories.course.CourseSearchDocument;
+import peterstuck.coursewebsitebackend.repositories.course.CourseSearchHit;
+import peterstuck.coursewebsitebackend.utils.SearchQueryUtil;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Lucene index of course texts on local disk, so relevance ranked search neither scans nor ranks rows in database.
+ * Title, short description with main topics and long description are separate fields weighted in query and ranked with BM25,
+ * every text is indexed as written and additionally stemmed by analyzers of course languages.
+ * Writes of courses are applied after commit and searchable at once. Index is committed to disk periodically
+ * with id of course change it is up to date with, so after restart only later changes are reindexed.
+ */
+@Component
+public class CourseSearchIndex {
+
+    /**
+     * Number of courses read from database at once by rebuild and catch up
+     */
+    static final int CHUNK_SIZE = 500;
+
+    /**
+     * Words of phrase over this number are not searched
+     */
+    static final int MAX_QUERY_WORDS = 10;
+
+    /**
+     * Every star of average rate raises relevance by 10%.
+     */
+    private static final double RATING_BOOST = 0.1;
+
+    /**
+     * Relevance of word matched only as prefix of indexed one, relative to the whole word
+     */
+    private static final float PREFIX_WEIGHT = 0.5f;
+
+    private static final String ID_FIELD = "id";
+
+    private static final String TITLE_FIELD = "title";
+
+    private static final String TOPICS_FIELD = "topics";
+
+    private static final String DESCRIPTION_FIELD = "description";
+
+    /**
+     * Stored title and short description, highlighted in search results
+     */
+    private static final String HIGHLIGHT_FIELD = "highlight";
+
+    private static final String RATING_BOOST_FIELD = "ratingBoost";
+
+    /**
+     * Key of commit user data with token of course changes included in commit, indexes written with other key are caught up from the start of log
+     */
+    private static final String CHECKPOINT = "changeCheckpoint";
+
+    /**
+     * File in index directory with name of subdirectory of current index, replaced atomically on rebuild
+     */
+    private static final String CURRENT_FILE = "current";
+
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(
+            TITLE_FIELD, 5.0f,
+            TOPICS_FIELD, 2.0f,
+            DESCRIPTION_FIELD, 1.0f);
+
+    private static final Sort ORDER = new Sort(SortField.FIELD_SCORE, new SortField(ID_FIELD, SortField.Type.LONG));
+
+    /**
+     * Words as written, case and diacritics insensitive
+     */
+    private static final Analyzer EXACT_ANALYZER = new Analyzer() {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            return new TokenStreamComponents(tokenizer, new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer)));
+        }
+    };
+
+    private static final Map<Language, Analyzer> LANGUAGE_ANALYZERS = new EnumMap<>(Map.of(
+            Language.ENGLISH, new EnglishAnalyzer(),
+            Language.DEUTSCH, new GermanAnalyzer(),
+            Language.FRENCH, new FrenchAnalyzer(),
+            Language.POLISH, new PolishAnalyzer()));
+
+    private static final Analyzer INDEX_ANALYZER = new PerFieldAnalyzerWrapper(EXACT_ANALYZER, FIELD_WEIGHTS.keySet().stream()
+            .flatMap(field -> LANGUAGE_ANALYZERS.entrySet().stream()
+                    .map(analyzer -> Map.entry(stemmedField(field, analyzer.getKey()), analyzer.getValue())))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSearchIndex.class);
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseChangeRepository changeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Directory of index, index is held in memory only when empty
+     */
+    @Value("${search.index.directory:${java.io.tmpdir}/course-website-search-index}")
+    private String directory;
+
+    private Path root;
+
+    private volatile Generation current;
+
+    /**
+     * Token of course changes read at previous commit, written with the next one. All transactions up to it
+     * had finished at least one commit delay before, so their after commit writes are already in index.
+     */
+    private long checkpoint;
+
+    /**
+     * Writes applied during rebuild, replayed on rebuilt index. Null when rebuild is not running.
+     */
+    private List<IndexWrite> writesDuringRebuild;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    /**
+     * Rebuilds started in background and directly never run at once
+     */
+    private final Object rebuildLock = new Object();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-rebuilder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @return false when index is not opened yet, searches are answered by database then
+     */
+    public boolean isReady() {
+        return current != null;
+    }
+
+    /**
+     * Hits are ordered from the most relevant, then by id. Every word of phrase has to match one of fields,
+     * as written, as prefix of indexed word or in stemmed form of one of the languages.
+     * @param after the last hit from previous page, null for first page
+     * @param limit max number of returned hits
+     */
+    public List<CourseSearchHit> search(String phrase, CourseSearchHit after, int limit) {
+        List<String> words = phrase == null ? List.of() : SearchQueryUtil.words(phrase);
+        if (words.isEmpty())
+            return new ArrayList<>();
+
+        words = words.subList(0, Math.min(words.size(), MAX_QUERY_WORDS));
+        Query query = FunctionScoreQuery.boostByValue(createQuery(words), DoubleValuesSource.fromDoubleField(RATING_BOOST_FIELD));
+        while (true) {
+            Generation generation = current;
+            if (generation == null)
+                return new ArrayList<>();
+            try {
+                return search(generation, query, createHighlightQuery(words), after, limit);
+            } catch (AlreadyClosedException e) {
+                // index was swapped by rebuild in the meantime
+                if (generation == current)
+                    throw e;
+            }
+        }
+    }
+
+    private List<CourseSearchHit> search(Generation generation, Query query, Query highlightQuery, CourseSearchHit after, int limit) {
+        IndexSearcher searcher = generation.searchers.acquire();
+        try {
+            TopDocs top = after == null
+                    ? searcher.search(query, limit, ORDER, true)
+                    : searcher.searchAfter(new FieldDoc(Integer.MAX_VALUE, (float) after.getRank(), new Object[]{(float) after.getRank(), after.getId()}),
+                    query, limit, ORDER, true);
+            if (top.scoreDocs.length == 0)
+                return new ArrayList<>();
+
+            UnifiedHighlighter highlighter = new UnifiedHighlighter(searcher, EXACT_ANALYZER);
+            highlighter.setBreakIterator(WholeBreakIterator::new);
+            highlighter.setFormatter(new DefaultPassageFormatter("<b>", "</b>", "... ", false));
+            String[] highlights = highlighter.highlight(HIGHLIGHT_FIELD, highlightQuery, top);
+
+            List<CourseSearchHit> hits = new ArrayList<>();
+            for (int i = 0; i < top.scoreDocs.length; i++) {
+                FieldDoc hit = (FieldDoc) top.scoreDocs[i];
+                hits.add(new CourseSearchHit((Long) hit.fields[1], hit.score, highlights[i]));
+            }
+            return hits;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                generation.searchers.release(searcher);
+            } catch (IOException e) {
+                logger.error("Releasing course searcher failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Every word has to match, field weights scale BM25 scores of its matches.
+     */
+    private static Query createQuery(List<String> words) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String word : words) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            FIELD_WEIGHTS.forEach((field, weight) -> {
+                for (String term : analyze(EXACT_ANALYZER, field, word)) {
+                    anyField.add(new BoostQuery(new TermQuery(new Term(field, term)), weight), BooleanClause.Occur.SHOULD);
+                    anyField.add(new BoostQuery(new PrefixQuery(new Term(field, term)), weight * PREFIX_WEIGHT), BooleanClause.Occur.SHOULD);
+                }
+                LANGUAGE_ANALYZERS.forEach((language, analyzer) -> {
+                    String stemmed = stemmedField(field, language);
+                    for (String term : analyze(analyzer, stemmed, word))
+                        anyField.add(new BoostQuery(new TermQuery(new Term(stemmed, term)), weight), BooleanClause.Occur.SHOULD);
+                });
+            });
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    /**
+     * Highlighted text is analyzed as written, so words are marked when they match as written or as prefix.
+     */
+    private static Query createHighlightQuery(List<String> words) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String word : words) {
+            for (String term : analyze(EXACT_ANALYZER, HIGHLIGHT_FIELD, word))
+                query.add(new PrefixQuery(new Term(HIGHLIGHT_FIELD, term)), BooleanClause.Occur.SHOULD);
+        }
+        return query.build();
+    }
+
+    private static List<String> analyze(Analyzer analyzer, String field, String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken())
+                terms.add(term.toString());
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    /**
+     * Adds new course or replaces existing one. Document is created at once,
+     * so lazy description and feedback are loaded within current transaction.
+     */
+    public void putCourse(Course course) {
+        if (course.getId() == null)
+            return;
+
+        String shortDescription = course.getCourseDescription() == null ? null : course.getCourseDescription().getShortDescription();
+        String longDescription = course.getCourseDescription() == null ? null : course.getCourseDescription().getLongDescription();
+        List<String> mainTopics = course.getCourseDescription() == null ? null : course.getCourseDescription().getMainTopics();
+        Document document = toDocument(new CourseSearchDocument(course.getId(), course.getTitle(), shortDescription, longDescription,
+                mainTopics == null ? null : String.join(" ", mainTopics), Language.toMask(course.getLanguages()),
+                course.getCourseFeedback() == null ? 0 : course.getCourseFeedback().getAvgRate()));
+        write(writer -> writer.updateDocument(idTerm(course.getId()), document));
+    }
+
+    public void removeCourse(Long id) {
+        write(writer -> writer.deleteDocuments(idTerm(id)));
+    }
+
+    /**
+     * Changes only rating boost of course, without reindexing its texts.
+     */
+    public void updateRating(Long id, double avgRate) {
+        write(writer -> writer.updateDocValues(idTerm(id), new DoubleDocValuesField(RATING_BOOST_FIELD, ratingBoost(avgRate))));
+    }
+
+    private static Document toDocument(CourseSearchDocument course) {
+        Set<Language> languages = Language.fromMask(course.getLanguagesMask());
+        Document document = new Document();
+        document.add(new StringField(ID_FIELD, course.getId().toString(), Field.Store.NO));
+        document.add(new NumericDocValuesField(ID_FIELD, course.getId()));
+        document.add(new DoubleDocValuesField(RATING_BOOST_FIELD, ratingBoost(course.getAvgRate())));
+        addText(document, TITLE_FIELD, course.getTitle(), languages);
+        addText(document, TOPICS_FIELD, joinNonNull(course.getShortDescription(), course.getMainTopics(), " "), languages);
+        addText(document, DESCRIPTION_FIELD, course.getLongDescription(), languages);
+        document.add(new TextField(HIGHLIGHT_FIELD, joinNonNull(course.getTitle(), course.getShortDescription(), " - "), Field.Store.YES));
+        return document;
+    }
+
+    private static void addText(Document document, String field, String text, Set<Language> languages) {
+        if (text == null || text.isEmpty())
+            return;
+
+        document.add(new TextField(field, text, Field.Store.NO));
+        for (Language language : languages)
+            document.add(new TextField(stemmedField(field, language), text, Field.Store.NO));
+    }
+
+    private static String joinNonNull(String first, String second, String separator) {
+        return Stream.of(first, second)
+                .filter(text -> text != null && !text.isEmpty())
+                .collect(Collectors.joining(separator));
+    }
+
+    private static String stemmedField(String field, Language language) {
+        return field + "." + language.name().toLowerCase();
+    }
+
+    private static double ratingBoost(double avgRate) {
+        return 1 + avgRate * RATING_BOOST;
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(ID_FIELD, id.toString());
+    }
+
+    /**
+     * Change is applied after commit of current transaction, so rolled back writes are never searched.
+     */
+    private void write(IndexWrite change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    /**
+     * Writers are serialized, searches started before refresh still see index without the change.
+     */
+    private synchronized void apply(IndexWrite change) {
+        if (current != null) {
+            try {
+                change.apply(current.writer);
+                current.searchers.maybeRefreshBlocking();
+            } catch (IOException e) {
+                logger.error("Course search index write failed: " + e.getMessage());
+            }
+        }
+        if (writesDuringRebuild != null)
+            writesDuringRebuild.add(change);
+    }
+
+    /**
+     * Opens index left on disk and reindexes only courses changed after its last commit.
+     * Index is rebuilt in background when there is none or database has fewer changes than index, ex. after it was recreated.
+     */
+    @PostConstruct
+    private void open() {
+        root = directory.isBlank() ? null : Paths.get(directory);
+        String name = readCurrentName();
+        if (name != null) {
+            Generation opened = null;
+            try {
+                opened = Generation.open(root.resolve(name), name, IndexWriterConfig.OpenMode.APPEND);
+                long changeCheckpoint = opened.readCheckpoint();
+                if (changeCheckpoint <= changeRepository.findCheckpoint()) {
+                    synchronized (this) {
+                        current = opened;
+                        checkpoint = changeCheckpoint;
+                    }
+                    catchUp(changeCheckpoint);
+                    return;
+                }
+                logger.info("Course search index is ahead of database, rebuilding it.");
+            } catch (IOException | RuntimeException e) {
+                logger.error("Opening course search index failed, rebuilding it: " + e.getMessage());
+            }
+            if (opened != null && opened != current)
+                opened.close();
+        }
+
+        // index held in memory is always empty at start, so it is built before it is used
+        if (root == null)
+            rebuild();
+        else
+            startRebuild();
+    }
+
+    private void catchUp(long afterId) {
+        List<CourseChange> changes;
+        do {
+            changes = changeRepository.findAfter(afterId, CHUNK_SIZE);
+            List<Long> ids = changes.stream().map(CourseChange::getCourseId).collect(Collectors.toList());
+            List<Document> documents = courseRepository.findSearchDocumentsByIds(ids).stream()
+                    .map(CourseSearchIndex::toDocument)
+                    .collect(Collectors.toList());
+            apply(writer -> {
+                writer.deleteDocuments(ids.stream().map(CourseSearchIndex::idTerm).toArray(Term[]::new));
+                writer.addDocuments(documents);
+            });
+            if (!changes.isEmpty())
+                afterId = changes.get(changes.size() - 1).getTransactionId();
+        } while (changes.size() >= CHUNK_SIZE);
+    }
+
+    /**
+     * Starts rebuild of index in background.
+     * @return false when rebuild is already running
+     */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true))
+            return false;
+
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Builds new index aside and swaps it, searches are answered by the old one in the meantime. Courses are read
+     * in chunks by ranges of ids, each chunk in its own short read only transaction.
+     * @return false when rebuild failed
+     */
+    boolean rebuild() {
+        synchronized (rebuildLock) {
+            return rebuildGeneration();
+        }
+    }
+
+    private boolean rebuildGeneration() {
+        synchronized (this) {
+            writesDuringRebuild = new ArrayList<>();
+        }
+
+        Generation rebuilt = null;
+        long changeCheckpoint = 0;
+        try {
+            changeCheckpoint = changeRepository.findCheckpoint();
+            String name = "index-" + System.currentTimeMillis();
+            rebuilt = root == null ? Generation.inMemory(name) : Generation.open(root.resolve(name), name, IndexWriterConfig.OpenMode.CREATE);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            long afterId = 0;
+            List<CourseSearchDocument> chunk;
+            do {
+                long chunkAfterId = afterId;
+                chunk = transaction.execute(status -> courseRepository.findSearchDocuments(chunkAfterId, CHUNK_SIZE));
+                for (CourseSearchDocument document : chunk)
+                    rebuilt.writer.addDocument(toDocument(document));
+                if (!chunk.isEmpty())
+                    afterId = chunk.get(chunk.size() - 1).getId();
+            } while (chunk.size() == CHUNK_SIZE);
+            rebuilt.commit(changeCheckpoint);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Course search index rebuild failed: " + e.getMessage());
+            if (rebuilt != null) {
+                rebuilt.close();
+                deleteGeneration(rebuilt.name);
+            }
+            rebuilt = null;
+        }
+
+        Generation replaced = null;
+        synchronized (this) {
+            try {
+                if (rebuilt != null) {
+                    for (IndexWrite change : writesDuringRebuild)
+                        change.apply(rebuilt.writer);
+                    rebuilt.searchers.maybeRefreshBlocking();
+                    writeCurrentName(rebuilt.name);
+                    replaced = current;
+                    current = rebuilt;
+                    checkpoint = changeCheckpoint;
+                }
+            } catch (IOException e) {
+                logger.error("Course search index swap failed: " + e.getMessage());
+                rebuilt.close();
+                deleteGeneration(rebuilt.name);
+                rebuilt = null;
+            } finally {
+                writesDuringRebuild = null;
+            }
+        }
+
+        if (replaced != null) {
+            replaced.close();
+            deleteGeneration(replaced.name);
+        }
+        if (rebuilt != null)
+            logger.info("Course search index rebuilt.");
+        return rebuilt != null;
+    }
+
+    /**
+     * Searches do not need commits, they only make index durable and let restart skip already indexed changes.
+     */
+    @Scheduled(initialDelayString = "${search.index.commit-delay:10000}", fixedDelayString = "${search.index.commit-delay:10000}")
+    public void commit() {
+        long changeCheckpoint;
+        try {
+            changeCheckpoint = changeRepository.findCheckpoint();
+        } catch (RuntimeException e) {
+            logger.error("Reading course change checkpoint failed: " + e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            if (current == null)
+                return;
+            try {
+                current.commit(checkpoint);
+                checkpoint = changeCheckpoint;
+            } catch (IOException e) {
+                logger.error("Course search index commit failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    private void close() {
+        executor.shutdownNow();
+        synchronized (this) {
+            if (current == null)
+                return;
+            try {
+                current.commit(checkpoint);
+            } catch (IOException e) {
+                logger.error("Course search index commit failed: " + e.getMessage());
+            }
+            current.close();
+            current = null;
+        }
+    }
+
+    private String readCurrentName() {
+        if (root == null || !Files.exists(root.resolve(CURRENT_FILE)))
+            return null;
+        try {
+            String name = Files.readString(root.resolve(CURRENT_FILE), StandardCharsets.UTF_8).strip();
+            return name.isEmpty() ? null : name;
+        } catch (IOException e) {
+            logger.error("Reading current course search index failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Pointer file is replaced by rename, so restart opens either the old or the new index, never a half written one.
+     */
+    private void writeCurrentName(String name) throws IOException {
+        if (root == null)
+            return;
+        Path temporary = root.resolve(CURRENT_FILE + ".tmp");
+        Files.writeString(temporary, name, StandardCharsets.UTF_8);
+        Files.move(temporary, root.resolve(CURRENT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteGeneration(String name) {
+        if (root == null)
+            return;
+        try {
+            IOUtils.rm(root.resolve(name));
+        } catch (IOException e) {
+            logger.error("Deleting replaced course search index failed: " + e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexWrite {
+
+        void apply(IndexWriter writer) throws IOException;
+
+    }
+
+    /**
+     * One built index with its writer and searchers, replaced as whole by rebuild.
+     */
+    private static class Generation {
+
+        private final String name;
+
+        private final Directory directory;
+
+        private final IndexWriter writer;
+
+        private final SearcherManager searchers;
+
+        private Generation(String name, Directory directory, IndexWriterConfig.OpenMode mode) throws IOException {
+            this.name = name;
+            this.directory = directory;
+            writer = new IndexWriter(directory, new IndexWriterConfig(INDEX_ANALYZER).setOpenMode(mode));
+            searchers = new SearcherManager(writer, null);
+        }
+
+        private static Generation open(Path path, String name, IndexWriterConfig.OpenMode mode) throws IOException {
+            Directory directory = FSDirectory.open(path);
+            try {
+                return new Generation(name, directory, mode);
+            } catch (IOException | RuntimeException e) {
+                directory.close();
+                throw e;
+            }
+        }
+
+        private static Generation inMemory(String name) throws IOException {
+            return new Generation(name, new ByteBuffersDirectory(), IndexWriterConfig.OpenMode.CREATE);
+        }
+
+        private long readCheckpoint() throws IOException {
+            if (!DirectoryReader.indexExists(directory))
+                return 0;
+            String changeCheckpoint = SegmentInfos.readLatestCommit(directory).getUserData().get(CHECKPOINT);
+            return changeCheckpoint == null ? 0 : Long.parseLong(changeCheckpoint);
+        }
+
+        private void commit(long changeCheckpoint) throws IOException {
+            Map<String, String> data = new HashMap<>();
+            data.put(CHECKPOINT, String.valueOf(changeCheckpoint));
+            writer.setLiveCommitData(data.entrySet());
+            writer.commit();
+        }
+
+        private void close() {
+            try {
+                IOUtils.close(searchers, writer, directory);
+            } catch (IOException e) {
+                logger.error("Closing course search index failed: " + e.getMessage());
+            }
+        }
+
+    }
+
+}
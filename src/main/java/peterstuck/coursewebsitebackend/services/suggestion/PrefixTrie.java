@@ -0,0 +1,156 @@
+package peterstuck.coursewebsitebackend.services.suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Character trie in which every node keeps the best values of its whole subtree,
+ * so lookup of prefix costs only walk over prefix characters. Children are kept in sorted arrays instead of maps.
+ * Values are compared by identity, changed value has to be removed and added again. Not thread safe.
+ */
+class PrefixTrie<T> {
+
+    private final Comparator<? super T> order;
+
+    private final int limit;
+
+    private final Node<T> root = new Node<>();
+
+    PrefixTrie(Comparator<? super T> order, int limit) {
+        this.order = order;
+        this.limit = limit;
+    }
+
+    /**
+     * @return at most limit best values with key starting with prefix
+     */
+    List<T> find(String prefix) {
+        Node<T> node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++)
+            node = node.child(prefix.charAt(i));
+
+        return node == null ? List.of() : node.best;
+    }
+
+    void add(String key, T value) {
+        Node<T> node = root;
+        node.offer(value, order, limit);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            node.offer(value, order, limit);
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Best values are recomputed from children only on the path of removed key, emptied nodes are dropped.
+     */
+    void remove(String key, T value) {
+        List<Node<T>> path = new ArrayList<>(key.length() + 1);
+        Node<T> node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            if (node == null)
+                return;
+            path.add(node);
+        }
+        if (!node.values.removeIf(v -> v == value))
+            return;
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node<T> current = path.get(i);
+            if (i > 0 && current.isEmpty())
+                path.get(i - 1).removeChild(key.charAt(i - 1));
+            else
+                current.recompute(order, limit);
+        }
+    }
+
+    private static class Node<T> {
+
+        private char[] labels = new char[0];
+
+        private Node<T>[] children = newArray(0);
+
+        private final List<T> values = new ArrayList<>(1);
+
+        private List<T> best = List.of();
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] newArray(int size) {
+            return (Node<T>[]) new Node[size];
+        }
+
+        private Node<T> child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node<T> childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0)
+                return children[index];
+
+            int insertAt = -index - 1;
+            Node<T> child = new Node<>();
+            char[] newLabels = new char[labels.length + 1];
+            Node<T>[] newChildren = newArray(children.length + 1);
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = child;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0)
+                return;
+
+            char[] newLabels = new char[labels.length - 1];
+            Node<T>[] newChildren = newArray(children.length - 1);
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private boolean isEmpty() {
+            return values.isEmpty() && labels.length == 0;
+        }
+
+        /**
+         * Adds value to best ones when it is better than the worst of them, the same value is kept once.
+         */
+        private void offer(T value, Comparator<? super T> order, int limit) {
+            if (best.size() >= limit && order.compare(value, best.get(best.size() - 1)) >= 0)
+                return;
+            if (best.stream().anyMatch(v -> v == value))
+                return;
+
+            List<T> merged = new ArrayList<>(best);
+            merged.add(value);
+            merged.sort(order);
+            best = List.copyOf(merged.subList(0, Math.min(merged.size(), limit)));
+        }
+
+        private void recompute(Comparator<? super T> order, int limit) {
+            best = Stream.concat(values.stream(), Arrays.stream(children).flatMap(child -> child.best.stream()))
+                    .distinct()
+                    .sorted(order)
+                    .limit(limit)
+                    .collect(Collectors.toUnmodifiableList());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package peterstuck.coursewebsitebackend.services.suggestion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.utils.SearchQueryUtil;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Spelling correction over words of course titles and main topics, using deletion dictionary (SymSpell).
+ * Every word is stored under all variants of its prefix with up to MAX_DISTANCE letters deleted,
+ * so lookup generates deletes of typed word only and checks distance of few candidates, never scanning all words.
+ * New titles and topics are added after commit, words of removed courses are dropped by periodic rebuild.
+ */
+@Component
+public class SpellingDictionary {
+
+    private static final int MAX_DISTANCE = 2;
+
+    /**
+     * Only this many first letters are used for deletes, which bounds memory and lookup cost for long words.
+     */
+    private static final int PREFIX_LENGTH = 7;
+
+    /**
+     * Shorter words are neither stored nor corrected.
+     */
+    private static final int MIN_WORD_LENGTH = 3;
+
+    /**
+     * Words up to this length are corrected only by single edit.
+     */
+    private static final int SHORT_WORD_LENGTH = 5;
+
+    private static final Logger logger = LoggerFactory.getLogger(SpellingDictionary.class);
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private volatile Words words = new Words();
+
+    /**
+     * Words loaded by running rebuild, new words are added to them as well. Null when rebuild is not running.
+     */
+    private volatile Words rebuilt;
+
+    /**
+     * @return phrase with misspelled words replaced by the most frequent closest known ones,
+     * null when every word is known or no close word was found
+     */
+    public String correct(String phrase) {
+        List<String> typed = SearchQueryUtil.words(phrase);
+        List<String> corrected = typed.stream()
+                .map(words::correct)
+                .collect(Collectors.toList());
+
+        return corrected.equals(typed) ? null : String.join(" ", corrected);
+    }
+
+    /**
+     * Adds words of texts after commit of current transaction.
+     */
+    public void addAll(Collection<String> texts) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(texts);
+                }
+            });
+        } else {
+            add(texts);
+        }
+    }
+
+    private void add(Collection<String> texts) {
+        Words loading = rebuilt;
+        texts.forEach(words::addText);
+        if (loading != null)
+            texts.forEach(loading::addText);
+    }
+
+    /**
+     * Words are loaded aside and swapped, texts committed during rebuild are added to both dictionaries.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${suggestions.refresh-delay:300000}", fixedDelayString = "${suggestions.refresh-delay:300000}")
+    public synchronized void rebuild() {
+        Words loading = new Words();
+        rebuilt = loading;
+        try {
+            courseRepository.findAllTitles().forEach(loading::addText);
+            courseRepository.findAllMainTopics().forEach(loading::addText);
+            words = loading;
+        } catch (RuntimeException e) {
+            logger.error("Spelling dictionary rebuild failed: " + e.getMessage());
+        } finally {
+            rebuilt = null;
+        }
+    }
+
+    private static class Words {
+
+        /**
+         * Number of occurrences of word in all titles and topics
+         */
+        private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+        /**
+         * Deletes of word prefixes mapped to words they come from
+         */
+        private final Map<String, Set<String>> deletes = new ConcurrentHashMap<>();
+
+        private void addText(String text) {
+            if (text == null)
+                return;
+
+            for (String word : SearchQueryUtil.words(text)) {
+                if (word.length() >= MIN_WORD_LENGTH && counts.merge(word, 1, Integer::sum) == 1) {
+                    for (String delete : deletesOf(prefixOf(word), MAX_DISTANCE))
+                        deletes.computeIfAbsent(delete, key -> ConcurrentHashMap.newKeySet()).add(word);
+                }
+            }
+        }
+
+        /**
+         * Known words in any distance from typed one may share delete of prefix only,
+         * so real distance is checked for candidates.
+         */
+        private String correct(String typed) {
+            if (typed.length() < MIN_WORD_LENGTH || counts.containsKey(typed))
+                return typed;
+
+            int maxDistance = typed.length() <= SHORT_WORD_LENGTH ? 1 : MAX_DISTANCE;
+            String best = typed;
+            int bestDistance = maxDistance + 1;
+            int bestCount = 0;
+            for (String delete : deletesOf(prefixOf(typed), maxDistance)) {
+                for (String candidate : deletes.getOrDefault(delete, Set.of())) {
+                    int distance = distance(typed, candidate, maxDistance);
+                    int count = counts.getOrDefault(candidate, 0);
+                    boolean better = distance < bestDistance
+                            || distance == bestDistance && (count > bestCount || count == bestCount && candidate.compareTo(best) < 0);
+                    if (distance <= maxDistance && better) {
+                        best = candidate;
+                        bestDistance = distance;
+                        bestCount = count;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    private static String prefixOf(String word) {
+        return word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+    }
+
+    /**
+     * @return word itself and all variants of it with up to maxDistance letters deleted
+     */
+    private static Set<String> deletesOf(String word, int maxDistance) {
+        Set<String> deletes = new HashSet<>();
+        deletes.add(word);
+        Set<String> level = Set.of(word);
+        for (int distance = 1; distance <= maxDistance; distance++) {
+            Set<String> next = new HashSet<>();
+            for (String variant : level) {
+                for (int i = 0; i < variant.length() && variant.length() > 1; i++)
+                    next.add(variant.substring(0, i) + variant.substring(i + 1));
+            }
+            deletes.addAll(next);
+            level = next;
+        }
+        return deletes;
+    }
+
+    /**
+     * Optimal string alignment distance, adjacent transposition counts as single edit.
+     * @return distance or maxDistance + 1 when words differ more
+     */
+    private static int distance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance)
+            return maxDistance + 1;
+
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++)
+            d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++)
+            d[0][j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            int rowMin = Integer.MAX_VALUE;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1))
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                rowMin = Math.min(rowMin, d[i][j]);
+            }
+            if (rowMin > maxDistance)
+                return maxDistance + 1;
+        }
+        return Math.min(d[a.length()][b.length()], maxDistance + 1);
+    }
+}
@@ -0,0 +1,269 @@
+package peterstuck.coursewebsitebackend.services.suggestion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import peterstuck.coursewebsitebackend.models.course.Suggestion;
+import peterstuck.coursewebsitebackend.repositories.CategoryRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.utils.SearchKeyUtil;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In memory prefix index of course titles and category names. Every word of title or name is indexed,
+ * so typed prefix matches also words in the middle. Writes of courses and categories are applied after commit,
+ * rating and popularity of all entries are refreshed by periodic rebuild.
+ */
+@Component
+public class SuggestionIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    /**
+     * Indexed keys are cut to this length, longer prefixes are narrowed to hits of cut one.
+     */
+    private static final int MAX_KEY_LENGTH = 30;
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Entries entries = new Entries();
+
+    /**
+     * Writes applied during rebuild, replayed on rebuilt entries. Null when rebuild is not running.
+     */
+    private List<Consumer<Entries>> writesDuringRebuild;
+
+    /**
+     * @param prefix typed text, case and diacritics insensitive
+     * @param size max number of courses and max number of categories, limited to MAX_SUGGESTIONS
+     * @return courses in given order and categories from the most popular
+     */
+    public List<Suggestion> findCourses(String prefix, SuggestionSort sort, int size) {
+        return find(entries -> entries.courses.get(sort), prefix, size);
+    }
+
+    public List<Suggestion> findCategories(String prefix, int size) {
+        return find(entries -> entries.categories, prefix, size);
+    }
+
+    private List<Suggestion> find(Function<Entries, PrefixTrie<Suggestion>> trie, String prefix, int size) {
+        String key = normalize(prefix).stripLeading();
+        if (key.isEmpty())
+            return List.of();
+
+        List<Suggestion> found;
+        lock.readLock().lock();
+        try {
+            found = trie.apply(entries).find(key.substring(0, Math.min(key.length(), MAX_KEY_LENGTH)));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (Suggestion suggestion : found) {
+            if (suggestions.size() >= Math.min(Math.max(size, 1), MAX_SUGGESTIONS))
+                break;
+            if (key.length() <= MAX_KEY_LENGTH || normalize(suggestion.getText()).contains(key))
+                suggestions.add(suggestion);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Adds new course or changes title of existing one keeping its rating and popularity.
+     */
+    public void putCourse(Long id, String title) {
+        write(entries -> entries.putCourse(id, title));
+    }
+
+    public void removeCourse(Long id) {
+        write(entries -> entries.removeCourse(id));
+    }
+
+    /**
+     * Adds new category or changes name of existing one keeping its popularity.
+     */
+    public void putCategory(Long id, String name) {
+        write(entries -> entries.putCategory(id, name));
+    }
+
+    public void removeCategory(Long id) {
+        write(entries -> entries.removeCategory(id));
+    }
+
+    /**
+     * Change is applied after commit of current transaction, so rolled back writes are never suggested.
+     */
+    private void write(Consumer<Entries> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<Entries> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(entries);
+            if (writesDuringRebuild != null)
+                writesDuringRebuild.add(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads all titles and names with current ratings and popularity. Index is built aside and swapped,
+     * so suggestions are served from the old one in the meantime.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${suggestions.refresh-delay:300000}", fixedDelayString = "${suggestions.refresh-delay:300000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Entries rebuilt = new Entries();
+        boolean loaded = false;
+        try {
+            courseRepository.findAllSuggestions().forEach(rebuilt::putCourse);
+            categoryRepository.findAllSuggestions().forEach(rebuilt::putCategory);
+            loaded = true;
+        } catch (RuntimeException e) {
+            logger.error("Suggestion index rebuild failed: " + e.getMessage());
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                writesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                entries = rebuilt;
+            }
+            writesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String normalize(String text) {
+        return SearchKeyUtil.toSearchKey(text);
+    }
+
+    /**
+     * Keys of text are its suffixes starting at every word, cut to MAX_KEY_LENGTH.
+     */
+    private static Set<String> keysOf(String text) {
+        String normalized = normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(normalized.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)));
+            if (wordStart)
+                keys.add(normalized.substring(i, Math.min(normalized.length(), i + MAX_KEY_LENGTH)));
+        }
+        return keys;
+    }
+
+    /**
+     * Tries of courses, one per order, and trie of categories with entries they were built from.
+     */
+    private static class Entries {
+
+        private final Map<SuggestionSort, PrefixTrie<Suggestion>> courses = new EnumMap<>(SuggestionSort.class);
+
+        private final PrefixTrie<Suggestion> categories = new PrefixTrie<>(SuggestionSort.POPULARITY.order, MAX_SUGGESTIONS);
+
+        private final Map<Long, Suggestion> courseEntries = new HashMap<>();
+
+        private final Map<Long, Suggestion> categoryEntries = new HashMap<>();
+
+        private Entries() {
+            for (SuggestionSort sort : SuggestionSort.values())
+                courses.put(sort, new PrefixTrie<>(sort.order, MAX_SUGGESTIONS));
+        }
+
+        private void putCourse(Long id, String title) {
+            Suggestion old = courseEntries.get(id);
+            putCourse(old == null
+                    ? new Suggestion(id, title, 0, 0.0)
+                    : new Suggestion(id, title, old.getPopularity(), old.getRating()));
+        }
+
+        private void putCourse(Suggestion course) {
+            removeCourse(course.getId());
+            if (course.getText() == null)
+                return;
+
+            courseEntries.put(course.getId(), course);
+            for (String key : keysOf(course.getText()))
+                courses.values().forEach(trie -> trie.add(key, course));
+        }
+
+        private void removeCourse(Long id) {
+            Suggestion old = courseEntries.remove(id);
+            if (old == null)
+                return;
+
+            for (String key : keysOf(old.getText()))
+                courses.values().forEach(trie -> trie.remove(key, old));
+        }
+
+        private void putCategory(Long id, String name) {
+            Suggestion old = categoryEntries.get(id);
+            putCategory(new Suggestion(id, name, old == null ? 0 : old.getPopularity(), 0.0));
+        }
+
+        private void putCategory(Suggestion category) {
+            removeCategory(category.getId());
+            if (category.getText() == null)
+                return;
+
+            categoryEntries.put(category.getId(), category);
+            for (String key : keysOf(category.getText()))
+                categories.add(key, category);
+        }
+
+        private void removeCategory(Long id) {
+            Suggestion old = categoryEntries.remove(id);
+            if (old == null)
+                return;
+
+            for (String key : keysOf(old.getText()))
+                categories.remove(key, old);
+        }
+    }
+}
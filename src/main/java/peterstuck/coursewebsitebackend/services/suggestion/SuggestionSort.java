@@ -0,0 +1,46 @@
+package peterstuck.coursewebsitebackend.services.suggestion;
+
+import peterstuck.coursewebsitebackend.exceptions.InvalidSortException;
+import peterstuck.coursewebsitebackend.models.course.Suggestion;
+
+import java.util.Comparator;
+
+/**
+ * Supported orders of suggested courses, ties are broken by text and id so every order is total.
+ */
+public enum SuggestionSort {
+
+    POPULARITY("popularity", Comparator.comparingLong(Suggestion::getPopularity).reversed()
+            .thenComparing(Comparator.comparingDouble(Suggestion::getRating).reversed())),
+    RATING("rating", Comparator.comparingDouble(Suggestion::getRating).reversed()
+            .thenComparing(Comparator.comparingLong(Suggestion::getPopularity).reversed()));
+
+    /**
+     * Name of order in request param
+     */
+    public final String param;
+
+    public final Comparator<Suggestion> order;
+
+    SuggestionSort(String param, Comparator<Suggestion> order) {
+        this.param = param;
+        this.order = order
+                .thenComparing(Suggestion::getText)
+                .thenComparing(Suggestion::getId);
+    }
+
+    /**
+     * @return POPULARITY order when param is not provided
+     * @throws InvalidSortException when order with given param not exists
+     */
+    public static SuggestionSort fromParam(String param) throws InvalidSortException {
+        if (param == null)
+            return POPULARITY;
+
+        for (SuggestionSort sort : values()) {
+            if (sort.param.equals(param))
+                return sort;
+        }
+        throw new InvalidSortException("Sort: " + param + " is not supported.");
+    }
+}
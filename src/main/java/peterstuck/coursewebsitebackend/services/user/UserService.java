@@ -4,6 +4,9 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import peterstuck.coursewebsitebackend.exceptions.UsernameNotUniqueException;
 import peterstuck.coursewebsitebackend.models.user.User;
+import peterstuck.coursewebsitebackend.repositories.user.UserField;
+
+import java.util.Set;
 
 public interface UserService extends UserDetailsService {
 
@@ -11,6 +14,9 @@ public interface UserService extends UserDetailsService {
 
     String update(String token, User user) throws UsernameNotFoundException;
 
-    User getUserInfo(String token) throws UsernameNotFoundException;
+    /**
+     * @param fields selected fields, associations of other fields are not loaded
+     */
+    User getUserInfo(String token, Set<UserField> fields) throws UsernameNotFoundException;
 
 }
@@ -9,18 +9,22 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import peterstuck.coursewebsitebackend.exceptions.UsernameNotUniqueException;
+import peterstuck.coursewebsitebackend.models.course.Course;
 import peterstuck.coursewebsitebackend.models.user.Role;
 import peterstuck.coursewebsitebackend.models.user.User;
 import peterstuck.coursewebsitebackend.models.user.UserActivity;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFetchPlan;
 import peterstuck.coursewebsitebackend.repositories.user.RegistrationType;
+import peterstuck.coursewebsitebackend.repositories.user.UserField;
 import peterstuck.coursewebsitebackend.repositories.user.UserRepository;
 import peterstuck.coursewebsitebackend.utils.JwtUtil;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import static peterstuck.coursewebsitebackend.utils.ObjectInitializer.initializeUserObject;
 import static peterstuck.coursewebsitebackend.utils.ObjectUpdater.updateUser;
 
 @Service
@@ -33,6 +37,9 @@ public class UserServiceImpl implements UserService {
     @Qualifier("userValidatorImpl")
     private UserValidator validator;
 
+    @Autowired
+    private CourseRepository courseRepository;
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -80,9 +87,22 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
-    public User getUserInfo(String token) throws UsernameNotFoundException {
-        User user = extractUsernameAndGetUser(token);
-        initializeUserObject(user);
+    public User getUserInfo(String token, Set<UserField> fields) throws UsernameNotFoundException {
+        User user = repository.findInfoByEmail(jwtUtil.extractUsername(token.substring(7)), fields);
+        if (user == null) {
+            throw new UsernameNotFoundException("Wrong token.");
+        }
+
+        if (fields.contains(UserField.PURCHASED_COURSES)) {
+            List<Long> purchasedCourseIds = user.getPurchasedCourses()
+                    .stream()
+                    .map(Course::getId)
+                    .collect(Collectors.toList());
+            // Result is not used on purpose: loaded courses are the same instances as in purchasedCourses of user,
+            // so their authors are initialized in persistence context with one query instead of one per course.
+            // Replacing the collection with returned list would make Hibernate rewrite rows of website_user_course.
+            courseRepository.findAllById(purchasedCourseIds, CourseFetchPlan.USER_INFO);
+        }
 
         return user;
     }
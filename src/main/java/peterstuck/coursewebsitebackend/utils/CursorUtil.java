@@ -0,0 +1,48 @@
+package peterstuck.coursewebsitebackend.utils;
+
+import peterstuck.coursewebsitebackend.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes opaque cursors used in keyset pagination.
+ * Cursor points to the last row of previous page, so next page starts right after it.
+ * Only the last part of cursor may contain separator, so free text values should be passed last.
+ */
+public class CursorUtil {
+
+    private static final String SEPARATOR = ":";
+
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    public static String encode(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) raw.append(SEPARATOR);
+            raw.append(parts[i]);
+        }
+        return encoder.encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param partsCount number of parts cursor was encoded with
+     * @return parts of the last row of previous page, null when cursor is not provided (first page)
+     * @throws InvalidCursorException when cursor was not created by this application
+     */
+    public static String[] decode(String cursor, int partsCount) throws InvalidCursorException {
+        if (cursor == null || cursor.isBlank())
+            return null;
+
+        try {
+            String[] parts = new String(decoder.decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, partsCount);
+            if (parts.length != partsCount)
+                throw new InvalidCursorException("Cursor: " + cursor + " is not valid.");
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Cursor: " + cursor + " is not valid.");
+        }
+    }
+
+}
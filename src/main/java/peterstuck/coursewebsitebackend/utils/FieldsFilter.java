@@ -0,0 +1,81 @@
+package peterstuck.coursewebsitebackend.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Selects properties of models annotated with JsonFilter("JsonFilter") while response is serialized,
+ * so models are written once and skipped properties are never read. Properties without rules are written.
+ */
+public class FieldsFilter extends SimpleBeanPropertyFilter {
+
+    public static final String FILTER_NAME = "JsonFilter";
+
+    private final Map<Class<?>, Predicate<String>> classRules = new HashMap<>();
+
+    private final Map<Object, Predicate<String>> objectRules = new IdentityHashMap<>();
+
+    /**
+     * Writes only given properties of given object, ex. fields selected by client for root of response.
+     */
+    public FieldsFilter only(Object target, Collection<String> properties) {
+        Set<String> included = new HashSet<>(properties);
+        objectRules.merge(target, included::contains, Predicate::and);
+        return this;
+    }
+
+    /**
+     * Skips given properties of all objects of given class.
+     */
+    public FieldsFilter except(Class<?> type, String... properties) {
+        Set<String> excluded = new HashSet<>(Arrays.asList(properties));
+        classRules.merge(type, property -> !excluded.contains(property), Predicate::and);
+        return this;
+    }
+
+    /**
+     * @return value written with this filter by message converter
+     */
+    public MappingJacksonValue apply(Object value) {
+        MappingJacksonValue filtered = new MappingJacksonValue(value);
+        filtered.setFilters(new SimpleFilterProvider().addFilter(FILTER_NAME, this));
+        return filtered;
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator generator, SerializerProvider provider, PropertyWriter writer) throws Exception {
+        if (isIncluded(pojo, writer.getName()))
+            writer.serializeAsField(pojo, generator, provider);
+        else if (!generator.canOmitFields())
+            writer.serializeAsOmittedField(pojo, generator, provider);
+    }
+
+    /**
+     * Rules of superclasses are applied too, as loaded entities may be instances of proxy subclasses.
+     */
+    private boolean isIncluded(Object pojo, String property) {
+        Predicate<String> objectRule = objectRules.get(pojo);
+        if (objectRule != null && !objectRule.test(property))
+            return false;
+
+        for (Class<?> type = pojo.getClass(); type != null; type = type.getSuperclass()) {
+            Predicate<String> classRule = classRules.get(type);
+            if (classRule != null && !classRule.test(property))
+                return false;
+        }
+        return true;
+    }
+}
@@ -15,12 +15,6 @@ public class JsonFilter {
 
     private static ObjectMapper mapper = new ObjectMapper();
 
-    public static Object filterFields(Object obj, String filterName, String ... exceptFields) throws JsonProcessingException {
-        String objAsString = castObjectToJsonString(obj, filterName, exceptFields);
-
-        return mapper.readValue(objAsString, obj.getClass());
-    }
-
     public static String castObjectToJsonString(Object obj, String filterName, String ... exceptFields) throws JsonProcessingException {
         SimpleBeanPropertyFilter simpleBeanPropertyFilter =
                 SimpleBeanPropertyFilter.serializeAllExcept(
@@ -0,0 +1,68 @@
+package peterstuck.coursewebsitebackend.utils;
+
+import java.text.Collator;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class SearchKeyUtil {
+
+    private static final Locale POLISH = new Locale("pl", "PL");
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Lowercased text in compatibility decomposition (NFKD) without diacritics, ex. "Zarządzanie Łodzią" gives "zarzadzanie lodzia".
+     * Polish "ł" has no decomposition, so it is folded separately.
+     * @return null when text is null
+     */
+    public static String toSearchKey(String text) {
+        if (text == null)
+            return null;
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('ł', 'l')
+                .replace('Ł', 'L')
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Polish collation key of text. Keys compared byte by byte order texts alphabetically, ex. "ćma" between "cma" and "dom".
+     * @return null when text is null
+     */
+    public static byte[] toSortKey(String text) {
+        if (text == null)
+            return null;
+
+        return Collator.getInstance(POLISH).getCollationKey(text).toByteArray();
+    }
+
+    public static String toHex(byte[] bytes) {
+        if (bytes == null)
+            return null;
+
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * @throws NumberFormatException when text is not hex encoded bytes
+     */
+    public static byte[] fromHex(String hex) {
+        if (hex.length() % 2 != 0)
+            throw new NumberFormatException("Odd length of hex: " + hex);
+
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        return bytes;
+    }
+
+}
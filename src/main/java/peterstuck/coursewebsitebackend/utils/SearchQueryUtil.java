@@ -0,0 +1,19 @@
+package peterstuck.coursewebsitebackend.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public class SearchQueryUtil {
+
+    /**
+     * @return lowercased words of text in their order, split on everything which is not a letter or digit
+     */
+    public static List<String> words(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,154 @@
+package peterstuck.coursewebsitebackend.repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseChange;
+import peterstuck.coursewebsitebackend.models.course.CourseFeedback;
+import peterstuck.coursewebsitebackend.services.catalog.CatalogIndex;
+import peterstuck.coursewebsitebackend.services.catalog.CourseCatalog;
+import peterstuck.coursewebsitebackend.services.comment.RatingPublisher;
+import peterstuck.coursewebsitebackend.services.search.CourseSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Transactions of change log writers run concurrently against real database, so every test commits and cleans up after itself.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "catalog.index.enabled=false")
+class CourseChangeRepositoryTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private CourseChangeRepository changeRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseFeedbackRepository feedbackRepository;
+
+    @Autowired
+    private RatingPublisher ratingPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private CatalogIndex catalogIndex;
+
+    @MockBean
+    private CourseCatalog courseCatalog;
+
+    @MockBean
+    private CourseSearchIndex searchIndex;
+
+    private final List<Course> courses = new ArrayList<>();
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < 2; i++) {
+            Course course = new Course();
+            course.setTitle("Change log " + i);
+            course.setPrice(10.0);
+            course.setCourseFeedback(new CourseFeedback());
+            courses.add(courseRepository.save(course));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Long> ids = courseIds();
+        changeRepository.deleteAll(changeRepository.findAll().stream()
+                .filter(change -> ids.contains(change.getCourseId()))
+                .collect(Collectors.toList()));
+        ids.forEach(courseRepository::deleteById);
+    }
+
+    @Test
+    void whenCommentBatchesChangeDifferentCoursesThenTheyDoNotWaitForEachOther() throws Exception {
+        long checkpoint = changeRepository.findCheckpoint();
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch secondCommitted = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> writeCommentBatch(courses.get(0), () -> {
+            firstWritten.countDown();
+            await(secondCommitted);
+        }));
+        assertThat(firstWritten.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+
+        // first batch holds its transaction open until second one commits
+        CompletableFuture.runAsync(() -> writeCommentBatch(courses.get(1), () -> {})).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        List<Long> readBeforeFirstCommit = changedCourseIds(checkpoint, 100);
+        secondCommitted.countDown();
+        first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertThat(readBeforeFirstCommit, empty());
+        assertThat(changedCourseIds(checkpoint, 100), contains(courses.get(0).getId(), courses.get(1).getId()));
+    }
+
+    @Test
+    void whenLimitReachedInsideTransactionThenReturnWholeTransaction() {
+        long checkpoint = changeRepository.findCheckpoint();
+        transaction.executeWithoutResult(status -> courseIds().forEach(id -> changeRepository.record(id, false)));
+
+        List<CourseChange> changes = changeRepository.findAfter(checkpoint, 1);
+
+        assertThat(changes.stream().map(CourseChange::getCourseId).collect(Collectors.toList()), containsInAnyOrder(courseIds().toArray()));
+        assertThat(changes.get(0).getTransactionId(), equalTo(changes.get(1).getTransactionId()));
+        assertThat(changes.get(0).getTransactionId(), lessThanOrEqualTo(changeRepository.findCheckpoint()));
+    }
+
+    /**
+     * The same statements as comment batch, without inserts of comments.
+     */
+    private void writeCommentBatch(Course course, Runnable beforeCommit) {
+        Long feedbackId = course.getCourseFeedback().getId();
+        transaction.executeWithoutResult(status -> {
+            feedbackRepository.addRates(feedbackId, List.of(4.0));
+            ratingPublisher.publish(List.of(feedbackId));
+            beforeCommit.run();
+        });
+    }
+
+    private List<Long> changedCourseIds(long afterTransactionId, int limit) {
+        List<Long> ids = courseIds();
+        return changeRepository.findAfter(afterTransactionId, limit).stream()
+                .map(CourseChange::getCourseId)
+                .filter(ids::contains)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> courseIds() {
+        return courses.stream().map(Course::getId).collect(Collectors.toList());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
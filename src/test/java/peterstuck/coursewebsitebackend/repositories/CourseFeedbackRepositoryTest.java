@@ -0,0 +1,122 @@
+package peterstuck.coursewebsitebackend.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import peterstuck.coursewebsitebackend.models.course.CourseFeedback;
+import peterstuck.coursewebsitebackend.models.course.Rating;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Aggregate updates are single statements, so they are checked against real database. Every test is rolled back.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "catalog.index.enabled=false")
+@Transactional
+class CourseFeedbackRepositoryTest {
+
+    @Autowired
+    private CourseFeedbackRepository repository;
+
+    @Autowired
+    private EntityManager manager;
+
+    private Long feedbackId;
+
+    @BeforeEach
+    void setUp() {
+        CourseFeedback feedback = new CourseFeedback();
+        manager.persist(feedback);
+        manager.flush();
+        feedbackId = feedback.getId();
+    }
+
+    @Test
+    void whenRatesAddedThenCountThemInAggregatesAndHistogram() {
+        repository.addRates(feedbackId, List.of(5.0, 4.0, 4.5));
+
+        CourseFeedback feedback = reload();
+        assertThat(feedback.getRatesCount(), equalTo(3));
+        assertThat(feedback.getRatesSum(), closeTo(13.5, 1e-9));
+        assertThat(feedback.getAvgRate(), closeTo(4.5, 1e-9));
+        assertThat(feedback.getHistogram().get(Rating.FIVE), equalTo(1));
+        assertThat(feedback.getHistogram().get(Rating.FOUR), equalTo(1));
+        assertThat(feedback.getHistogram().get(Rating.FOUR_AND_HALF), equalTo(1));
+    }
+
+    @Test
+    void whenRateChangedThenRecomputeAverageAndMoveRateBetweenCounters() {
+        repository.addRates(feedbackId, List.of(5.0, 3.0));
+
+        repository.changeRate(feedbackId, 5.0, 1.0);
+
+        CourseFeedback feedback = reload();
+        assertThat(feedback.getRatesCount(), equalTo(2));
+        assertThat(feedback.getAvgRate(), closeTo(2.0, 1e-9));
+        assertThat(feedback.getHistogram().get(Rating.FIVE), equalTo(0));
+        assertThat(feedback.getHistogram().get(Rating.ONE), equalTo(1));
+        assertThat(feedback.getHistogram().get(Rating.THREE), equalTo(1));
+    }
+
+    @Test
+    void whenRateChangedWithinTheSameRatingThenKeepCounters() {
+        repository.addRates(feedbackId, List.of(4.0, 3.0));
+
+        repository.changeRate(feedbackId, 4.0, 4.2);
+
+        CourseFeedback feedback = reload();
+        assertThat(feedback.getAvgRate(), closeTo(3.6, 1e-9));
+        assertThat(feedback.getHistogram().get(Rating.FOUR), equalTo(1));
+    }
+
+    @Test
+    void whenRateRemovedThenAverageOfRemainingRates() {
+        repository.addRates(feedbackId, List.of(5.0, 3.0));
+
+        repository.removeRate(feedbackId, 3.0);
+
+        CourseFeedback feedback = reload();
+        assertThat(feedback.getRatesCount(), equalTo(1));
+        assertThat(feedback.getRatesSum(), closeTo(5.0, 1e-9));
+        assertThat(feedback.getAvgRate(), closeTo(5.0, 1e-9));
+        assertThat(feedback.getHistogram().get(Rating.THREE), equalTo(0));
+    }
+
+    @Test
+    void whenLastRateRemovedThenAverageAndSumAreZero() {
+        repository.addRates(feedbackId, List.of(1.1, 1.2));
+        repository.removeRate(feedbackId, 1.1);
+
+        repository.removeRate(feedbackId, 1.2);
+
+        CourseFeedback feedback = reload();
+        assertThat(feedback.getRatesCount(), equalTo(0));
+        assertThat(feedback.getRatesSum(), equalTo(0.0));
+        assertThat(feedback.getAvgRate(), equalTo(0.0));
+    }
+
+    @Test
+    void whenCourseHasNoRatesThenRemoveAndChangeDoNothing() {
+        assertThat(repository.removeRate(feedbackId, 4.0), equalTo(0));
+        assertThat(repository.changeRate(feedbackId, 4.0, 5.0), equalTo(0));
+
+        CourseFeedback feedback = reload();
+        assertThat(feedback.getRatesCount(), equalTo(0));
+        assertThat(feedback.getAvgRate(), equalTo(0.0));
+    }
+
+    private CourseFeedback reload() {
+        manager.clear();
+        return manager.find(CourseFeedback.class, feedbackId);
+    }
+
+}
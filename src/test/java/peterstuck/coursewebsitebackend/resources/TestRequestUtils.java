@@ -1,6 +1,7 @@
 package peterstuck.coursewebsitebackend.resources;
 
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import org.springframework.http.MediaType;
@@ -9,6 +10,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultMatcher;
 import peterstuck.coursewebsitebackend.utils.JsonFilter;
 
+import java.util.Collections;
 import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -41,6 +43,18 @@ public class TestRequestUtils {
         return mapper.readValue(response.getContentAsString(), CollectionsTypeFactory.listOf(ITEM_CLASS));
     }
 
+    /**
+     * @param itemsField name of response field that contains items of the page
+     */
+    public List<?> makeRequestToGetPageItems(String path, String itemsField, ResultMatcher expectedStatus) throws Exception {
+        MockHttpServletResponse response = makeRequestToGetSingleItem(path, expectedStatus);
+        JsonNode items = mapper.readTree(response.getContentAsString()).path(itemsField);
+        if (items.isMissingNode())
+            return Collections.emptyList();
+
+        return mapper.readValue(mapper.treeAsTokens(items), CollectionsTypeFactory.listOf(ITEM_CLASS));
+    }
+
     public MockHttpServletResponse makeRequestToGetSingleItem(String path, ResultMatcher expectedStatus) throws Exception {
         return mvc.perform(get(path).contentType(MediaType.APPLICATION_JSON)
                 .header("Authorization", "Sample token"))
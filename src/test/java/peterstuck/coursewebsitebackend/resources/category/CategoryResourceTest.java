@@ -62,11 +62,11 @@ class CategoryResourceTest {
 
     @Test
     void shouldReturnMainCategoriesOnly() throws Exception {
-        when(repository.findAll()).thenReturn(testCategories);
+        when(repository.findByParentCategoryIdOrderByNameSortKeyAscIdAsc(0)).thenReturn(testCategories.subList(0, 1));
 
         List<Category> categories = (List<Category>) tru.makeRequestToGetItems(BASE_PATH, status().isOk());
 
-        verify(repository).findAll();
+        verify(repository).findByParentCategoryIdOrderByNameSortKeyAscIdAsc(0);
         assertThat(categories, hasSize(1));
     }
 
@@ -79,11 +79,11 @@ class CategoryResourceTest {
     void shouldReturnChildCategoriesOnly() throws Exception {
         int parentCatId = 1;
         testCategories.get(2).setParentCategoryId(1);
-        when(repository.findAll()).thenReturn(testCategories);
+        when(repository.findByParentCategoryIdOrderByNameSortKeyAscIdAsc(parentCatId)).thenReturn(testCategories.subList(1, 3));
 
         List<Category> categories = (List<Category>) tru.makeRequestToGetItems(BASE_PATH + "/" + parentCatId, status().isOk());
 
-        verify(repository).findAll();
+        verify(repository).findByParentCategoryIdOrderByNameSortKeyAscIdAsc(parentCatId);
         assertThat(categories, hasSize(2));
         assertThat(categories.get(0).getName(), equalTo("CATEGORY 2"));
     }
@@ -123,6 +123,42 @@ class CategoryResourceTest {
         assertThat(updatedCategory.getParentCategoryId(), equalTo(10));
     }
 
+    @WithMockUser(roles = { "ADMIN" })
+    @Test
+    void whenParentCategoryChangedThenMoveSubtreePaths() throws Exception {
+        var newParent = new Category("NEW PARENT", 0);
+        newParent.setId(2);
+        newParent.setPath("/2/");
+        testCategory.setId(1);
+        testCategory.setPath("/1/");
+        when(repository.findById(1)).thenReturn(Optional.ofNullable(testCategory));
+        when(repository.findById(2)).thenReturn(Optional.of(newParent));
+
+        tru.makePutRequest(BASE_PATH + "/1", new Category("TEST CATEGORY", 2), status().isOk());
+
+        verify(repository).replacePathPrefix("/1/", "/2/1/");
+        assertThat(testCategory.getPath(), equalTo("/2/1/"));
+        assertThat(testCategory.getParentCategoryId(), equalTo(2));
+    }
+
+    @WithMockUser(roles = { "ADMIN" })
+    @Test
+    void whenCategoryMovedToItsOwnSubcategoryThenStatus400AndMessage() throws Exception {
+        var child = new Category("CHILD CATEGORY", 1);
+        child.setId(2);
+        child.setPath("/1/2/");
+        testCategory.setId(1);
+        testCategory.setPath("/1/");
+        when(repository.findById(1)).thenReturn(Optional.ofNullable(testCategory));
+        when(repository.findById(2)).thenReturn(Optional.of(child));
+
+        String response = tru.makePutRequest(BASE_PATH + "/1", new Category("TEST CATEGORY", 2), status().isBadRequest()).getContentAsString();
+
+        assertThat(response, containsString("Category with id: 1 cannot be moved to its own subcategory."));
+        assertThat(testCategory.getParentCategoryId(), equalTo(0));
+        assertThat(testCategory.getPath(), equalTo("/1/"));
+    }
+
     @WithMockUser(roles = { "ADMIN" })
     @Test
     void shouldReturnStatus404AndMessageWhenCategoryWithGivenIdNotFound() throws Exception {
@@ -144,6 +180,21 @@ class CategoryResourceTest {
         assertThat(response.getContentAsString(), containsString("Category with id: 1 successfully deleted."));
     }
 
+    @WithMockUser(roles = { "ADMIN" })
+    @Test
+    void whenCategoryDeletedThenMoveChildCategoriesToItsParent() throws Exception {
+        testCategory.setId(3);
+        testCategory.setParentCategoryId(0);
+        testCategory.setPath("/3/");
+        when(repository.findById(3)).thenReturn(Optional.ofNullable(testCategory));
+
+        tru.makeDeleteRequest(BASE_PATH + "/3", status().isOk());
+
+        verify(repository).updateParentCategoryId(3, 0);
+        verify(repository).replacePathPrefix("/3/", "/");
+        verify(repository).delete(testCategory);
+    }
+
     @WithMockUser(roles = { "ADMIN" })
     @Test
     void whenInvalidCategoryObjectPassedThenReturnStatus400AndFieldErrorMessages() throws Exception {
@@ -0,0 +1,378 @@
+package peterstuck.coursewebsitebackend.resources.course;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import peterstuck.coursewebsitebackend.models.course.Comment;
+import peterstuck.coursewebsitebackend.models.course.CourseFeedback;
+import peterstuck.coursewebsitebackend.models.course.CourseRating;
+import peterstuck.coursewebsitebackend.models.user.User;
+import peterstuck.coursewebsitebackend.models.user.UserActivity;
+import peterstuck.coursewebsitebackend.repositories.CommentRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseChangeRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseFeedbackRepository;
+import peterstuck.coursewebsitebackend.repositories.course.CommentKeyset;
+import peterstuck.coursewebsitebackend.repositories.course.CommentSort;
+import peterstuck.coursewebsitebackend.repositories.user.UserRepository;
+import peterstuck.coursewebsitebackend.resources.TestRequestUtils;
+import peterstuck.coursewebsitebackend.services.catalog.CatalogIndex;
+import peterstuck.coursewebsitebackend.services.search.CourseSearchIndex;
+import peterstuck.coursewebsitebackend.utils.CursorUtil;
+import peterstuck.coursewebsitebackend.utils.JwtUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class CommentResourceTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private CommentRepository commentRepository;
+
+    @MockBean
+    private CourseFeedbackRepository feedbackRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private CourseChangeRepository changeRepository;
+
+    @MockBean
+    private CatalogIndex catalogIndex;
+
+    @MockBean
+    private CourseSearchIndex searchIndex;
+
+    private List<Comment> testComments;
+    private CourseFeedback testFeedback;
+    private User testUser;
+
+    private TestRequestUtils tru;
+
+    @Captor
+    private ArgumentCaptor<CommentKeyset> keysetCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<Double>> ratesCaptor;
+
+    private static final String BASE_PATH = "/api/courses/1/comments";
+    private static final String PAGE_ITEMS = "comments";
+
+    @BeforeEach
+    void setUp() {
+        tru = new TestRequestUtils(Comment.class, mvc, "JsonFilter");
+
+        testFeedback = new CourseFeedback();
+        testFeedback.setId(5L);
+
+        testUser = new User();
+        testUser.setEmail("email@email.com");
+        testUser.setUserActivity(new UserActivity());
+        testUser.getUserActivity().setId(9L);
+
+        testComments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            var comment = new Comment();
+            comment.setId(i + 1);
+            comment.setDescription("COMMENT " + i);
+            comment.setRate(5.0 - i);
+            comment.setCreated(1000L - i);
+            testComments.add(comment);
+        }
+
+        when(feedbackRepository.findRatingsByFeedbackIds(any())).thenReturn(List.of(new CourseRating(1L, 4.2, 7)));
+    }
+
+    @Test
+    void givenCommentsWhenGetCommentsThenStatus200AndNewestComments() throws Exception {
+        when(feedbackRepository.findByCourseId(1L)).thenReturn(Optional.of(testFeedback));
+        when(commentRepository.findPage(eq(5L), eq(CommentSort.NEWEST), isNull(), anyInt())).thenReturn(testComments);
+
+        List<Comment> comments = (List<Comment>) tru.makeRequestToGetPageItems(BASE_PATH, PAGE_ITEMS, status().isOk());
+
+        verify(commentRepository).findPage(eq(5L), eq(CommentSort.NEWEST), isNull(), anyInt());
+        assertThat(comments, hasSize(3));
+        assertThat(comments.get(0).getDescription(), equalTo("COMMENT 0"));
+    }
+
+    @Test
+    void whenNoCommentsThenStatus204() throws Exception {
+        when(feedbackRepository.findByCourseId(1L)).thenReturn(Optional.of(testFeedback));
+
+        assertThat(tru.makeRequestToGetPageItems(BASE_PATH, PAGE_ITEMS, status().isNoContent()), hasSize(0));
+    }
+
+    @Test
+    void whenCourseNotExistsThenStatus404() throws Exception {
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH, status().isNotFound()).getContentAsString();
+
+        verify(commentRepository, never()).findPage(anyLong(), any(), any(), anyInt());
+        assertThat(response, containsString("not found"));
+    }
+
+    @Test
+    void whenMoreCommentsThanPageSizeThenReturnPageWithNextLink() throws Exception {
+        when(feedbackRepository.findByCourseId(1L)).thenReturn(Optional.of(testFeedback));
+        when(commentRepository.findPage(eq(5L), eq(CommentSort.HIGHEST), isNull(), eq(3))).thenReturn(testComments);
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?sort=highest&size=2", status().isOk()).getContentAsString();
+        String nextCursor = TestRequestUtils.mapper.readTree(response).path("nextCursor").asText();
+
+        assertThat(TestRequestUtils.mapper.readTree(response).path(PAGE_ITEMS).size(), equalTo(2));
+        assertThat(TestRequestUtils.mapper.readTree(response).path(PAGE_ITEMS).get(1).path("id").asInt(), equalTo(2));
+        assertThat(nextCursor, equalTo(CursorUtil.encode("highest", 2, 4.0)));
+        assertThat(response, containsString("\"rel\":\"next\""));
+        assertThat(response, containsString("sort=highest&cursor=" + nextCursor));
+    }
+
+    @Test
+    void whenCursorProvidedThenReturnCommentsAfterIt() throws Exception {
+        when(feedbackRepository.findByCourseId(1L)).thenReturn(Optional.of(testFeedback));
+        when(commentRepository.findPage(eq(5L), eq(CommentSort.NEWEST), any(), anyInt())).thenReturn(testComments.subList(2, 3));
+
+        String cursor = CursorUtil.encode("newest", 2, 999L);
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?cursor=" + cursor, status().isOk()).getContentAsString();
+
+        verify(commentRepository).findPage(eq(5L), eq(CommentSort.NEWEST), keysetCaptor.capture(), anyInt());
+        assertThat(keysetCaptor.getValue().getTieBreakerId(), equalTo(2));
+        assertThat(keysetCaptor.getValue().getSortValue(), equalTo(999L));
+        assertThat(response, containsString("COMMENT 2"));
+        assertThat(response, not(containsString("nextCursor")));
+    }
+
+    @Test
+    void whenCursorCreatedForDifferentSortThenStatus400() throws Exception {
+        when(feedbackRepository.findByCourseId(1L)).thenReturn(Optional.of(testFeedback));
+        String cursor = CursorUtil.encode("lowest", 2, 3.0);
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?sort=highest&cursor=" + cursor, status().isBadRequest()).getContentAsString();
+
+        verify(commentRepository, never()).findPage(anyLong(), any(), any(), anyInt());
+        assertThat(response, containsString("does not match requested order."));
+    }
+
+    @Test
+    void whenSortIsNotSupportedThenStatus400() throws Exception {
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?sort=oldest", status().isBadRequest()).getContentAsString();
+
+        assertThat(response, containsString("Sort: oldest is not supported."));
+    }
+
+    @WithMockUser
+    @Test
+    void whenCommentPostedThenSaveItAndAddItsRateToCourseFeedback() throws Exception {
+        when(feedbackRepository.findIdsByCourseIds(Set.of(1L))).thenReturn(Map.of(1L, testFeedback.getId()));
+        when(jwtUtil.extractUsername(any())).thenReturn(testUser.getEmail());
+        when(userRepository.findActivityIdsByEmails(Set.of(testUser.getEmail()))).thenReturn(Map.of(testUser.getEmail(), testUser.getUserActivity().getId()));
+        when(commentRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Comment> saved = invocation.getArgument(0);
+            saved.forEach(comment -> comment.setId(11));
+            return saved;
+        });
+        Comment comment = new Comment();
+        comment.setDescription("NEW COMMENT");
+        comment.setRate(4.5);
+
+        String response = tru.makePostRequest(BASE_PATH, comment, status().isCreated()).getContentAsString();
+
+        verify(commentRepository).saveAll(any());
+        verify(feedbackRepository).addRates(eq(5L), ratesCaptor.capture());
+        assertThat(ratesCaptor.getValue(), contains(4.5));
+        verify(feedbackRepository).findRatingsByFeedbackIds(Set.of(5L));
+        verify(changeRepository).record(1L, false);
+        verify(catalogIndex).updateRating(1L, 4.2);
+        verify(searchIndex).updateRating(1L, 4.2);
+        assertThat(response, containsString("\"description\":\"NEW COMMENT\""));
+        assertThat(TestRequestUtils.mapper.readTree(response).path("id").asInt(), equalTo(11));
+        assertThat(response, containsString("\"rel\":\"comments\""));
+    }
+
+    @WithMockUser
+    @Test
+    void whenCommentPostedWithCreationDateThenIgnoreIt() throws Exception {
+        when(feedbackRepository.findIdsByCourseIds(Set.of(1L))).thenReturn(Map.of(1L, testFeedback.getId()));
+        when(jwtUtil.extractUsername(any())).thenReturn(testUser.getEmail());
+        when(userRepository.findActivityIdsByEmails(Set.of(testUser.getEmail()))).thenReturn(Map.of(testUser.getEmail(), testUser.getUserActivity().getId()));
+        Comment comment = new Comment();
+        comment.setDescription("NEW COMMENT");
+        comment.setRate(4.5);
+        comment.setCreated(Long.MAX_VALUE);
+
+        String response = tru.makePostRequest(BASE_PATH, comment, status().isCreated()).getContentAsString();
+
+        assertThat(TestRequestUtils.mapper.readTree(response).path("created").asLong(), lessThan(Long.MAX_VALUE));
+    }
+
+    @WithMockUser
+    @Test
+    void whenWritingCommentFailsWithErrorThenNextCommentIsStillSaved() throws Exception {
+        when(feedbackRepository.findIdsByCourseIds(Set.of(1L))).thenReturn(Map.of(1L, testFeedback.getId()));
+        when(jwtUtil.extractUsername(any())).thenReturn(testUser.getEmail());
+        when(userRepository.findActivityIdsByEmails(Set.of(testUser.getEmail()))).thenReturn(Map.of(testUser.getEmail(), testUser.getUserActivity().getId()));
+        when(commentRepository.saveAll(any())).thenThrow(new AssertionError("write failed")).thenReturn(List.of());
+        Comment comment = new Comment();
+        comment.setDescription("NEW COMMENT");
+        comment.setRate(4.5);
+
+        assertThrows(Exception.class, () -> tru.makePostRequest(BASE_PATH, comment, status().is5xxServerError()));
+        String response = tru.makePostRequest(BASE_PATH, comment, status().isCreated()).getContentAsString();
+
+        verify(feedbackRepository, times(1)).addRates(eq(5L), any());
+        assertThat(response, containsString("\"description\":\"NEW COMMENT\""));
+    }
+
+    @WithMockUser
+    @Test
+    void whenCommentPostedToNotExistingCourseThenStatus404() throws Exception {
+        when(jwtUtil.extractUsername(any())).thenReturn(testUser.getEmail());
+        when(userRepository.findActivityIdsByEmails(any())).thenReturn(Map.of(testUser.getEmail(), testUser.getUserActivity().getId()));
+        Comment comment = new Comment();
+        comment.setDescription("NEW COMMENT");
+        comment.setRate(4.5);
+
+        String response = tru.makePostRequest(BASE_PATH, comment, status().isNotFound()).getContentAsString();
+
+        verify(feedbackRepository, never()).addRates(any(), any());
+        assertThat(response, containsString("Course with id: 1 not found!"));
+    }
+
+    @WithMockUser
+    @Test
+    void whenPostedCommentIsInvalidThenStatus400() throws Exception {
+        Comment comment = new Comment();
+        comment.setRate(6.0);
+
+        tru.makePostRequest(BASE_PATH, comment, status().isBadRequest());
+
+        verify(commentRepository, never()).saveAll(any());
+    }
+
+    @WithMockUser
+    @Test
+    void whenAuthorUpdatesRateOfCommentThenChangeItInCourseFeedback() throws Exception {
+        Comment comment = givenCommentOfTestUser();
+        Comment updated = new Comment();
+        updated.setDescription("UPDATED COMMENT");
+        updated.setRate(3.0);
+
+        String response = tru.makePutRequest(BASE_PATH + "/1", updated, status().isOk()).getContentAsString();
+
+        verify(commentRepository).save(comment);
+        verify(feedbackRepository).changeRate(5L, 5.0, 3.0);
+        verify(catalogIndex).updateRating(1L, 4.2);
+        assertThat(response, containsString("\"description\":\"UPDATED COMMENT\""));
+        assertThat(TestRequestUtils.mapper.readTree(response).path("id").asInt(), equalTo(1));
+    }
+
+    @WithMockUser
+    @Test
+    void whenOnlyDescriptionOfCommentUpdatedThenDoNotChangeCourseFeedback() throws Exception {
+        givenCommentOfTestUser();
+        Comment updated = new Comment();
+        updated.setDescription("UPDATED COMMENT");
+        updated.setRate(5.0);
+
+        tru.makePutRequest(BASE_PATH + "/1", updated, status().isOk());
+
+        verify(feedbackRepository, never()).changeRate(any(), anyDouble(), anyDouble());
+        verify(changeRepository, never()).record(any(), anyBoolean());
+        verify(catalogIndex, never()).updateRating(any(), anyDouble());
+    }
+
+    @WithMockUser
+    @Test
+    void whenRequesterIsNotAuthorOfCommentThenStatus400() throws Exception {
+        givenCommentOfTestUser();
+        when(userRepository.findActivityIdsByEmails(Set.of(testUser.getEmail()))).thenReturn(Map.of(testUser.getEmail(), 99L));
+        Comment updated = new Comment();
+        updated.setDescription("UPDATED COMMENT");
+        updated.setRate(1.0);
+
+        String response = tru.makePutRequest(BASE_PATH + "/1", updated, status().isBadRequest()).getContentAsString();
+        tru.makeDeleteRequest(BASE_PATH + "/1", status().isBadRequest());
+
+        verify(feedbackRepository, never()).changeRate(any(), anyDouble(), anyDouble());
+        verify(feedbackRepository, never()).removeRate(any(), anyDouble());
+        assertThat(response, containsString("You are allow to update or delete only own comments."));
+    }
+
+    @WithMockUser
+    @Test
+    void whenAuthorDeletesCommentThenRemoveItsRateFromCourseFeedback() throws Exception {
+        Comment comment = givenCommentOfTestUser();
+
+        tru.makeDeleteRequest(BASE_PATH + "/1", status().isOk());
+
+        verify(commentRepository).delete(comment);
+        verify(feedbackRepository).removeRate(5L, 5.0);
+        verify(feedbackRepository).findRatingsByFeedbackIds(List.of(5L));
+        verify(searchIndex).updateRating(1L, 4.2);
+    }
+
+    @WithMockUser
+    @Test
+    void whenCommentBelongsToOtherCourseThenStatus404() throws Exception {
+        givenCommentOfTestUser();
+
+        String response = tru.makeDeleteRequest("/api/courses/2/comments/1", status().isNotFound()).getContentAsString();
+
+        verify(commentRepository, never()).delete(any());
+        assertThat(response, containsString("Comment with id: 1 not found!"));
+    }
+
+    private Comment givenCommentOfTestUser() {
+        Comment comment = testComments.get(0);
+        comment.setCourseFeedback(testFeedback);
+        comment.setAuthor(testUser.getUserActivity());
+        when(feedbackRepository.findByCourseId(1L)).thenReturn(Optional.of(testFeedback));
+        when(commentRepository.findById(1)).thenReturn(Optional.of(comment));
+        when(jwtUtil.extractUsername(any())).thenReturn(testUser.getEmail());
+        when(userRepository.findActivityIdsByEmails(Set.of(testUser.getEmail()))).thenReturn(Map.of(testUser.getEmail(), testUser.getUserActivity().getId()));
+        return comment;
+    }
+
+    @Test
+    void whenNotAuthenticatedThenCannotPostComment() throws Exception {
+        Comment comment = new Comment();
+        comment.setDescription("NEW COMMENT");
+        comment.setRate(4.5);
+
+        tru.makePostRequest(BASE_PATH, comment, status().isForbidden());
+
+        verify(commentRepository, never()).saveAll(any());
+    }
+
+}
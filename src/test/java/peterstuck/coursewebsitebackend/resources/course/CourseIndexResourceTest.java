@@ -0,0 +1,226 @@
+package peterstuck.coursewebsitebackend.resources.course;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import peterstuck.coursewebsitebackend.models.course.CatalogEntry;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.models.course.CourseChange;
+import peterstuck.coursewebsitebackend.models.course.CourseRating;
+import peterstuck.coursewebsitebackend.models.course.Language;
+import peterstuck.coursewebsitebackend.repositories.CategoryRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseChangeRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.resources.TestRequestUtils;
+import peterstuck.coursewebsitebackend.services.catalog.CatalogIndex;
+import peterstuck.coursewebsitebackend.services.catalog.CourseCatalog;
+import peterstuck.coursewebsitebackend.utils.CursorUtil;
+import peterstuck.coursewebsitebackend.utils.SearchKeyUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class CourseIndexResourceTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CatalogIndex catalogIndex;
+
+    @Autowired
+    private CourseCatalog courseCatalog;
+
+    @MockBean
+    private CourseRepository courseRepository;
+
+    @MockBean
+    private CategoryRepository categoryRepository;
+
+    @MockBean
+    private CourseChangeRepository changeRepository;
+
+    private TestRequestUtils tru;
+
+    private Map<Long, CatalogEntry> testEntries;
+
+    private static final String BASE_PATH = "/api/courses";
+
+    @BeforeEach
+    void setUp() {
+        tru = new TestRequestUtils(Course.class, mvc, "JsonFilter");
+
+        testEntries = List.of(
+                entry(1L, "Zarządzanie projektem", 10.0, 4.6, Set.of(Language.POLISH), Set.of()),
+                entry(2L, "Java od podstaw", 60.0, 3.2, Set.of(Language.ENGLISH), Set.of(Language.POLISH)),
+                entry(3L, "Zarządzanie zespołem", 120.0, 4.0, Set.of(Language.POLISH, Language.ENGLISH), Set.of()),
+                entry(4L, "Kurs Pythona", 0.0, 4.5, Set.of(Language.ENGLISH), Set.of(Language.POLISH))
+        ).stream().collect(Collectors.toMap(CatalogEntry::getId, Function.identity()));
+
+        when(courseRepository.findAllCatalogEntries()).thenReturn(new ArrayList<>(testEntries.values()));
+        when(courseRepository.findAllCategoryIds()).thenReturn(List.of(
+                new Object[] { 1L, 1 }, new Object[] { 2L, 1 }, new Object[] { 2L, 2 }, new Object[] { 3L, 2 }, new Object[] { 4L, 1 }));
+        when(courseRepository.findCardsByIds(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> toCard(testEntries.get(id))).collect(Collectors.toList());
+        });
+        when(courseRepository.findAllCards()).thenReturn(testEntries.values().stream().map(this::toCard).collect(Collectors.toList()));
+        catalogIndex.rebuild();
+        courseCatalog.rebuild();
+    }
+
+    private CatalogEntry entry(Long id, String title, double price, double avgRate, Set<Language> languages, Set<Language> subtitles) {
+        return new CatalogEntry(id, SearchKeyUtil.toSearchKey(title), price, avgRate, Language.toMask(languages), Language.toMask(subtitles));
+    }
+
+    private CourseCard toCard(CatalogEntry entry) {
+        return new CourseCard(entry.getId(), entry.getTitleKey(), entry.getPrice(), 0L, "short", entry.getId(),
+                entry.getAvgRate(), 1, entry.getLanguagesMask(), null);
+    }
+
+    private List<Long> idsOf(String response) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode course : TestRequestUtils.mapper.readTree(response).path("courses"))
+            ids.add(course.path("id").asLong());
+        return ids;
+    }
+
+    @Test
+    void whenFilteredByCategoryLanguagesAndRatingThenAnswerFromIndexWithExactTotal() throws Exception {
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/category/1?language=POLISH,ENGLISH&minRating=4.5", status().isOk())
+                .getContentAsString();
+
+        verify(courseRepository, never()).findPage(any(), any(), anyInt());
+        verify(courseRepository, never()).findCardsByIds(anyList());
+        verify(courseRepository, never()).estimateCount(any());
+        assertThat(idsOf(response), equalTo(List.of(1L, 4L)));
+        assertThat(response, containsString("\"title\":\"kurs pythona\""));
+        assertThat(response, containsString("\"languages\":[\"ENGLISH\"]"));
+        assertThat(response, containsString("\"total\":2"));
+        assertThat(response, containsString("\"totalExact\":true"));
+    }
+
+    @Test
+    void whenFilteredByKeywordPriceAndSubtitlesThenMatchSameCoursesAsDatabase() throws Exception {
+        String byKeyword = tru.makeRequestToGetSingleItem(BASE_PATH + "?keyword=ZARZADZANIE&minPrice=10.5", status().isOk()).getContentAsString();
+        String bySubtitles = tru.makeRequestToGetSingleItem(BASE_PATH + "?subtitle=POLISH&maxPrice=60", status().isOk()).getContentAsString();
+        tru.makeRequestToGetSingleItem(BASE_PATH + "?keyword=projektem zesp", status().isNoContent());
+
+        assertThat(idsOf(byKeyword), equalTo(List.of(3L)));
+        assertThat(idsOf(bySubtitles), equalTo(List.of(2L, 4L)));
+        verify(courseRepository, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void whenKeywordIsInsideOfWordsThenFindCoursesBySuffixes() throws Exception {
+        String insideWord = tru.makeRequestToGetSingleItem(BASE_PATH + "?keyword=ytho", status().isOk()).getContentAsString();
+        String acrossWords = tru.makeRequestToGetSingleItem(BASE_PATH + "?keyword=a od podst", status().isOk()).getContentAsString();
+        String endOfWord = tru.makeRequestToGetSingleItem(BASE_PATH + "?keyword=anie", status().isOk()).getContentAsString();
+
+        assertThat(idsOf(insideWord), equalTo(List.of(4L)));
+        assertThat(idsOf(acrossWords), equalTo(List.of(2L)));
+        assertThat(idsOf(endOfWord), equalTo(List.of(1L, 3L)));
+        verify(courseRepository, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void whenRatingUpdatedThenFilterByNewRatingAndShowItOnCardWithoutRebuild() throws Exception {
+        catalogIndex.updateRating(2L, 4.7);
+        catalogIndex.updateRating(1L, 4.4);
+        catalogIndex.updateRating(99L, 5.0);
+        courseCatalog.updateRating(new CourseRating(2L, 4.7, 12));
+        courseCatalog.updateRating(new CourseRating(99L, 5.0, 1));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?minRating=4.5", status().isOk()).getContentAsString();
+
+        assertThat(idsOf(response), equalTo(List.of(2L, 4L)));
+        assertThat(response, containsString("\"avgRate\":4.7"));
+        assertThat(response, containsString("\"ratesCount\":12"));
+        verify(courseRepository, never()).findPage(any(), any(), anyInt());
+        verify(courseRepository, never()).findCardsByIds(anyList());
+    }
+
+    @Test
+    void whenCourseRemovedFromCatalogThenKeepCardsAndRatingsOfOthers() throws Exception {
+        courseCatalog.updateRating(new CourseRating(3L, 1.5, 2));
+        courseCatalog.removeCourse(1L);
+
+        assertThat(courseCatalog.findCards(List.of(1L)).isPresent(), equalTo(false));
+        CourseCard card = courseCatalog.findCards(List.of(3L)).orElseThrow();
+        assertThat(card.getAvgRate(), equalTo(1.5));
+        assertThat(card.getRatesCount(), equalTo(2));
+        assertThat(courseCatalog.cards().stream().map(CourseCard::getId).collect(Collectors.toList()), equalTo(List.of(2L, 3L, 4L)));
+    }
+
+    @Test
+    void whenRatingChangedButCatalogNotYetUpdatedThenChangesReturnCardFromDatabase() throws Exception {
+        CourseChange change = new CourseChange(2L, false, 5L);
+        change.setId(5L);
+        when(changeRepository.findAfter(4L, 100)).thenReturn(List.of(change));
+        when(courseRepository.findCardsByIds(List.of(2L))).thenReturn(List.of(
+                new CourseCard(2L, "java od podstaw", 60.0, 0L, "short", 2L, 4.7, 12, Language.toMask(Set.of(Language.ENGLISH)), null)));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/changes?size=100&since=" + CursorUtil.encode(4L), status().isOk())
+                .getContentAsString();
+
+        verify(courseRepository).findCardsByIds(List.of(2L));
+        JsonNode upsert = TestRequestUtils.mapper.readTree(response).path("upserts").get(0);
+        assertThat(upsert.path("avgRate").asDouble(), equalTo(4.7));
+        assertThat(upsert.path("ratesCount").asInt(), equalTo(12));
+    }
+
+    @Test
+    void whenMoreCoursesThanPageSizeThenNextPageStartsAfterRankOfLastCourse() throws Exception {
+        String firstPage = tru.makeRequestToGetSingleItem(BASE_PATH + "?size=3&order=desc", status().isOk()).getContentAsString();
+        String cursor = TestRequestUtils.mapper.readTree(firstPage).path("nextCursor").asText();
+        String secondPage = tru.makeRequestToGetSingleItem(BASE_PATH + "?size=3&order=desc&cursor=" + cursor, status().isOk()).getContentAsString();
+
+        assertThat(idsOf(firstPage), equalTo(List.of(4L, 3L, 2L)));
+        assertThat(idsOf(secondPage), equalTo(List.of(1L)));
+        assertThat(secondPage, not(containsString("nextCursor")));
+        assertThat(secondPage, not(containsString("total")));
+    }
+
+    @Test
+    void whenCourseMissingInCatalogThenLoadCardsOfPageFromDatabase() throws Exception {
+        when(courseRepository.findAllCards()).thenReturn(List.of(toCard(testEntries.get(1L))));
+        courseCatalog.rebuild();
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?size=2", status().isOk()).getContentAsString();
+
+        verify(courseRepository).findCardsByIds(List.of(1L, 2L, 3L));
+        assertThat(idsOf(response), equalTo(List.of(1L, 2L)));
+    }
+
+    @Test
+    void whenSortedByOtherFieldOrCategorySubtreeRequestedThenQueryDatabase() throws Exception {
+        tru.makeRequestToGetSingleItem(BASE_PATH + "?sort=price", status().isNoContent());
+        tru.makeRequestToGetSingleItem(BASE_PATH + "/category/1?includeDescendants=true", status().isNoContent());
+
+        verify(courseRepository, times(2)).findPage(any(), any(), anyInt());
+        verify(courseRepository, never()).findCardsByIds(anyList());
+    }
+
+}
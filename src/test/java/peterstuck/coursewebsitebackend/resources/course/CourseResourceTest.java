@@ -1,11 +1,15 @@
 package peterstuck.coursewebsitebackend.resources.course;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -13,31 +17,63 @@ import org.springframework.test.web.servlet.MockMvc;
 import peterstuck.coursewebsitebackend.models.course.factory.CourseFactory;
 import peterstuck.coursewebsitebackend.models.course.factory.CourseDescriptionFactory;
 import peterstuck.coursewebsitebackend.models.course.Category;
+import peterstuck.coursewebsitebackend.models.course.Comment;
 import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.models.course.CourseChange;
 import peterstuck.coursewebsitebackend.models.course.CourseDescription;
+import peterstuck.coursewebsitebackend.models.course.CourseFacets;
 import peterstuck.coursewebsitebackend.models.course.CourseFeedback;
+import peterstuck.coursewebsitebackend.models.course.Language;
+import peterstuck.coursewebsitebackend.models.course.PriceBucket;
+import peterstuck.coursewebsitebackend.models.course.Rating;
+import peterstuck.coursewebsitebackend.models.course.RatingHistogram;
+import peterstuck.coursewebsitebackend.models.course.Suggestion;
 import peterstuck.coursewebsitebackend.models.user.Role;
 import peterstuck.coursewebsitebackend.models.user.User;
 import peterstuck.coursewebsitebackend.models.user.UserActivity;
 import peterstuck.coursewebsitebackend.models.user.UserDetail;
+import peterstuck.coursewebsitebackend.repositories.CategoryRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseChangeRepository;
+import peterstuck.coursewebsitebackend.repositories.CommentRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseFeedbackRepository;
 import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.repositories.course.CommentSort;
+import peterstuck.coursewebsitebackend.repositories.course.CourseField;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFetchPlan;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFilter;
+import peterstuck.coursewebsitebackend.repositories.course.CourseKeyset;
+import peterstuck.coursewebsitebackend.repositories.course.CourseSearchHit;
+import peterstuck.coursewebsitebackend.repositories.course.CourseSort;
 import peterstuck.coursewebsitebackend.repositories.user.UserRepository;
 import peterstuck.coursewebsitebackend.resources.TestRequestUtils;
+import peterstuck.coursewebsitebackend.services.search.CourseSearchIndex;
+import peterstuck.coursewebsitebackend.services.suggestion.SpellingDictionary;
+import peterstuck.coursewebsitebackend.services.suggestion.SuggestionIndex;
+import peterstuck.coursewebsitebackend.utils.CursorUtil;
 import peterstuck.coursewebsitebackend.utils.JwtUtil;
+import peterstuck.coursewebsitebackend.utils.SearchKeyUtil;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ActiveProfiles("test")
-@SpringBootTest
+@SpringBootTest(properties = "catalog.index.enabled=false")
 @AutoConfigureMockMvc
 class CourseResourceTest {
 
@@ -47,12 +83,33 @@ class CourseResourceTest {
     @Autowired
     private PasswordEncoder encoder;
 
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private SpellingDictionary spellingDictionary;
+
     @MockBean
     private CourseRepository courseRepository;
 
+    @MockBean
+    private CourseFeedbackRepository feedbackRepository;
+
+    @MockBean
+    private CategoryRepository categoryRepository;
+
+    @MockBean
+    private CommentRepository commentRepository;
+
+    @MockBean
+    private CourseChangeRepository changeRepository;
+
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private CourseSearchIndex searchIndex;
+
     @MockBean
     private JwtUtil jwtUtil;
 
@@ -68,11 +125,22 @@ class CourseResourceTest {
 
     private TestRequestUtils tru;
 
+    @Captor
+    private ArgumentCaptor<CourseFilter> filterCaptor;
+
+    @Captor
+    private ArgumentCaptor<CourseKeyset> keysetCaptor;
+
+    @Captor
+    private ArgumentCaptor<CourseSearchHit> hitCaptor;
+
     private static final String BASE_PATH = "/api/courses";
+    private static final String PAGE_ITEMS = "courses";
 
     @BeforeEach
     void setUp() {
         tru = new TestRequestUtils(Course.class, mvc, "JsonFilter");
+        when(searchIndex.isReady()).thenReturn(true);
 
         initializeTestCategories();
 
@@ -100,6 +168,7 @@ class CourseResourceTest {
                 Math.max(i, 1.0),
                 testCourseDescription,
                 testCategories);
+            course.setId(i + 1L);
             course.setCourseFeedback(new CourseFeedback());
             testCourses.add(course);
         }
@@ -112,9 +181,30 @@ class CourseResourceTest {
                 testCourseDescription,
                 testCategories
         );
+        testCourse.setId(1L);
         testCourse.setCourseFeedback(new CourseFeedback());
     }
 
+    private List<CourseCard> toCards(List<Course> courses) {
+        List<CourseCard> cards = new ArrayList<>();
+        for (Course course : courses) {
+            var card = new CourseCard(
+                    course.getId(),
+                    course.getTitle(),
+                    course.getPrice(),
+                    course.getLastUpdate(),
+                    course.getCourseDescription().getShortDescription(),
+                    course.getId(),
+                    course.getCourseFeedback().getAvgRate(),
+                    course.getCourseFeedback().getRatesCount(),
+                    Language.toMask(course.getLanguages()),
+                    SearchKeyUtil.toSortKey(course.getTitle()));
+            course.getAuthors().forEach(author -> card.getAuthors().add(author.getFirstName() + " " + author.getLastName()));
+            cards.add(card);
+        }
+        return cards;
+    }
+
     private void initializeTestUser() {
         testUser = new User();
         testUser.setEmail("email@email.com");
@@ -128,54 +218,646 @@ class CourseResourceTest {
 
     @Test
     void givenCoursesWhenGetCoursesThenStatus200AndListOfExistingCourses() throws Exception {
-        when(courseRepository.findAll()).thenReturn(testCourses);
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
 
-        List<Course> courses = (List<Course>) tru.makeRequestToGetItems(BASE_PATH, status().isOk());
+        List<Course> courses = (List<Course>) tru.makeRequestToGetPageItems(BASE_PATH, PAGE_ITEMS, status().isOk());
 
-        verify(courseRepository).findAll();
+        verify(courseRepository).findPage(any(), isNull(), anyInt());
 
         assertThat(courses, hasSize(3));
         assertThat(courses.get(0).getTitle(), equalTo("TEST 0"));
         assertThat(courses.get(0).getPrice(), equalTo(1.0));
     }
 
+    @Test
+    void whenGetCoursesThenReturnOnlyCardData() throws Exception {
+        testCourses.get(0).getAuthors().add(testUser);
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH, status().isOk()).getContentAsString();
+
+        assertThat(response, containsString("\"shortDescription\":\"short\""));
+        assertThat(response, containsString("\"authors\":[\"" + testUser.getFirstName() + " " + testUser.getLastName() + "\"]"));
+        assertThat(response, not(containsString("longDescription")));
+        assertThat(response, not(containsString("feedbackId")));
+        verify(courseRepository, never()).findById(any());
+    }
+
     @Test
     void whenNoCoursesPresentReturnEmptyListAndStatus204() throws Exception {
-        assertThat(tru.makeRequestToGetItems(BASE_PATH, status().isNoContent()), hasSize(0));
+        assertThat(tru.makeRequestToGetPageItems(BASE_PATH, PAGE_ITEMS, status().isNoContent()), hasSize(0));
+    }
+
+    @Test
+    void whenMoreCoursesThanPageSizeThenReturnPageWithNextLink() throws Exception {
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?size=2", status().isOk()).getContentAsString();
+        List<Course> courses = (List<Course>) tru.makeRequestToGetPageItems(BASE_PATH + "?size=2", PAGE_ITEMS, status().isOk());
+        String nextCursor = TestRequestUtils.mapper.readTree(response).path("nextCursor").asText();
+
+        assertThat(courses, hasSize(2));
+        assertThat(nextCursor, equalTo(CursorUtil.encode("id", Sort.Direction.ASC, 2L, 2L)));
+        assertThat(response, containsString("\"rel\":\"next\""));
+        assertThat(response, containsString("cursor=" + nextCursor));
+    }
+
+    @Test
+    void whenCursorProvidedThenReturnCoursesAfterIt() throws Exception {
+        when(courseRepository.findPage(any(), any(), anyInt())).thenReturn(toCards(testCourses.subList(2, 3)));
+
+        String cursor = CursorUtil.encode("id", Sort.Direction.ASC, 2L, 2L);
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?size=2&cursor=" + cursor, status().isOk()).getContentAsString();
+
+        verify(courseRepository).findPage(any(), keysetCaptor.capture(), anyInt());
+        assertThat(keysetCaptor.getValue().getTieBreakerId(), equalTo(2L));
+        assertThat(keysetCaptor.getValue().getSortValue(), equalTo(2L));
+        assertThat(response, containsString("TEST 2"));
+        assertThat(response, not(containsString("nextCursor")));
+    }
+
+    @Test
+    void whenSortedByPriceThenNextCursorCarriesLastPrice() throws Exception {
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?size=2&sort=price&order=desc", status().isOk()).getContentAsString();
+        String nextCursor = TestRequestUtils.mapper.readTree(response).path("nextCursor").asText();
+
+        verify(courseRepository).findPage(filterCaptor.capture(), isNull(), anyInt());
+        assertThat(filterCaptor.getValue().getSort(), equalTo(CourseSort.PRICE));
+        assertThat(filterCaptor.getValue().getDirection(), equalTo(Sort.Direction.DESC));
+        assertThat(nextCursor, equalTo(CursorUtil.encode("price", Sort.Direction.DESC, 2L, testCourses.get(1).getPrice())));
+        assertThat(response, containsString("sort=price&order=desc"));
+    }
+
+    @Test
+    void whenSortedByTitleThenNextCursorCarriesPolishCollationKeyOfLastTitle() throws Exception {
+        testCourses.get(1).setTitle("Ćwiczenia z zarządzania");
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?size=2&sort=title", status().isOk()).getContentAsString();
+        String nextCursor = TestRequestUtils.mapper.readTree(response).path("nextCursor").asText();
+        tru.makeRequestToGetSingleItem(BASE_PATH + "?size=2&sort=title&cursor=" + nextCursor, status().isNoContent());
+
+        verify(courseRepository, times(2)).findPage(any(), keysetCaptor.capture(), anyInt());
+        assertThat(nextCursor, equalTo(CursorUtil.encode("title", Sort.Direction.ASC, 2L, SearchKeyUtil.toHex(SearchKeyUtil.toSortKey("Ćwiczenia z zarządzania")))));
+        assertThat(keysetCaptor.getValue().getSortValue(), equalTo(SearchKeyUtil.toSortKey("Ćwiczenia z zarządzania")));
+        assertThat(response, not(containsString("titleSortKey")));
+    }
+
+    @Test
+    void whenCursorCreatedForDifferentSortThenStatus400() throws Exception {
+        String cursor = CursorUtil.encode("price", Sort.Direction.ASC, 2L, 2.0);
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?sort=title&cursor=" + cursor, status().isBadRequest()).getContentAsString();
+
+        verify(courseRepository, never()).findPage(any(), any(), anyInt());
+        assertThat(response, containsString("does not match requested order."));
+    }
+
+    @Test
+    void whenSortIsNotSupportedThenStatus400() throws Exception {
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?sort=password", status().isBadRequest()).getContentAsString();
+
+        assertThat(response, containsString("Sort: password is not supported."));
+    }
+
+    @Test
+    void whenOrderIsNotSupportedThenStatus400() throws Exception {
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?sort=price&order=up", status().isBadRequest()).getContentAsString();
+
+        assertThat(response, containsString("Order: up is not supported."));
+    }
+
+    @Test
+    void whenPriceRangeAndMinRatingPassedThenFilterByThem() throws Exception {
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+
+        tru.makeRequestToGetSingleItem(BASE_PATH + "/category/1?minPrice=10&maxPrice=50.5&minRating=4", status().isOk());
+
+        verify(courseRepository).findPage(filterCaptor.capture(), isNull(), anyInt());
+        assertThat(filterCaptor.getValue().getMinPrice(), equalTo(10.0));
+        assertThat(filterCaptor.getValue().getMaxPrice(), equalTo(50.5));
+        assertThat(filterCaptor.getValue().getMinRating(), equalTo(4.0));
+        assertThat(filterCaptor.getValue().getCategoryId(), equalTo(1));
+    }
+
+    @Test
+    void whenLanguagesAndSubtitlesPassedThenFilterByThemAndKeepThemInNextLink() throws Exception {
+        testCourses.get(0).setLanguages(Set.of(Language.POLISH, Language.ENGLISH));
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?language=POLISH,ENGLISH&subtitle=DEUTSCH&size=2", status().isOk()).getContentAsString();
+
+        verify(courseRepository).findPage(filterCaptor.capture(), isNull(), anyInt());
+        assertThat(filterCaptor.getValue().getLanguages(), equalTo(Set.of(Language.POLISH, Language.ENGLISH)));
+        assertThat(filterCaptor.getValue().getSubtitles(), equalTo(Set.of(Language.DEUTSCH)));
+        assertThat(response, containsString("subtitle=DEUTSCH"));
+        assertThat(response, containsString("\"languages\":[\"ENGLISH\",\"POLISH\"]"));
+    }
+
+    @Test
+    void whenLanguageIsNotSupportedThenStatus400() throws Exception {
+        tru.makeRequestToGetSingleItem(BASE_PATH + "?language=KLINGON", status().isBadRequest());
+
+        verify(courseRepository, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void whenCursorIsInvalidThenStatus400() throws Exception {
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?cursor=not-a-cursor", status().isBadRequest()).getContentAsString();
+
+        assertThat(response, containsString("Cursor: not-a-cursor is not valid."));
+    }
+
+    @Test
+    void whenFacetsRequestedThenReturnFacetCountsForSameFilter() throws Exception {
+        var facets = new CourseFacets();
+        facets.getLanguages().put(Language.POLISH, 3L);
+        facets.getPrices().put(PriceBucket.UP_TO_50, 2L);
+        facets.getRatings().put(Rating.FOUR_AND_HALF, 1L);
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+        when(courseRepository.countFacets(any())).thenReturn(facets);
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/category/1?keyword=TEST&facets=true", status().isOk()).getContentAsString();
+
+        verify(courseRepository).countFacets(filterCaptor.capture());
+        assertThat(filterCaptor.getValue().getKeyword(), equalTo("TEST"));
+        assertThat(filterCaptor.getValue().getCategoryId(), equalTo(1));
+        assertThat(response, containsString("\"POLISH\":3"));
+        assertThat(response, containsString("\"UP_TO_50\":2"));
+        assertThat(response, containsString("\"FOUR_AND_HALF\":1"));
+    }
+
+    @Test
+    void whenFacetsNotRequestedThenDoNotCountThem() throws Exception {
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH, status().isOk()).getContentAsString();
+
+        verify(courseRepository, never()).countFacets(any());
+        assertThat(response, not(containsString("facets")));
+    }
+
+    @Test
+    void whenMoreCoursesThanPageSizeThenReturnEstimatedTotal() throws Exception {
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+        when(courseRepository.estimateCount(any())).thenReturn(120L);
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?size=2&keyword=TEST", status().isOk()).getContentAsString();
+
+        verify(courseRepository).estimateCount(filterCaptor.capture());
+        verify(courseRepository, never()).countExactly(any());
+        assertThat(filterCaptor.getValue().getKeyword(), equalTo("TEST"));
+        assertThat(response, containsString("\"total\":120"));
+        assertThat(response, containsString("\"totalExact\":false"));
+        assertThat(response, containsString("exactTotal=false"));
+    }
+
+    @Test
+    void whenExactTotalRequestedThenCountAllMatchingCourses() throws Exception {
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+        when(courseRepository.countExactly(any())).thenReturn(3L);
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/category/1?size=2&exactTotal=true", status().isOk()).getContentAsString();
+
+        verify(courseRepository).countExactly(filterCaptor.capture());
+        verify(courseRepository, never()).estimateCount(any());
+        assertThat(filterCaptor.getValue().getCategoryId(), equalTo(1));
+        assertThat(response, containsString("\"total\":3"));
+        assertThat(response, containsString("\"totalExact\":true"));
+    }
+
+    @Test
+    void whenAllCoursesFitOnPageThenTotalIsExactWithoutCounting() throws Exception {
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH, status().isOk()).getContentAsString();
+
+        verify(courseRepository, never()).estimateCount(any());
+        verify(courseRepository, never()).countExactly(any());
+        assertThat(response, containsString("\"total\":3"));
+        assertThat(response, containsString("\"totalExact\":true"));
+    }
+
+    @Test
+    void whenCursorProvidedThenDoNotReturnTotal() throws Exception {
+        when(courseRepository.findPage(any(), any(), anyInt())).thenReturn(toCards(testCourses));
+
+        String cursor = CursorUtil.encode("id", Sort.Direction.ASC, 2L, 2L);
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?size=2&cursor=" + cursor, status().isOk()).getContentAsString();
+
+        verify(courseRepository, never()).estimateCount(any());
+        assertThat(response, not(containsString("total")));
     }
 
     @Test
     void whenKeywordIsPassedShouldReturnFilteredCourses() throws Exception {
         var course = CourseFactory.createCourse("TEST WITH KEYWORD", 5.0, testCourseDescription);
+        course.setId(4L);
         course.setCourseFeedback(new CourseFeedback());
         var course2 = CourseFactory.createCourse("TEST WITH KEYWORD 2", 4.5, testCourseDescription);
+        course2.setId(5L);
         course2.setCourseFeedback(new CourseFeedback());
-        testCourses.add(course);
-        testCourses.add(course2);
 
-        when(courseRepository.findAll()).thenReturn(testCourses);
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(List.of(course, course2)));
 
         String keyword = "KEYWORD";
-        List<Course> filteredCourses = (List<Course>) tru.makeRequestToGetItems(BASE_PATH + "?keyword=" + keyword, status().isOk());
+        List<Course> filteredCourses = (List<Course>) tru.makeRequestToGetPageItems(BASE_PATH + "?keyword=" + keyword, PAGE_ITEMS, status().isOk());
 
+        verify(courseRepository).findPage(filterCaptor.capture(), isNull(), anyInt());
+        assertThat(filterCaptor.getValue().getKeyword(), equalTo(keyword));
+        assertThat(filterCaptor.getValue().getCategoryId(), nullValue());
         assertThat(filteredCourses, hasSize(2));
         assertThat(filteredCourses.get(0).getTitle(), equalTo("TEST WITH KEYWORD"));
         assertThat(filteredCourses.get(0).getPrice(), equalTo(5.0));
     }
 
+    @Test
+    void whenSearchedThenReturnCoursesInOrderOfRelevance() throws Exception {
+        when(searchIndex.search(eq("java spring"), isNull(), anyInt())).thenReturn(List.of(
+                new CourseSearchHit(3L, 0.9, "<b>Java</b>"), new CourseSearchHit(1L, 0.5, null), new CourseSearchHit(2L, 0.1, null)));
+        when(courseRepository.findCardsByIds(List.of(3L, 1L))).thenReturn(toCards(List.of(testCourses.get(2), testCourses.get(0))));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/search?query=java spring&size=2", status().isOk()).getContentAsString();
+        List<Course> courses = (List<Course>) tru.makeRequestToGetPageItems(BASE_PATH + "/search?query=java spring&size=2", PAGE_ITEMS, status().isOk());
+        String nextCursor = TestRequestUtils.mapper.readTree(response).path("nextCursor").asText();
+
+        verify(searchIndex, times(2)).search(eq("java spring"), isNull(), eq(3));
+        assertThat(courses, hasSize(2));
+        assertThat(courses.get(0).getTitle(), equalTo("TEST 2"));
+        assertThat(nextCursor, equalTo(CursorUtil.encode(1L, 0.5)));
+        assertThat(response, containsString("\"rel\":\"next\""));
+        assertThat(response, containsString("\"highlight\":\"<b>Java</b>\""));
+    }
+
+    @Test
+    void whenSearchCursorProvidedThenSearchAfterIt() throws Exception {
+        when(searchIndex.search(any(), any(), anyInt())).thenReturn(List.of(new CourseSearchHit(2L, 0.1, null)));
+        when(courseRepository.findCardsByIds(List.of(2L))).thenReturn(toCards(List.of(testCourses.get(1))));
+
+        String cursor = CursorUtil.encode(1L, 0.5);
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/search?query=java&cursor=" + cursor, status().isOk()).getContentAsString();
+
+        verify(searchIndex).search(eq("java"), hitCaptor.capture(), anyInt());
+        assertThat(hitCaptor.getValue().getId(), equalTo(1L));
+        assertThat(hitCaptor.getValue().getRank(), equalTo(0.5));
+        assertThat(response, containsString("TEST 1"));
+        assertThat(response, not(containsString("nextCursor")));
+    }
+
+    @Test
+    void whenSearchIndexIsNotReadyThenStatus503() throws Exception {
+        when(searchIndex.isReady()).thenReturn(false);
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/search?query=java", status().isServiceUnavailable()).getContentAsString();
+
+        verify(searchIndex, never()).search(any(), any(), anyInt());
+        assertThat(response, containsString("Search index is being built"));
+    }
+
+    @Test
+    void whenNothingMatchesSearchThenStatus204() throws Exception {
+        assertThat(tru.makeRequestToGetPageItems(BASE_PATH + "/search?query=nothing", PAGE_ITEMS, status().isNoContent()), hasSize(0));
+    }
+
+    @Test
+    void whenNothingMatchesMisspelledPhraseThenSearchCorrectedOneAndReturnIt() throws Exception {
+        givenSpellingDictionary();
+        when(searchIndex.search(eq("programowanie spring"), isNull(), anyInt())).thenReturn(List.of(
+                new CourseSearchHit(2L, 0.5, null), new CourseSearchHit(1L, 0.1, null)));
+        when(courseRepository.findCardsByIds(List.of(2L))).thenReturn(toCards(List.of(testCourses.get(1))));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/search?query=Porgramowanie sprnig&size=1", status().isOk()).getContentAsString();
+        JsonNode page = TestRequestUtils.mapper.readTree(response);
+
+        verify(searchIndex).search(eq("Porgramowanie sprnig"), isNull(), eq(2));
+        assertThat(page.path("didYouMean").asText(), equalTo("programowanie spring"));
+        assertThat(page.path("courses").findValuesAsText("title"), equalTo(List.of("TEST 1")));
+        assertThat(page.path("links").get(0).path("href").asText(), containsString("query=programowanie%20spring"));
+    }
+
+    @Test
+    void whenMisspelledPhraseIsTooFarFromKnownWordsThenDoNotCorrectIt() throws Exception {
+        givenSpellingDictionary();
+
+        tru.makeRequestToGetPageItems(BASE_PATH + "/search?query=prgrmwnie", PAGE_ITEMS, status().isNoContent());
+
+        verify(searchIndex).search(any(), any(), anyInt());
+    }
+
+    @Test
+    void whenSearchedPhraseIsFoundThenDoNotCorrectIt() throws Exception {
+        givenSpellingDictionary();
+        when(searchIndex.search(eq("sprin"), isNull(), anyInt())).thenReturn(List.of(new CourseSearchHit(2L, 0.5, null)));
+        when(courseRepository.findCardsByIds(List.of(2L))).thenReturn(toCards(List.of(testCourses.get(1))));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/search?query=sprin", status().isOk()).getContentAsString();
+
+        verify(searchIndex).search(any(), any(), anyInt());
+        assertThat(response, not(containsString("didYouMean")));
+    }
+
+    private void givenSpellingDictionary() {
+        when(courseRepository.findAllTitles()).thenReturn(List.of("Programowanie w Javie", "Spring od podstaw", "Programowanie obiektowe"));
+        when(courseRepository.findAllMainTopics()).thenReturn(List.of("spring boot", "sprint planning"));
+        spellingDictionary.rebuild();
+    }
+
+    @Test
+    void whenSearchCursorIsInvalidThenStatus400() throws Exception {
+        tru.makeRequestToGetSingleItem(BASE_PATH + "/search?query=java&cursor=" + CursorUtil.encode("x", "y"), status().isBadRequest());
+
+        verify(searchIndex, never()).search(any(), any(), anyInt());
+    }
+
+    @WithMockUser(roles = "ADMIN")
+    @Test
+    void whenAdminRequestsSearchIndexRebuildThenStartItInBackground() throws Exception {
+        when(searchIndex.startRebuild()).thenReturn(true);
+
+        String response = tru.makePostRequest(BASE_PATH + "/search/reindex", "", status().isAccepted()).getContentAsString();
+
+        verify(searchIndex).startRebuild();
+        assertThat(response, equalTo("Search index rebuild started."));
+    }
+
+    @WithMockUser(roles = "ADMIN")
+    @Test
+    void whenSearchIndexRebuildIsAlreadyRunningThenStatus409() throws Exception {
+        String response = tru.makePostRequest(BASE_PATH + "/search/reindex", "", status().isConflict()).getContentAsString();
+
+        assertThat(response, equalTo("Search index rebuild is already running."));
+    }
+
+    @WithMockUser
+    @Test
+    void whenUserRequestsSearchIndexRebuildThenStatus403() throws Exception {
+        tru.makePostRequest(BASE_PATH + "/search/reindex", "", status().isForbidden());
+
+        verify(searchIndex, never()).startRebuild();
+    }
+
+    @Test
+    void whenPrefixTypedThenSuggestCoursesByPopularityAndCategoriesByNumberOfCourses() throws Exception {
+        givenSuggestions();
+
+        JsonNode suggestions = getSuggestions("/suggest?prefix=Jav");
+
+        assertThat(suggestions.path("courses").findValuesAsText("text"), equalTo(List.of("Java od podstaw", "Programowanie w Javie")));
+        assertThat(suggestions.path("categories").findValuesAsText("text"), equalTo(List.of("Java EE")));
+        assertThat(suggestions.path("courses").get(0).has("popularity"), is(false));
+    }
+
+    @Test
+    void whenSuggestionsSortedByRatingThenReturnBestRatedCoursesFirst() throws Exception {
+        givenSuggestions();
+
+        JsonNode suggestions = getSuggestions("/suggest?prefix=jav&sort=rating&size=1");
+
+        assertThat(suggestions.path("courses").findValuesAsText("text"), equalTo(List.of("Programowanie w Javie")));
+        assertThat(suggestions.path("categories").findValuesAsText("text"), equalTo(List.of("Java EE")));
+    }
+
+    @Test
+    void whenSuggestionSortIsNotSupportedThenStatus400() throws Exception {
+        tru.makeRequestToGetSingleItem(BASE_PATH + "/suggest?prefix=java&sort=price", status().isBadRequest());
+    }
+
+    @WithMockUser
+    @Test
+    void whenCourseSavedThenSuggestItRightAway() throws Exception {
+        givenSuggestions();
+        when(courseRepository.save(any())).thenReturn(testCourse);
+
+        tru.makePostRequest(BASE_PATH, testCourse, status().isCreated());
+        JsonNode suggestions = getSuggestions("/suggest?prefix=title");
+
+        assertThat(suggestions.path("courses").findValuesAsText("text"), equalTo(List.of("VALID TEST TITLE")));
+        assertThat(suggestions.path("courses").get(0).path("id").asLong(), equalTo(testCourse.getId()));
+    }
+
+    @WithMockUser
+    @Test
+    void whenCourseDeletedThenStopSuggestingIt() throws Exception {
+        givenSuggestions();
+        testCourse.getAuthors().add(testUser);
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(testCourse));
+        when(userRepository.findByEmail(any())).thenReturn(testUser);
+
+        tru.makeDeleteRequest(BASE_PATH + "/1", status().isOk());
+        JsonNode suggestions = getSuggestions("/suggest?prefix=jav");
+
+        assertThat(suggestions.path("courses").findValuesAsText("text"), equalTo(List.of("Programowanie w Javie")));
+    }
+
+    private void givenSuggestions() {
+        when(courseRepository.findAllSuggestions()).thenReturn(List.of(
+                new Suggestion(1L, "Java od podstaw", 50, 4.0),
+                new Suggestion(2L, "Programowanie w Javie", 10, 4.9),
+                new Suggestion(3L, "Python", 100, 5.0)));
+        when(categoryRepository.findAllSuggestions()).thenReturn(List.of(
+                new Suggestion(1L, "Programowanie", 12, 0.0),
+                new Suggestion(2L, "Java EE", 3, 0.0)));
+        suggestionIndex.rebuild();
+    }
+
+    private JsonNode getSuggestions(String path) throws Exception {
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + path, status().isOk()).getContentAsString();
+        return TestRequestUtils.mapper.readTree(response);
+    }
+
     @Test
     void whenCourseWithGivenIdExistsThenReturnCourse() throws Exception {
         long id = 1L;
-        when(courseRepository.findById(id)).thenReturn(Optional.ofNullable(testCourse));
+        when(courseRepository.findById(id, CourseFetchPlan.DETAIL)).thenReturn(Optional.ofNullable(testCourse));
 
         var response = tru.makeRequestToGetSingleItem(BASE_PATH + "/" + id, status().isOk());
         Course course = TestRequestUtils.mapper.readValue(response.getContentAsString(), Course.class);
 
-        verify(courseRepository).findById(id);
+        verify(courseRepository).findById(id, CourseFetchPlan.DETAIL);
         assertThat(course.getTitle(), equalTo(testCourse.getTitle()));
         assertThat(course.getPrice(), equalTo(testCourse.getPrice()));
     }
 
+    @Test
+    void whenCourseDetailRequestedThenReturnRatingHistogram() throws Exception {
+        testCourse.getCourseFeedback().setHistogram(RatingHistogram.fromMap(Map.of(Rating.FIVE, 2, Rating.THREE_AND_HALF, 1)));
+        when(courseRepository.findById(1L, CourseFetchPlan.DETAIL)).thenReturn(Optional.ofNullable(testCourse));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/1", status().isOk()).getContentAsString();
+
+        assertThat(response, containsString("\"histogram\":{\"ONE\":0,"));
+        assertThat(response, containsString("\"THREE_AND_HALF\":1"));
+        assertThat(response, containsString("\"FIVE\":2"));
+    }
+
+    @Test
+    void whenCourseDetailRequestedThenEmbedOnlyLatestCommentsAndLinkToAllOfThem() throws Exception {
+        Comment comment = new Comment();
+        comment.setDescription("LATEST COMMENT");
+        comment.setRate(4.5);
+        testCourse.getCourseFeedback().setId(7L);
+        when(courseRepository.findById(1L, CourseFetchPlan.DETAIL)).thenReturn(Optional.ofNullable(testCourse));
+        when(commentRepository.findPage(7L, CommentSort.NEWEST, null, 3)).thenReturn(List.of(comment));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/1", status().isOk()).getContentAsString();
+
+        verify(commentRepository).findPage(7L, CommentSort.NEWEST, null, 3);
+        assertThat(response, containsString("\"latestComments\":[{\"description\":\"LATEST COMMENT\""));
+        assertThat(response, not(containsString("\"comments\":[")));
+        assertThat(response, containsString("\"rel\":\"comments\""));
+        assertThat(response, containsString(BASE_PATH + "/1/comments"));
+    }
+
+    @Test
+    void whenFieldsSelectedThenLoadAndReturnOnlyThem() throws Exception {
+        when(courseRepository.findAllByIdWithFields(any(), any())).thenReturn(List.of(testCourse));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/1?fields=title,price", status().isOk()).getContentAsString();
+
+        verify(courseRepository).findAllByIdWithFields(List.of(1L), EnumSet.of(CourseField.TITLE, CourseField.PRICE));
+        verify(courseRepository, never()).findById(any(), any());
+        verify(commentRepository, never()).findPage(any(), any(), any(), anyInt());
+        assertThat(response, containsString("\"title\":\"" + testCourse.getTitle() + "\""));
+        assertThat(response, containsString("\"price\":"));
+        assertThat(response, not(containsString("courseDescription")));
+        assertThat(response, not(containsString("courseFeedback")));
+        assertThat(response, not(containsString("authors")));
+    }
+
+    @Test
+    void whenFieldCanNotBeSelectedThenStatus400() throws Exception {
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/1?fields=title,authors.password", status().isBadRequest()).getContentAsString();
+
+        assertThat(response, containsString("authors.password"));
+        verify(courseRepository, never()).findAllByIdWithFields(any(), any());
+    }
+
+    @Test
+    void whenChangesRequestedWithoutTokenThenReturnOnlyTokenOfFinalChanges() throws Exception {
+        when(changeRepository.findCheckpoint()).thenReturn(42L);
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/changes", status().isOk()).getContentAsString();
+        JsonNode changes = TestRequestUtils.mapper.readTree(response);
+
+        verify(changeRepository, never()).findAfter(anyLong(), anyInt());
+        assertThat(changes.get("token").asText(), equalTo(CursorUtil.encode(42L)));
+        assertThat(changes.has("upserts"), is(false));
+        assertThat(changes.get("hasMore").asBoolean(), is(false));
+    }
+
+    @Test
+    void whenChangesRequestedWithTokenThenReturnUpsertsAndTombstonesOfWholeTransactionsAfterIt() throws Exception {
+        List<CourseChange> log = List.of(change(5L, 3L, false, 10L), change(6L, 7L, true, 11L), change(8L, 1L, false, 11L));
+        when(changeRepository.findAfter(4L, 2)).thenReturn(log);
+        when(courseRepository.findCardsByIds(List.of(3L, 1L))).thenReturn(toCards(List.of(testCourses.get(2), testCourses.get(0))));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/changes?size=2&since=" + CursorUtil.encode(4L), status().isOk()).getContentAsString();
+        JsonNode changes = TestRequestUtils.mapper.readTree(response);
+
+        verify(changeRepository).findAfter(4L, 2);
+        verify(courseRepository, never()).findPage(any(), any(), anyInt());
+        assertThat(changes.get("upserts"), hasSize(2));
+        assertThat(changes.get("upserts").get(0).get("title").asText(), equalTo("TEST 2"));
+        assertThat(changes.get("deletedIds").toString(), equalTo("[7]"));
+        assertThat(changes.get("token").asText(), equalTo(CursorUtil.encode(11L)));
+        assertThat(changes.get("hasMore").asBoolean(), is(true));
+    }
+
+    @Test
+    void whenNothingChangedAfterTokenThenReturnTheSameToken() throws Exception {
+        String token = CursorUtil.encode(9L);
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/changes?since=" + token, status().isOk()).getContentAsString();
+        JsonNode changes = TestRequestUtils.mapper.readTree(response);
+
+        assertThat(changes.get("token").asText(), equalTo(token));
+        assertThat(changes.get("hasMore").asBoolean(), is(false));
+    }
+
+    @Test
+    void whenChangeTokenIsInvalidThenStatus400() throws Exception {
+        tru.makeRequestToGetSingleItem(BASE_PATH + "/changes?since=" + CursorUtil.encode("abc"), status().isBadRequest());
+
+        verify(changeRepository, never()).findAfter(anyLong(), anyInt());
+    }
+
+    private CourseChange change(Long id, Long courseId, boolean deleted, long transactionId) {
+        CourseChange change = new CourseChange(courseId, deleted, transactionId);
+        change.setId(id);
+        return change;
+    }
+
+    @Test
+    void whenHistogramsRequestedForIdsThenReturnThemInOneBatch() throws Exception {
+        when(feedbackRepository.findHistogramsByCourseIds(any())).thenReturn(Map.of(
+                1L, RatingHistogram.fromMap(Map.of(Rating.FOUR, 3)),
+                3L, new RatingHistogram()));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "/histograms?ids=1,3,999", status().isOk()).getContentAsString();
+
+        verify(feedbackRepository).findHistogramsByCourseIds(Set.of(1L, 3L, 999L));
+        assertThat(response, containsString("\"1\":{"));
+        assertThat(response, containsString("\"FOUR\":3"));
+        assertThat(response, containsString("\"3\":{"));
+        assertThat(response, not(containsString("\"999\"")));
+    }
+
+    @Test
+    void whenTooManyHistogramsRequestedThenStatus400() throws Exception {
+        StringBuilder ids = new StringBuilder("1");
+        for (long id = 2; id <= 101; id++)
+            ids.append(",").append(id);
+
+        tru.makeRequestToGetSingleItem(BASE_PATH + "/histograms?ids=" + ids, status().isBadRequest());
+
+        verify(feedbackRepository, never()).findHistogramsByCourseIds(any());
+    }
+
+    @Test
+    void whenCoursesRequestedByIdsThenReturnThemInRequestOrderWithMissingIds() throws Exception {
+        Comment comment = new Comment();
+        comment.setDescription("LATEST COMMENT");
+        testCourses.get(0).getCourseFeedback().setId(1L);
+        testCourses.get(2).getCourseFeedback().setId(3L);
+        when(courseRepository.findAllById(any(), eq(CourseFetchPlan.DETAIL))).thenReturn(List.of(testCourses.get(0), testCourses.get(2)));
+        when(commentRepository.findLatestByFeedbackIds(any(), eq(3))).thenReturn(Map.of(3L, List.of(comment)));
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?ids=3,999,1,3", status().isOk()).getContentAsString();
+        JsonNode batch = TestRequestUtils.mapper.readTree(response);
+
+        verify(courseRepository).findAllById(Set.of(1L, 3L, 999L), CourseFetchPlan.DETAIL);
+        verify(courseRepository, never()).findPage(any(), any(), anyInt());
+        assertThat(batch.get("courses"), hasSize(2));
+        assertThat(batch.get("courses").get(0).get("title").asText(), equalTo("TEST 2"));
+        assertThat(batch.get("courses").get(1).get("title").asText(), equalTo("TEST 0"));
+        assertThat(response, containsString("\"latestComments\":[{\"description\":\"LATEST COMMENT\""));
+        assertThat(batch.get("missingIds").toString(), equalTo("[999]"));
+    }
+
+    @Test
+    void whenCoursesRequestedByIdsInBodyThenReturnThem() throws Exception {
+        when(courseRepository.findAllById(any(), eq(CourseFetchPlan.DETAIL))).thenReturn(List.of(testCourses.get(1)));
+
+        String response = tru.makePostRequest(BASE_PATH + "/batch", List.of(2L), status().isOk()).getContentAsString();
+        JsonNode batch = TestRequestUtils.mapper.readTree(response);
+
+        assertThat(batch.get("courses").get(0).get("title").asText(), equalTo("TEST 1"));
+        assertThat(batch.get("missingIds"), hasSize(0));
+    }
+
+    @Test
+    void whenTooManyCoursesRequestedByIdsThenStatus400() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 201; id++)
+            ids.add(id);
+
+        tru.makePostRequest(BASE_PATH + "/batch", ids, status().isBadRequest());
+
+        verify(courseRepository, never()).findAllById(any(), any());
+    }
+
     @Test
     void whenCourseWithGivenIdNotExistsThenStatus404() throws Exception {
         var response = tru.makeRequestToGetSingleItem(BASE_PATH + "/999", status().isNotFound());
@@ -186,20 +868,22 @@ class CourseResourceTest {
 
     @Test
     void whenNoCoursesWithCategoryReturnEmptyListWithStatus204() throws Exception {
-        when(courseRepository.findAll()).thenReturn(testCourses);
-        List<Course> courses = (List<Course>) tru.makeRequestToGetItems(BASE_PATH + "/category/999", status().isNoContent());
+        List<Course> courses = (List<Course>) tru.makeRequestToGetPageItems(BASE_PATH + "/category/999", PAGE_ITEMS, status().isNoContent());
 
-        verify(courseRepository).findAll();
+        verify(courseRepository).findPage(filterCaptor.capture(), isNull(), anyInt());
+        assertThat(filterCaptor.getValue().getCategoryId(), equalTo(999));
         assertThat(courses, hasSize(0));
     }
 
     @Test
     void shouldReturnFilteredListOfCoursesWithGivenCategoryIdAndStatus200() throws Exception {
-        testCourses.get(0).setCategories(Collections.emptyList());
-        when(courseRepository.findAll()).thenReturn(testCourses);
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses.subList(1, 3)));
 
-        List<Course> courses = (List<Course>) tru.makeRequestToGetItems(BASE_PATH + "/category/1", status().isOk());
+        List<Course> courses = (List<Course>) tru.makeRequestToGetPageItems(BASE_PATH + "/category/1", PAGE_ITEMS, status().isOk());
 
+        verify(courseRepository).findPage(filterCaptor.capture(), isNull(), anyInt());
+        assertThat(filterCaptor.getValue().getCategoryId(), equalTo(1));
+        assertThat(filterCaptor.getValue().getKeyword(), nullValue());
         assertThat(courses, hasSize(2));
         assertThat(courses.get(0).getTitle(), not(equalTo(testCourses.get(0).getTitle())));
     }
@@ -207,20 +891,34 @@ class CourseResourceTest {
     @Test
     void shouldReturnListOfCoursesFilteredByCategoryAndKeywordWhenKeywordProvided() throws Exception {
         var course = CourseFactory.createCourse("Course with keyword 1", 1.0, testCourseDescription, testCategories);
+        course.setId(4L);
         course.setCourseFeedback(new CourseFeedback());
         var course2 = CourseFactory.createCourse("Course with keyword 2", 2.0, testCourseDescription, testCategories);
+        course2.setId(5L);
         course2.setCourseFeedback(new CourseFeedback());
-        testCourses.add(course);
-        testCourses.add(course2);
-        when(courseRepository.findAll()).thenReturn(testCourses);
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(List.of(course, course2)));
 
         String keyword = "KeYwoRD";
-        List<Course> courses = (List<Course>) tru.makeRequestToGetItems(BASE_PATH + "/category/1?keyword=" + keyword, status().isOk());
-        verify(courseRepository).findAll();
+        List<Course> courses = (List<Course>) tru.makeRequestToGetPageItems(BASE_PATH + "/category/1?keyword=" + keyword, PAGE_ITEMS, status().isOk());
+        verify(courseRepository).findPage(filterCaptor.capture(), isNull(), anyInt());
+        assertThat(filterCaptor.getValue().getCategoryId(), equalTo(1));
+        assertThat(filterCaptor.getValue().getKeyword(), equalTo(keyword));
         assertThat(courses, hasSize(2));
         assertThat(courses.get(0).getTitle(), equalTo("Course with keyword 1"));
     }
 
+    @Test
+    void whenIncludeDescendantsPassedThenSearchWholeCategorySubtree() throws Exception {
+        when(courseRepository.findPage(any(), isNull(), anyInt())).thenReturn(toCards(testCourses));
+
+        List<Course> courses = (List<Course>) tru.makeRequestToGetPageItems(BASE_PATH + "/category/1?includeDescendants=true", PAGE_ITEMS, status().isOk());
+
+        verify(courseRepository).findPage(filterCaptor.capture(), isNull(), anyInt());
+        assertThat(filterCaptor.getValue().getCategoryId(), equalTo(1));
+        assertThat(filterCaptor.getValue().isIncludeDescendants(), equalTo(true));
+        assertThat(courses, hasSize(3));
+    }
+
     @WithMockUser
     @Test
     void shouldAddNewCourseAndReturnNewObjectWithStatus201() throws Exception {
@@ -234,6 +932,8 @@ class CourseResourceTest {
         Course course = TestRequestUtils.mapper.readValue(response.getContentAsString(), Course.class);
 
         verify(courseRepository).save(any());
+        verify(searchIndex).putCourse(any());
+        verify(changeRepository).record(testCourse.getId(), false);
         assertThat(course.getTitle(), equalTo(testCourse.getTitle()));
         assertThat(courseRepository.findAll(), hasSize(4));
     }
@@ -291,6 +991,8 @@ class CourseResourceTest {
         tru.makeDeleteRequest(BASE_PATH + "/1", status().isOk());
 
         verify(courseRepository).delete(testCourse);
+        verify(changeRepository).record(1L, true);
+        verify(searchIndex).removeCourse(1L);
         assertThat(courseRepository.findAll(), hasSize(3));
     }
 
@@ -319,7 +1021,7 @@ class CourseResourceTest {
         long id = 1L;
         testCourse.setId(id);
         testCourse.getAuthors().add(testUser);
-        when(courseRepository.findById(id)).thenReturn(Optional.ofNullable(testCourse));
+        when(courseRepository.findById(id, CourseFetchPlan.EDIT)).thenReturn(Optional.ofNullable(testCourse));
         when(userRepository.findByEmail(any())).thenReturn(testUser);
         when(jwtUtil.extractUsername(any())).thenReturn("some@email.com");
 
@@ -327,15 +1029,17 @@ class CourseResourceTest {
         updatedTestCourse.setTitle("NEW TITLE");
         tru.makePutRequest(BASE_PATH + "/1", updatedTestCourse, status().isOk());
 
-        verify(courseRepository).findById(id);
+        verify(courseRepository).findById(id, CourseFetchPlan.EDIT);
         verify(courseRepository).save(testCourse);
-        assertThat(courseRepository.findById(id).get().getTitle(), equalTo("NEW TITLE"));
+        verify(searchIndex).putCourse(any());
+        verify(changeRepository).record(id, false);
+        assertThat(courseRepository.findById(id, CourseFetchPlan.EDIT).get().getTitle(), equalTo("NEW TITLE"));
     }
 
     @WithMockUser
     @Test
     void whenRequesterToUpdateCourseIsNotOneOfAuthorsShouldReturnStatus400AndAppropriateMessage() throws Exception {
-        when(courseRepository.findById(1L)).thenReturn(Optional.ofNullable(testCourse));
+        when(courseRepository.findById(1L, CourseFetchPlan.EDIT)).thenReturn(Optional.ofNullable(testCourse));
         when(userRepository.findByEmail(any())).thenReturn(testUser);
 
         String response = tru.makePutRequest(BASE_PATH + "/1", testCourse, status().isBadRequest()).getContentAsString();
@@ -0,0 +1,140 @@
+package peterstuck.coursewebsitebackend.resources.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import peterstuck.coursewebsitebackend.models.course.Category;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.user.User;
+import peterstuck.coursewebsitebackend.models.user.UserDetail;
+import peterstuck.coursewebsitebackend.repositories.CategoryRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "catalog.index.enabled=false")
+@AutoConfigureMockMvc
+class GraphQLResourceTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private CourseRepository courseRepository;
+
+    @MockBean
+    private CategoryRepository categoryRepository;
+
+    private List<Course> testCourses;
+    private User testAuthor;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static final String PATH = "/api/graphql";
+
+    @BeforeEach
+    void setUp() {
+        testCourses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            var course = new Course();
+            course.setId(i + 1L);
+            course.setTitle("TEST " + i);
+            course.setPrice(10.0);
+            testCourses.add(course);
+        }
+
+        testAuthor = new User();
+        testAuthor.setEmail("author@email.com");
+        testAuthor.setFirstName("Name");
+        testAuthor.setLastName("Last");
+        testAuthor.setPassword("secret password");
+        testAuthor.setUserDetail(new UserDetail(1L, "image", null, null, null, null, null));
+    }
+
+    @Test
+    void whenNestedFieldsOfManyCoursesQueriedThenLoadEachOfThemWithOneQuery() throws Exception {
+        when(courseRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(testCourses);
+        when(courseRepository.findAuthorsByCourseIds(Set.of(1L, 2L, 3L))).thenReturn(List.of(
+                new Object[] { 1L, testAuthor },
+                new Object[] { 3L, testAuthor }));
+        when(courseRepository.findCategoriesByCourseIds(Set.of(1L, 2L, 3L))).thenReturn(List.<Object[]>of(
+                new Object[] { 2L, new Category("CATEGORY", 0) }));
+
+        JsonNode data = query("{ courses(ids: [3, 1, 2]) { title authors { firstName profile { profileImageUrl } } categories { name } } }")
+                .get("data");
+
+        verify(courseRepository).findAllById(Set.of(1L, 2L, 3L));
+        verify(courseRepository).findAuthorsByCourseIds(Set.of(1L, 2L, 3L));
+        verify(courseRepository).findCategoriesByCourseIds(Set.of(1L, 2L, 3L));
+        assertThat(data.get("courses").get(0).get("title").asText(), equalTo("TEST 2"));
+        assertThat(data.get("courses").get(0).get("authors").get(0).get("profile").get("profileImageUrl").asText(), equalTo("image"));
+        assertThat(data.get("courses").get(1).get("authors").get(0).get("firstName").asText(), equalTo("Name"));
+        assertThat(data.get("courses").get(2).get("authors"), hasSize(0));
+        assertThat(data.get("courses").get(2).get("categories").get(0).get("name").asText(), equalTo("CATEGORY"));
+    }
+
+    @Test
+    void whenCourseNotExistsThenReturnNull() throws Exception {
+        JsonNode data = query("{ course(id: 999) { title } }").get("data");
+
+        assertThat(data.get("course").isNull(), is(true));
+    }
+
+    @Test
+    void whenPrivateFieldOfUserQueriedThenReturnErrorWithoutData() throws Exception {
+        JsonNode response = query("{ course(id: 1) { authors { email password } } }");
+
+        assertThat(response.get("errors"), not(emptyIterable()));
+        verify(courseRepository, never()).findAllById(any(Set.class));
+    }
+
+    @Test
+    void whenQueryIsTooDeepThenRejectItBeforeLoadingAnything() throws Exception {
+        JsonNode response = query("{ categories { children { children { children { children { children { children { children { children { name } } } } } } } } } }");
+
+        assertThat(response.get("errors").toString(), containsString("depth"));
+        verify(categoryRepository, never()).findByParentCategoryIdInOrderByNameSortKeyAscIdAsc(any());
+    }
+
+    @Test
+    void whenQueryIsTooCostlyThenRejectItBeforeLoadingAnything() throws Exception {
+        StringBuilder ids = new StringBuilder();
+        for (int id = 1; id <= 200; id++)
+            ids.append(id).append(",");
+
+        JsonNode response = query("{ courses(ids: [" + ids + "]) { title authors { firstName lastName } } }");
+
+        assertThat(response.get("errors").toString(), containsString("complexity"));
+        verify(courseRepository, never()).findAllById(any(Set.class));
+    }
+
+    private JsonNode query(String query) throws Exception {
+        String response = mvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(Map.of("query", query))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(response);
+    }
+}
@@ -13,17 +13,21 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import peterstuck.coursewebsitebackend.models.user.User;
 import peterstuck.coursewebsitebackend.models.user.UserDetail;
+import peterstuck.coursewebsitebackend.repositories.user.UserField;
 import peterstuck.coursewebsitebackend.repositories.user.UserRepository;
 import peterstuck.coursewebsitebackend.resources.TestRequestUtils;
 import peterstuck.coursewebsitebackend.utils.JwtUtil;
 
 import java.util.Collections;
+import java.util.EnumSet;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -146,7 +150,7 @@ class UserResourceTest {
     @WithMockUser
     @Test
     void shouldReturnUserDataWithUserDetailsAndStatus200() throws Exception {
-        when(repository.findByEmail(any())).thenReturn(validTestUser);
+        when(repository.findInfoByEmail(any(), any())).thenReturn(validTestUser);
 
         String response = tru.makeRequestToGetSingleItem(BASE_PATH, status().isOk()).getContentAsString();
         User responseUser = new ObjectMapper().readValue(response, User.class);
@@ -158,10 +162,32 @@ class UserResourceTest {
         assertThat(responseUser.getOwnCourses(), equalTo(validTestUser.getOwnCourses()));
     }
 
+    @WithMockUser
+    @Test
+    void whenFieldsSelectedThenLoadAndReturnOnlyThem() throws Exception {
+        when(repository.findInfoByEmail(any(), any())).thenReturn(validTestUser);
+
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?fields=firstName", status().isOk()).getContentAsString();
+
+        verify(repository).findInfoByEmail(any(), eq(EnumSet.of(UserField.FIRST_NAME)));
+        assertThat(response, containsString("\"firstName\":\"First\""));
+        assertThat(response, not(containsString("email")));
+        assertThat(response, not(containsString("lastName")));
+        assertThat(response, not(containsString("userDetail")));
+    }
+
+    @WithMockUser
+    @Test
+    void whenUserFieldCanNotBeSelectedThenReturnStatus400() throws Exception {
+        String response = tru.makeRequestToGetSingleItem(BASE_PATH + "?fields=password", status().isBadRequest()).getContentAsString();
+
+        assertThat(response, containsString("password"));
+    }
+
     @WithMockUser
     @Test
     void whenTokenInvalidDuringGetUserInfoThenReturnStatus400AndMessage() throws Exception {
-        when(repository.findByEmail(any())).thenReturn(null);
+        when(repository.findInfoByEmail(any(), any())).thenReturn(null);
 
         String response = tru.makeRequestToGetSingleItem(BASE_PATH, status().isBadRequest()).getContentAsString();
 
@@ -0,0 +1,125 @@
+package peterstuck.coursewebsitebackend.services.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import peterstuck.coursewebsitebackend.models.course.CatalogEntry;
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.models.course.CourseChange;
+import peterstuck.coursewebsitebackend.repositories.CourseChangeRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.repositories.course.CourseFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "catalog.cache.file=${java.io.tmpdir}/course-website-catalog-test.cache")
+class CatalogCacheTest {
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CourseCatalog courseCatalog;
+
+    @Autowired
+    private CatalogIndex catalogIndex;
+
+    @MockBean
+    private CourseRepository courseRepository;
+
+    @MockBean
+    private CourseChangeRepository changeRepository;
+
+    @BeforeEach
+    void setUp() {
+        when(courseRepository.findAllCatalogEntries()).thenReturn(List.of(entry(1L, 4.0), entry(2L, 3.0), entry(3L, 5.0)));
+        when(courseRepository.findAllCards()).thenReturn(List.of(card(1L, 4.0, 1), card(2L, 3.0, 1), card(3L, 5.0, 1)));
+        when(changeRepository.findCheckpoint()).thenReturn(10L);
+        catalogCache.rebuild();
+        clearInvocations(courseRepository);
+    }
+
+    @Test
+    void whenCacheLoadedThenCatchUpOnlyWithCoursesFromChangeLog() {
+        when(changeRepository.findCheckpoint()).thenReturn(12L);
+        when(changeRepository.findAfter(eq(10L), anyInt())).thenReturn(List.of(change(11L, 2L, false, 11L), change(12L, 3L, true, 12L)));
+        when(courseRepository.findCatalogEntriesByIds(any())).thenReturn(new ArrayList<>(List.of(entry(2L, 4.5))));
+        when(courseRepository.findCardsByIds(any())).thenReturn(List.of(card(2L, 4.5, 2)));
+
+        catalogCache.warmUp();
+
+        verify(courseRepository, never()).findAllCards();
+        verify(courseRepository, never()).findAllCatalogEntries();
+        List<CourseCard> cards = courseCatalog.cards();
+        assertThat(cards.stream().map(CourseCard::getId).collect(Collectors.toList()), contains(1L, 2L));
+        assertThat(cards.get(1).getAvgRate(), equalTo(4.5));
+        assertThat(cards.get(1).getRatesCount(), equalTo(2));
+        assertThat(catalogIndex.entries().stream().map(CatalogEntry::getId).collect(Collectors.toList()), containsInAnyOrder(1L, 2L));
+    }
+
+    @Test
+    void whenCacheLoadedWithoutChangesThenAnswerListingsFromFile() {
+        when(changeRepository.findAfter(eq(10L), anyInt())).thenReturn(List.of());
+
+        catalogCache.warmUp();
+
+        IndexPage page = catalogIndex.findPage(CourseFilter.builder().minRating(3.5).build(), null, 10).orElseThrow();
+        assertThat(page.getIds(), contains(1L, 3L));
+        List<CourseCard> cards = courseCatalog.findCards(page.getIds()).orElseThrow();
+        assertThat(cards.stream().map(CourseCard::getTitle).collect(Collectors.toList()), contains("Course 1", "Course 3"));
+        verifyNoInteractions(courseRepository);
+    }
+
+    @Test
+    void whenDatabaseHasFewerChangesThanCacheThenRebuildFromDatabase() {
+        when(changeRepository.findCheckpoint()).thenReturn(3L);
+
+        catalogCache.warmUp();
+
+        verify(changeRepository, never()).findAfter(anyLong(), anyInt());
+        verify(courseRepository).findAllCards();
+        verify(courseRepository).findAllCatalogEntries();
+    }
+
+    @Test
+    void whenTooManyCoursesChangedThenRebuildFromDatabase() {
+        List<CourseChange> changes = new ArrayList<>();
+        for (long id = 11; id <= 10_011; id++)
+            changes.add(change(id, id, false, id));
+        when(changeRepository.findCheckpoint()).thenReturn(10_011L);
+        when(changeRepository.findAfter(eq(10L), anyInt())).thenReturn(changes);
+
+        catalogCache.warmUp();
+
+        verify(courseRepository, never()).findCardsByIds(any());
+        verify(courseRepository).findAllCards();
+    }
+
+    private static CatalogEntry entry(Long id, double avgRate) {
+        return new CatalogEntry(id, "course " + id, 10.0, avgRate, 0, 0);
+    }
+
+    private static CourseCard card(Long id, double avgRate, int ratesCount) {
+        return new CourseCard(id, "Course " + id, 10.0, 0L, "short", id, avgRate, ratesCount, 0, null);
+    }
+
+    private static CourseChange change(Long id, Long courseId, boolean deleted, long transactionId) {
+        CourseChange change = new CourseChange(courseId, deleted, transactionId);
+        change.setId(id);
+        return change;
+    }
+
+}
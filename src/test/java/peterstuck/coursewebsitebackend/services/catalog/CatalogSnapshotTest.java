@@ -0,0 +1,65 @@
+package peterstuck.coursewebsitebackend.services.catalog;
+
+import org.junit.jupiter.api.Test;
+import peterstuck.coursewebsitebackend.models.course.CourseCard;
+import peterstuck.coursewebsitebackend.models.course.CourseRating;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Texts are created as new strings for every card, as they are when loaded from database.
+ */
+class CatalogSnapshotTest {
+
+    @Test
+    void whenCoursesHaveEqualTextsThenStoreThemOnce() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(card(1L, "Java"), card(2L, "Java")));
+
+        CourseCard first = snapshot.find(1);
+        CourseCard second = snapshot.find(2);
+        assertThat(second.getTitle(), sameInstance(first.getTitle()));
+        assertThat(second.getShortDescription(), sameInstance(first.getShortDescription()));
+        assertThat(second.getAuthors().get(0), sameInstance(first.getAuthors().get(0)));
+    }
+
+    @Test
+    void whenCourseChangedThenReuseTextsOfPreviousSnapshot() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(card(1L, "Java"), card(2L, "Spring")));
+        String title = snapshot.find(1).getTitle();
+
+        CatalogSnapshot.Changes changes = new CatalogSnapshot.Changes();
+        changes.put(card(3L, "Java"));
+        changes.remove(2L);
+        CatalogSnapshot changed = snapshot.apply(changes);
+
+        assertThat(changed.find(3).getTitle(), sameInstance(title));
+        assertThat(changed.find(3).getAuthors().get(0), sameInstance(snapshot.find(1).getAuthors().get(0)));
+        assertThat(changed.cards().stream().map(CourseCard::getId).collect(Collectors.toList()), contains(1L, 3L));
+        assertThat(snapshot.find(2), notNullValue());
+    }
+
+    @Test
+    void whenOnlyRatingsChangedThenShareOtherColumns() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(card(1L, "Java"), card(2L, "Spring")));
+
+        CatalogSnapshot.Changes changes = new CatalogSnapshot.Changes();
+        changes.updateRating(new CourseRating(2L, 4.5, 3));
+        CatalogSnapshot changed = snapshot.apply(changes);
+
+        assertThat(changed.find(2).getAvgRate(), equalTo(4.5));
+        assertThat(changed.find(2).getRatesCount(), equalTo(3));
+        assertThat(changed.find(2).getTitle(), sameInstance(snapshot.find(2).getTitle()));
+        assertThat(snapshot.find(2).getAvgRate(), equalTo(1.0));
+    }
+
+    private static CourseCard card(Long id, String title) {
+        CourseCard card = new CourseCard(id, new String(title), 10.0, 0L, new String("Short description"), id, 1.0, 1, 0, null);
+        card.getAuthors().add(new String("Jan Kowalski"));
+        return card;
+    }
+
+}
@@ -0,0 +1,204 @@
+package peterstuck.coursewebsitebackend.services.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Containers switch from sorted array to bits above 4096 values, so every operation is checked on both sides of that limit
+ * and against TreeSet of the same values.
+ */
+class CompressedBitmapTest {
+
+    private static final int ARRAY_LIMIT = 4096;
+
+    private static final int CONTAINER = 1 << 16;
+
+    @Test
+    void whenContainerReachesArrayLimitThenKeepAllValues() {
+        CompressedBitmap bitmap = bitmapOf(IntStream.range(0, ARRAY_LIMIT).map(i -> i * 2));
+
+        assertThat(bitmap.cardinality(), equalTo(ARRAY_LIMIT));
+        assertThat(bitmap.contains(2 * (ARRAY_LIMIT - 1)), equalTo(true));
+        assertThat(bitmap.contains(1), equalTo(false));
+        assertThat(bitmap.rank(2 * ARRAY_LIMIT), equalTo(ARRAY_LIMIT));
+        assertThat(bitmap.select(ARRAY_LIMIT - 1, 2)[0], equalTo(2 * (ARRAY_LIMIT - 1)));
+    }
+
+    @Test
+    void whenContainerGrowsOverArrayLimitAndShrinksBackThenKeepValuesAndOrder() {
+        NavigableSet<Integer> expected = new TreeSet<>();
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i <= ARRAY_LIMIT; i++) {
+            bitmap.add(i * 3);
+            expected.add(i * 3);
+        }
+        assertMatches(bitmap, expected);
+
+        bitmap.remove(0);
+        expected.remove(0);
+        assertMatches(bitmap, expected);
+
+        bitmap.remove(3);
+        bitmap.add(1);
+        expected.remove(3);
+        expected.add(1);
+        assertMatches(bitmap, expected);
+    }
+
+    @Test
+    void whenValuesAreInManyContainersThenRankAndSelectCrossTheirBounds() {
+        CompressedBitmap bitmap = bitmapOf(IntStream.of(CONTAINER - 1, CONTAINER, 3 * CONTAINER + 5, Integer.MAX_VALUE));
+
+        assertThat(bitmap.rank(CONTAINER - 1), equalTo(1));
+        assertThat(bitmap.rank(CONTAINER), equalTo(2));
+        assertThat(bitmap.rank(2 * CONTAINER), equalTo(2));
+        assertThat(bitmap.rank(Integer.MAX_VALUE), equalTo(4));
+        assertThat(toList(bitmap.select(1, 10)), contains(CONTAINER, 3 * CONTAINER + 5, Integer.MAX_VALUE));
+        assertThat(toList(bitmap.select(4, 10)), empty());
+    }
+
+    @Test
+    void whenLastValueOfContainerRemovedThenDropContainer() {
+        CompressedBitmap bitmap = bitmapOf(IntStream.of(5, CONTAINER + 5));
+
+        bitmap.remove(5);
+        bitmap.remove(5);
+
+        assertThat(bitmap.cardinality(), equalTo(1));
+        assertThat(bitmap.rank(CONTAINER), equalTo(0));
+        assertThat(toList(bitmap.select(0, 10)), contains(CONTAINER + 5));
+
+        bitmap.remove(CONTAINER + 5);
+
+        assertThat(bitmap.isEmpty(), equalTo(true));
+        assertThat(bitmap.cardinality(), equalTo(0));
+        assertThat(bitmap.rank(Integer.MAX_VALUE), equalTo(0));
+        assertThat(toList(bitmap.select(0, 10)), empty());
+    }
+
+    @Test
+    void whenArrayAndBitsContainersCombinedThenResultMatchesSets() {
+        CompressedBitmap dense = bitmapOf(IntStream.range(0, 2 * ARRAY_LIMIT));
+        CompressedBitmap sparse = bitmapOf(IntStream.of(1, ARRAY_LIMIT, 2 * ARRAY_LIMIT, CONTAINER + 1));
+
+        assertThat(toList(dense.and(sparse)), contains(1, ARRAY_LIMIT));
+        assertThat(toList(sparse.and(dense)), contains(1, ARRAY_LIMIT));
+        assertThat(dense.or(sparse).cardinality(), equalTo(2 * ARRAY_LIMIT + 2));
+        assertThat(dense.and(bitmapOf(IntStream.range(ARRAY_LIMIT, 2 * ARRAY_LIMIT))).cardinality(), equalTo(ARRAY_LIMIT));
+    }
+
+    @Test
+    void whenArraysCombinedOverLimitThenResultIsStillExact() {
+        CompressedBitmap even = bitmapOf(IntStream.range(0, ARRAY_LIMIT).map(i -> i * 2));
+        CompressedBitmap odd = bitmapOf(IntStream.range(0, ARRAY_LIMIT).map(i -> i * 2 + 1));
+
+        CompressedBitmap union = even.or(odd);
+
+        assertThat(union.cardinality(), equalTo(2 * ARRAY_LIMIT));
+        assertThat(union.rank(2 * ARRAY_LIMIT - 1), equalTo(2 * ARRAY_LIMIT));
+        assertThat(toList(union.select(ARRAY_LIMIT, 2)), contains(ARRAY_LIMIT, ARRAY_LIMIT + 1));
+        assertThat(even.and(odd).isEmpty(), equalTo(true));
+    }
+
+    @Test
+    void whenCombinedWithEmptyBitmapThenResultIsEmptyOrCopy() {
+        CompressedBitmap bitmap = bitmapOf(IntStream.range(0, ARRAY_LIMIT + 1));
+        CompressedBitmap empty = new CompressedBitmap();
+
+        CompressedBitmap copy = bitmap.or(empty);
+        copy.remove(0);
+
+        assertThat(bitmap.and(empty).isEmpty(), equalTo(true));
+        assertThat(empty.and(bitmap).isEmpty(), equalTo(true));
+        assertThat(empty.or(empty).isEmpty(), equalTo(true));
+        assertThat(copy.cardinality(), equalTo(ARRAY_LIMIT));
+        assertThat(bitmap.contains(0), equalTo(true));
+    }
+
+    @Test
+    void whenValueIsNegativeThenRejectAddAndIgnoreQueries() {
+        CompressedBitmap bitmap = bitmapOf(IntStream.of(1));
+
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+        bitmap.remove(-1);
+        assertThat(bitmap.contains(-1), equalTo(false));
+        assertThat(bitmap.rank(-1), equalTo(0));
+        assertThat(bitmap.cardinality(), equalTo(1));
+    }
+
+    @Test
+    void whenRandomValuesAddedAndRemovedThenEveryOperationMatchesTreeSet() {
+        Random random = new Random(42);
+        CompressedBitmap first = new CompressedBitmap();
+        CompressedBitmap second = new CompressedBitmap();
+        NavigableSet<Integer> firstExpected = new TreeSet<>();
+        NavigableSet<Integer> secondExpected = new TreeSet<>();
+
+        for (int round = 0; round < 20_000; round++) {
+            // the first container gets dense, the rest stays sparse
+            int value = random.nextBoolean() ? random.nextInt(ARRAY_LIMIT * 2) : random.nextInt(3 * CONTAINER);
+            boolean toFirst = random.nextBoolean();
+            if (random.nextInt(4) == 0) {
+                (toFirst ? first : second).remove(value);
+                (toFirst ? firstExpected : secondExpected).remove(value);
+            } else {
+                (toFirst ? first : second).add(value);
+                (toFirst ? firstExpected : secondExpected).add(value);
+            }
+        }
+
+        assertMatches(first, firstExpected);
+        assertMatches(second, secondExpected);
+        NavigableSet<Integer> intersection = new TreeSet<>(firstExpected);
+        intersection.retainAll(secondExpected);
+        NavigableSet<Integer> union = new TreeSet<>(firstExpected);
+        union.addAll(secondExpected);
+        assertMatches(first.and(second), intersection);
+        assertMatches(first.or(second), union);
+        for (int value : List.of(0, ARRAY_LIMIT, CONTAINER - 1, CONTAINER, 2 * CONTAINER + 7, 3 * CONTAINER))
+            assertThat(first.rank(value), equalTo(firstExpected.headSet(value, true).size()));
+    }
+
+    private static void assertMatches(CompressedBitmap bitmap, NavigableSet<Integer> expected) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        assertThat(values, equalTo(new ArrayList<>(expected)));
+        assertThat(bitmap.cardinality(), equalTo(expected.size()));
+        assertThat(toList(bitmap.select(0, expected.size() + 1)), equalTo(new ArrayList<>(expected)));
+        if (!expected.isEmpty()) {
+            int middle = expected.size() / 2;
+            int value = new ArrayList<>(expected).get(middle);
+            assertThat(bitmap.rank(value), equalTo(middle + 1));
+            assertThat(bitmap.select(middle, 1)[0], equalTo(value));
+            assertThat(bitmap.contains(value), equalTo(true));
+        }
+    }
+
+    private static CompressedBitmap bitmapOf(IntStream values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        values.forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static List<Integer> toList(CompressedBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+
+    private static List<Integer> toList(int[] values) {
+        return IntStream.of(values).boxed().collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,64 @@
+package peterstuck.coursewebsitebackend.services.graphql;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.CourseDescription;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Service is called directly, without request scoped persistence context, and reads committed courses from real database.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "catalog.index.enabled=false")
+class GraphQLServiceTest {
+
+    @Autowired
+    private GraphQLService graphQLService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private Long courseId;
+
+    @BeforeEach
+    void setUp() {
+        Course course = new Course();
+        course.setTitle("GraphQL description");
+        course.setPrice(20.0);
+        course.setCourseDescription(new CourseDescription(0, 12.5, "Short", "Long", new ArrayList<>(List.of("Schema", "Loaders")), new ArrayList<>(List.of("Java"))));
+        courseId = courseRepository.save(course).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        courseRepository.deleteById(courseId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenDescriptionQueriedThenLoadItsCollectionsWithFetchPlan() {
+        Map<String, Object> result = graphQLService.execute(
+                "{ course(id: " + courseId + ") { title description { shortDescription mainTopics requirements } } }", null, null);
+
+        assertThat(result.get("errors"), nullValue());
+        Map<String, Object> course = (Map<String, Object>) ((Map<String, Object>) result.get("data")).get("course");
+        Map<String, Object> description = (Map<String, Object>) course.get("description");
+        assertThat(course.get("title"), equalTo("GraphQL description"));
+        assertThat(description.get("shortDescription"), equalTo("Short"));
+        assertThat((List<String>) description.get("mainTopics"), contains("Schema", "Loaders"));
+        assertThat((List<String>) description.get("requirements"), contains("Java"));
+    }
+
+}
@@ -0,0 +1,151 @@
+package peterstuck.coursewebsitebackend.services.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import peterstuck.coursewebsitebackend.models.course.Course;
+import peterstuck.coursewebsitebackend.models.course.Language;
+import peterstuck.coursewebsitebackend.repositories.CourseChangeRepository;
+import peterstuck.coursewebsitebackend.repositories.CourseRepository;
+import peterstuck.coursewebsitebackend.repositories.course.CourseSearchDocument;
+import peterstuck.coursewebsitebackend.repositories.course.CourseSearchHit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Index is held in memory in test profile, documents are rebuilt from mocked repository before every test.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "catalog.index.enabled=false")
+class CourseSearchIndexTest {
+
+    @Autowired
+    private CourseSearchIndex searchIndex;
+
+    @MockBean
+    private CourseRepository courseRepository;
+
+    @MockBean
+    private CourseChangeRepository changeRepository;
+
+    private static final int ENGLISH = Language.ENGLISH.bit();
+
+    @BeforeEach
+    void setUp() {
+        givenIndexedCourses(
+                new CourseSearchDocument(1L, "Cooking for beginners", "Learn java of coffee", "Long description", "coffee", ENGLISH, 4.0),
+                new CourseSearchDocument(2L, "Java from scratch", "Basics of programming", "Everything about classes", "java, classes", ENGLISH, 4.0),
+                new CourseSearchDocument(3L, "Testing web applications", "Unit and integration tests", null, null, ENGLISH, 3.0),
+                new CourseSearchDocument(4L, "Testing web applications", "Unit and integration tests", null, null, ENGLISH, 5.0));
+    }
+
+    @Test
+    void whenWordMatchesTitleThenRankCourseAboveDescriptionMatches() {
+        List<CourseSearchHit> hits = searchIndex.search("java", null, 10);
+
+        assertThat(ids(hits), contains(2L, 1L));
+    }
+
+    @Test
+    void whenWordIsInflectedThenFindItsStemInCourseOfThatLanguage() {
+        List<CourseSearchHit> hits = searchIndex.search("tested application", null, 10);
+
+        assertThat(ids(hits), containsInAnyOrder(3L, 4L));
+    }
+
+    @Test
+    void whenWordIsTypedPartiallyThenMatchItAsPrefix() {
+        assertThat(ids(searchIndex.search("scrat", null, 10)), contains(2L));
+    }
+
+    @Test
+    void whenNotAllWordsMatchThenCourseIsNotFound() {
+        assertThat(searchIndex.search("java testing", null, 10), empty());
+    }
+
+    @Test
+    void whenCoursesMatchEquallyThenBetterRatedIsMoreRelevant() {
+        List<CourseSearchHit> hits = searchIndex.search("testing", null, 10);
+
+        assertThat(ids(hits), contains(4L, 3L));
+        assertThat(hits.get(0).getRank(), greaterThan(hits.get(1).getRank()));
+    }
+
+    @Test
+    void whenRatingUpdatedThenChangeOrderWithoutReindexingTexts() {
+        searchIndex.updateRating(3L, 5.0);
+        searchIndex.updateRating(4L, 1.0);
+
+        assertThat(ids(searchIndex.search("testing", null, 10)), contains(3L, 4L));
+    }
+
+    @Test
+    void whenSearchedAfterHitThenReturnNextHits() {
+        List<CourseSearchHit> first = searchIndex.search("testing", null, 1);
+
+        List<CourseSearchHit> next = searchIndex.search("testing", first.get(0), 10);
+
+        assertThat(ids(first), contains(4L));
+        assertThat(ids(next), contains(3L));
+    }
+
+    @Test
+    void whenSearchedThenHighlightMatchedWordsInTitleAndShortDescription() {
+        List<CourseSearchHit> hits = searchIndex.search("java", null, 1);
+
+        assertThat(hits.get(0).getHighlight(), equalTo("<b>Java</b> from scratch - Basics of programming"));
+    }
+
+    @Test
+    void whenCoursePutOrRemovedOutsideOfTransactionThenSearchItAtOnce() {
+        Course course = new Course();
+        course.setId(5L);
+        course.setTitle("Advanced java");
+        course.setLanguages(Set.of(Language.ENGLISH));
+
+        searchIndex.putCourse(course);
+        searchIndex.removeCourse(2L);
+
+        assertThat(ids(searchIndex.search("java", null, 10)), containsInAnyOrder(5L, 1L));
+    }
+
+    @Test
+    void whenRebuiltThenReadCoursesInChunks() {
+        List<CourseSearchDocument> chunk = new ArrayList<>();
+        for (long id = 1; id <= CourseSearchIndex.CHUNK_SIZE; id++)
+            chunk.add(new CourseSearchDocument(id, "Course " + id, null, null, null, ENGLISH, 0));
+        CourseSearchDocument last = new CourseSearchDocument(1000L, "Last course", null, null, null, ENGLISH, 0);
+        reset(courseRepository);
+        when(courseRepository.findSearchDocuments(eq(0L), anyInt())).thenReturn(chunk);
+        when(courseRepository.findSearchDocuments(eq((long) CourseSearchIndex.CHUNK_SIZE), anyInt())).thenReturn(List.of(last));
+
+        assertThat(searchIndex.rebuild(), equalTo(true));
+
+        verify(courseRepository, times(2)).findSearchDocuments(anyLong(), eq(CourseSearchIndex.CHUNK_SIZE));
+        assertThat(ids(searchIndex.search("last", null, 10)), contains(1000L));
+        assertThat(searchIndex.search("testing", null, 10), empty());
+    }
+
+    private void givenIndexedCourses(CourseSearchDocument... documents) {
+        when(courseRepository.findSearchDocuments(eq(0L), anyInt())).thenReturn(List.of(documents));
+        searchIndex.rebuild();
+    }
+
+    private static List<Long> ids(List<CourseSearchHit> hits) {
+        return hits.stream().map(CourseSearchHit::getId).collect(Collectors.toList());
+    }
+
+}